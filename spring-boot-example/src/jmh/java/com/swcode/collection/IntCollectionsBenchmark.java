@@ -0,0 +1,112 @@
+package com.swcode.collection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bulk-id pattern of the DAOs (collect the ids found, then probe the
+ * requested ids against them) with the primitive collections and with their
+ * boxed {@code java.util} counterparts. Run with {@code -prof gc}: the
+ * {@code gc.alloc.rate.norm} column is the point of the comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class IntCollectionsBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private int[] found;
+    private int[] requested;
+    private Object value;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // ids beyond the Integer cache, as real customer ids soon are
+        found = random.ints(size, 1_000, 10_000_000).toArray();
+        requested = random.ints(size, 1_000, 10_000_000).toArray();
+        System.arraycopy(found, 0, requested, 0, size / 2);
+        value = new Object();
+    }
+
+    @Benchmark
+    public int intHashSet() {
+        IntHashSet existing = new IntHashSet(found.length);
+        for (int id : found) {
+            existing.add(id);
+        }
+        int missing = 0;
+        for (int id : requested) {
+            if (!existing.contains(id)) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    @Benchmark
+    public int boxedHashSet() {
+        Set<Integer> existing = new HashSet<>(found.length * 2);
+        for (int id : found) {
+            existing.add(id);
+        }
+        int missing = 0;
+        for (int id : requested) {
+            if (!existing.contains(id)) {
+                missing++;
+            }
+        }
+        return missing;
+    }
+
+    @Benchmark
+    public int intObjectHashMap() {
+        IntObjectHashMap<Object> byId = new IntObjectHashMap<>(found.length);
+        for (int id : found) {
+            byId.put(id, value);
+        }
+        int hits = 0;
+        for (int id : requested) {
+            if (byId.get(id) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int boxedHashMap() {
+        Map<Integer, Object> byId = new HashMap<>(found.length * 2);
+        for (int id : found) {
+            byId.put(id, value);
+        }
+        int hits = 0;
+        for (int id : requested) {
+            if (byId.get(id) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
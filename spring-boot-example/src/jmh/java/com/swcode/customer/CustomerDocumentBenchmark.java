@@ -0,0 +1,96 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.cache.LocalCacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Single-threaded requests per second for {@code GET /api/v1/customers/{id}}
+ * through Spring MVC's dispatcher: served from {@link CustomerDocumentCache}
+ * by {@link CustomerController}, and rendered by Jackson on every request as
+ * the endpoint did before the cache. Both read the same customer from
+ * {@link CustomerListAccessService}, so neither touches a database or the
+ * network; the difference is the per-request serialization work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Thread)
+public class CustomerDocumentBenchmark {
+
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() throws Exception {
+        CustomerService customerService = new CustomerService(
+                new CustomerListAccessService(), null, null, null, 100);
+        CustomerDocumentCache documentCache = new CustomerDocumentCache(
+                customerService,
+                new ObjectMapper(),
+                new LocalCacheInvalidationBus(),
+                new SimpleMeterRegistry(),
+                100,
+                Duration.ofHours(1),
+                1024);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new CustomerController(customerService, null, null, null, documentCache, null),
+                new RenderingController(customerService)
+        ).build();
+        for (String path : new String[]{"/api/v1/customers/1", "/rendered/1"}) {
+            int status = mockMvc.perform(get(path)).andReturn().getResponse().getStatus();
+            if (status != 200) {
+                throw new IllegalStateException("GET " + path + " answered " + status);
+            }
+        }
+    }
+
+    @Benchmark
+    public MvcResult cachedDocument() throws Exception {
+        return mockMvc.perform(get("/api/v1/customers/1")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult renderedPerRequest() throws Exception {
+        return mockMvc.perform(get("/rendered/1")).andReturn();
+    }
+
+    @RestController
+    static class RenderingController {
+
+        private final CustomerService customerService;
+
+        RenderingController(CustomerService customerService) {
+            this.customerService = customerService;
+        }
+
+        @GetMapping("rendered/{customerId}")
+        public CustomerView getCustomer(@PathVariable("customerId") Integer customerId) {
+            return customerService.getCustomerView(customerId);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.swcode.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * By-id reads and full scans against the same rows held on the heap by
+ * {@link CustomerListAccessService} and off-heap by {@link OffHeapCustomerTable},
+ * read the way {@link CustomerOffHeapDataAccessService} does. Sample mode
+ * reports latency percentiles; add {@code -prof gc} for allocation and GC
+ * counts, and {@code -jvmArgsAppend -Xlog:gc} for the heap left live after
+ * each collection, which is where the two layouts differ most.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerOffHeapBenchmark {
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private CustomerListAccessService list;
+    private OffHeapCustomerTable table;
+
+    @Setup
+    public void setUp() {
+        // the list DAO keeps its rows in a static list, seeded with ids 1 and 2
+        list = new CustomerListAccessService();
+        OffHeapCustomerTable.Builder builder = new OffHeapCustomerTable.Builder();
+        for (Customer seeded : list.selectAllCustomers()) {
+            builder.add(seeded.getId(), seeded.getName(), seeded.getEmail(), seeded.getAge());
+        }
+        for (int id = 3; id <= rows; id++) {
+            Customer customer = new Customer(id, "Customer " + id, "customer-" + id + "@example.com", 18 + id % 70);
+            list.insertCustomer(customer);
+            builder.add(id, customer.getName(), customer.getEmail(), customer.getAge());
+        }
+        table = builder.build();
+    }
+
+    @Benchmark
+    public Optional<CustomerView> listById() {
+        return list.selectCustomerViewById(randomId());
+    }
+
+    @Benchmark
+    public Optional<CustomerView> offHeapById() {
+        int row = table.findById(randomId());
+        return row < 0 ? Optional.empty() : Optional.of(table.view(row));
+    }
+
+    @Benchmark
+    public List<CustomerView> listScan() {
+        return list.selectAllCustomerViews();
+    }
+
+    @Benchmark
+    public List<CustomerView> offHeapScan() {
+        List<CustomerView> views = new ArrayList<>(table.rows());
+        for (int row = 0; row < table.rows(); row++) {
+            views.add(table.view(row));
+        }
+        return views;
+    }
+
+    private int randomId() {
+        return ThreadLocalRandom.current().nextInt(1, rows + 1);
+    }
+}
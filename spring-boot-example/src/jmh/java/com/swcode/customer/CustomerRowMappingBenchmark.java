@@ -0,0 +1,90 @@
+package com.swcode.customer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps the same rows into {@link Customer} entities by column label
+ * ({@link CustomerRowMapper}) and into {@link CustomerView}s by index
+ * ({@link CustomerViewResultSetExtractor}). The rows come from an in-memory
+ * {@link CachedRowSet}, so the driver's own decoding is left out and only the
+ * mapping differs. Add {@code -prof gc} for allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CustomerRowMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private CachedRowSet resultSet;
+    private final CustomerRowMapper rowMapper = new CustomerRowMapper();
+    private final CustomerViewResultSetExtractor extractor = new CustomerViewResultSetExtractor();
+
+    @Setup
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(4);
+        column(metaData, 1, "id", Types.INTEGER);
+        column(metaData, 2, "name", Types.VARCHAR);
+        column(metaData, 3, "email", Types.VARCHAR);
+        column(metaData, 4, "age", Types.INTEGER);
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        for (int i = 1; i <= rows; i++) {
+            resultSet.moveToInsertRow();
+            resultSet.updateInt(1, i);
+            resultSet.updateString(2, "Customer " + i);
+            resultSet.updateString(3, "customer-" + i + "@example.com");
+            resultSet.updateInt(4, 18 + i % 70);
+            resultSet.insertRow();
+        }
+        resultSet.moveToCurrentRow();
+    }
+
+    private static void column(RowSetMetaDataImpl metaData, int index, String name, int type) throws SQLException {
+        metaData.setColumnName(index, name);
+        metaData.setColumnLabel(index, name);
+        metaData.setColumnType(index, type);
+    }
+
+    @Benchmark
+    public List<Customer> entitiesByLabel() throws SQLException {
+        resultSet.beforeFirst();
+        List<Customer> customers = new ArrayList<>();
+        int rowNum = 0;
+        while (resultSet.next()) {
+            customers.add(rowMapper.mapRow(resultSet, rowNum++));
+        }
+        return customers;
+    }
+
+    @Benchmark
+    public List<CustomerView> viewsByIndex() throws SQLException {
+        resultSet.beforeFirst();
+        return extractor.extractData(resultSet);
+    }
+}
@@ -0,0 +1,102 @@
+package com.swcode.telemetry;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.TracerProvider;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of tracing one request shaped like the application's: a server span
+ * with service, DAO and JDBC statement spans nested below it. {@code none}
+ * uses the no-op tracer; {@code export-all} records and exports every span;
+ * {@code tail-sampling} puts {@link TailSamplingSpanExporter} in front of the
+ * exporter with the default settings, so spans are recorded and buffered but
+ * fast traces are mostly discarded. The exporter itself discards everything
+ * and spans are processed on the calling thread, so the score is what each
+ * request pays. Add {@code -t 4} for contention on the sampler's lock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+public class TracingOverheadBenchmark {
+
+    @Param({"none", "export-all", "tail-sampling"})
+    private String pipeline;
+
+    private SdkTracerProvider sdkTracerProvider;
+    private Tracer tracer;
+
+    @Setup
+    public void setUp() {
+        SpanExporter discarding = SpanExporter.composite();
+        SpanExporter exporter = switch (pipeline) {
+            case "none" -> null;
+            case "export-all" -> discarding;
+            case "tail-sampling" -> new TailSamplingSpanExporter(
+                    discarding, Duration.ofMillis(500), 0.01, 10_000, 1_000);
+            default -> throw new IllegalArgumentException("unknown pipeline " + pipeline);
+        };
+        if (exporter == null) {
+            tracer = TracerProvider.noop().get("benchmark");
+            return;
+        }
+        sdkTracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.alwaysOn())
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        tracer = sdkTracerProvider.get("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (sdkTracerProvider != null) {
+            sdkTracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public void request() {
+        Span server = tracer.spanBuilder("http get /api/v1/customers/{id}").startSpan();
+        try (Scope ignored = server.makeCurrent()) {
+            Span service = tracer.spanBuilder("customer.service").startSpan();
+            try (Scope ignoredService = service.makeCurrent()) {
+                Span dao = tracer.spanBuilder("customer dao selectCustomerViewById")
+                        .setAttribute("backend", "jdbc")
+                        .startSpan();
+                try (Scope ignoredDao = dao.makeCurrent()) {
+                    tracer.spanBuilder("jdbc.statement")
+                            .setAttribute("statement", "SELECT id, name, email, age FROM customer WHERE id = ?")
+                            .startSpan()
+                            .end();
+                } finally {
+                    dao.end();
+                }
+            } finally {
+                service.end();
+            }
+        } finally {
+            server.end();
+        }
+    }
+}
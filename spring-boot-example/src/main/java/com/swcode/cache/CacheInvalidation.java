@@ -0,0 +1,13 @@
+package com.swcode.cache;
+
+/**
+ * Invalidation broadcast between nodes. {@code ids == null} invalidates everything.
+ */
+public record CacheInvalidation(
+        String origin,
+        int[] ids
+) {
+    public boolean isAll() {
+        return ids == null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.swcode.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to every node, including the publishing one.
+ */
+public interface CacheInvalidationBus {
+    String nodeId();
+    void publish(int[] ids);
+    void publishAll();
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,40 @@
+package com.swcode.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations to subscribers in the same JVM only. Suitable for a
+ * single node, and for tests that run several caching nodes side by side.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(int[] ids) {
+        deliver(new CacheInvalidation(nodeId, ids.clone()));
+    }
+
+    @Override
+    public void publishAll() {
+        deliver(new CacheInvalidation(nodeId, null));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+}
@@ -0,0 +1,106 @@
+package com.swcode.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded per-node cache with a hard TTL. The TTL is the upper bound on
+ * staleness should an invalidation message ever be lost.
+ * <p>
+ * Loads race with invalidations: a value read from the database just before an
+ * update may arrive after the update's invalidation. Callers take a
+ * {@link #stamp()} before loading and pass it to {@link #put(int, Object, long)},
+ * which drops the value if any invalidation happened in between.
+ */
+public class NearCache<V> {
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    private final Map<Integer, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    public NearCache(int maxEntries, Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public V get(int key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public void put(int key, V value, long stamp) {
+        put(key, value, stamp, ttlNanos);
+    }
+
+    /**
+     * As {@link #put(int, Object, long)}, with a TTL other than the default,
+     * e.g. for entries loaded ahead of traffic.
+     */
+    public void put(int key, V value, long stamp, Duration ttl) {
+        put(key, value, stamp, ttl.toNanos());
+    }
+
+    private void put(int key, V value, long stamp, long ttlNanos) {
+        if (entries.size() >= maxEntries) {
+            evictSome();
+        }
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        if (invalidations.get() != stamp) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidate(int key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<V> values() {
+        long now = System.nanoTime();
+        return entries.values()
+                .stream()
+                .filter(entry -> now - entry.expiresAtNanos() <= 0)
+                .map(Entry::value)
+                .toList();
+    }
+
+    private void evictSome() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() > 0);
+        // trim to 90% so the scan is amortized over many puts
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Integer> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
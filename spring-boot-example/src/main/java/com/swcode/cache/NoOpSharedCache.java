@@ -0,0 +1,21 @@
+package com.swcode.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+public class NoOpSharedCache implements SharedCache {
+
+    @Override
+    public Optional<String> get(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+    }
+
+    @Override
+    public void evict(Collection<String> keys) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.swcode.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidation channel built on PostgreSQL {@code LISTEN/NOTIFY}, so replicas
+ * need nothing beyond the database they already share. Notifications are sent
+ * through the regular pool and received on one dedicated connection that is
+ * kept out of the pool. Messages are {@code <origin>|<id,id,...>} or
+ * {@code <origin>|*}; id lists that would not fit a notify payload are
+ * widened to "invalidate all".
+ */
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+    private static final String CHANNEL = "customer_cache";
+    private static final int MAX_PAYLOAD = 7900;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresCacheInvalidationBus(JdbcTemplate jdbcTemplate, String url, String username, String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(int[] ids) {
+        String payload = nodeId + "|" + Arrays.stream(ids)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(","));
+        if (payload.length() > MAX_PAYLOAD) {
+            publishAll();
+            return;
+        }
+        notify(payload);
+        deliver(new CacheInvalidation(nodeId, ids.clone()));
+    }
+
+    @Override
+    public void publishAll() {
+        notify(nodeId + "|*");
+        deliver(new CacheInvalidation(nodeId, null));
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "customer-cache-invalidation");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+        }, CHANNEL, payload);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // anything published while we were disconnected is lost, so start clean
+                deliver(new CacheInvalidation("", null));
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    LOGGER.warn("cache invalidation listener failed, reconnecting: {}", e.getMessage());
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * A payload that cannot be parsed still stands for some invalidation, so
+     * it is widened to "invalidate all" rather than dropped.
+     */
+    void onNotification(String payload) {
+        CacheInvalidation invalidation;
+        try {
+            invalidation = parse(payload);
+        } catch (RuntimeException e) {
+            LOGGER.warn("malformed cache invalidation [{}], invalidating everything: {}", payload, e.toString());
+            deliver(new CacheInvalidation("", null));
+            return;
+        }
+        if (!nodeId.equals(invalidation.origin())) {
+            deliver(invalidation);
+        }
+    }
+
+    static CacheInvalidation parse(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0) {
+            throw new IllegalArgumentException("missing origin separator");
+        }
+        String origin = payload.substring(0, separator);
+        String ids = payload.substring(separator + 1);
+        if (ids.equals("*")) {
+            return new CacheInvalidation(origin, null);
+        }
+        if (ids.isEmpty()) {
+            return new CacheInvalidation(origin, new int[0]);
+        }
+        return new CacheInvalidation(
+                origin,
+                Arrays.stream(ids.split(",")).mapToInt(Integer::parseInt).toArray()
+        );
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (RuntimeException e) {
+                LOGGER.warn("cache invalidation listener failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.swcode.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared tier speaking the Redis (RESP2) protocol, so Redis, Valkey, KeyDB or
+ * any other compatible server can be plugged in without a client library.
+ * Calls borrow one of up to {@code poolSize} connections. Any I/O failure is
+ * treated as a cache miss and opens a circuit: for a backoff that doubles
+ * with each consecutive failure, from {@code minBackoff} up to
+ * {@code maxBackoff}, calls skip Redis entirely. Once the backoff has passed
+ * a single call probes the server again.
+ * <p>
+ * A failed or skipped eviction must not leave a stale entry for peers to
+ * refill their near caches from once Redis is back. The keys are remembered,
+ * read as misses, and deleted again after the next successful call. Past
+ * {@code maxPendingEvictions} remembered keys, all reads miss for
+ * {@code entryTtl}, by which time any entry written before the failure has
+ * expired.
+ */
+public class RedisSharedCache implements SharedCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisSharedCache.class);
+    private static final Object FAILED = new Object();
+    private static final int REPLAY_BATCH = 512;
+
+    private final String host;
+    private final int port;
+    private final int timeoutMillis;
+    private final long minBackoffNanos;
+    private final long maxBackoffNanos;
+    private final int maxPendingEvictions;
+    private final long entryTtlNanos;
+
+    private final BlockingQueue<Connection> idle;
+    private final Semaphore permits;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile long openUntilNanos = System.nanoTime();
+
+    /** Key to the sequence number of its latest failed eviction. */
+    private final Map<String, Long> pendingEvictions = new ConcurrentHashMap<>();
+    private final AtomicLong evictionSequence = new AtomicLong();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private volatile long readsSkippedUntilNanos = System.nanoTime();
+
+    public RedisSharedCache(String host, int port, Duration timeout,
+                            int poolSize, Duration minBackoff, Duration maxBackoff,
+                            int maxPendingEvictions, Duration entryTtl) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = (int) timeout.toMillis();
+        this.minBackoffNanos = minBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.maxPendingEvictions = maxPendingEvictions;
+        this.entryTtlNanos = entryTtl.toNanos();
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+        this.permits = new Semaphore(poolSize);
+    }
+
+    @Override
+    public Optional<String> get(String key) {
+        if (pendingEvictions.containsKey(key) || System.nanoTime() - readsSkippedUntilNanos < 0) {
+            return Optional.empty();
+        }
+        Object reply = call("GET", key);
+        replayEvictions(reply);
+        return reply instanceof String value ? Optional.of(value) : Optional.empty();
+    }
+
+    @Override
+    public void put(String key, String value, Duration ttl) {
+        replayEvictions(call("SET", key, value, "PX", Long.toString(ttl.toMillis())));
+    }
+
+    @Override
+    public void evict(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (del(keys)) {
+            replayEvictions(null);
+        } else {
+            remember(keys);
+        }
+    }
+
+    public void close() {
+        closeIdle();
+    }
+
+    boolean isOpen() {
+        return System.nanoTime() - openUntilNanos < 0;
+    }
+
+    int pendingEvictions() {
+        return pendingEvictions.size();
+    }
+
+    private boolean del(Collection<String> keys) {
+        List<String> command = new ArrayList<>(keys.size() + 1);
+        command.add("DEL");
+        command.addAll(keys);
+        return call(command.toArray(String[]::new)) != FAILED;
+    }
+
+    private void remember(Collection<String> keys) {
+        for (String key : keys) {
+            if (pendingEvictions.size() >= maxPendingEvictions && !pendingEvictions.containsKey(key)) {
+                readsSkippedUntilNanos = System.nanoTime() + entryTtlNanos;
+                LOGGER.warn("more than {} redis evictions pending, skipping redis reads for {} s",
+                        maxPendingEvictions, TimeUnit.NANOSECONDS.toSeconds(entryTtlNanos));
+                return;
+            }
+            pendingEvictions.put(key, evictionSequence.incrementAndGet());
+        }
+    }
+
+    /**
+     * Deletes the keys of earlier failed evictions once a call has succeeded.
+     * A key whose eviction failed again while the replay ran stays pending.
+     */
+    private void replayEvictions(Object reply) {
+        if (reply == FAILED || pendingEvictions.isEmpty() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Map<String, Long> batch = new HashMap<>();
+            for (Map.Entry<String, Long> pending : pendingEvictions.entrySet()) {
+                batch.put(pending.getKey(), pending.getValue());
+                if (batch.size() == REPLAY_BATCH && !replay(batch)) {
+                    return;
+                }
+            }
+            if (!batch.isEmpty()) {
+                replay(batch);
+            }
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    private boolean replay(Map<String, Long> batch) {
+        if (!del(batch.keySet())) {
+            return false;
+        }
+        batch.forEach(pendingEvictions::remove);
+        batch.clear();
+        return true;
+    }
+
+    private Object call(String... command) {
+        boolean probe = false;
+        if (consecutiveFailures.get() > 0) {
+            if (isOpen() || !probing.compareAndSet(false, true)) {
+                return FAILED;
+            }
+            probe = true;
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return FAILED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FAILED;
+        }
+        Connection connection = idle.poll();
+        try {
+            if (connection == null) {
+                connection = new Connection(host, port, timeoutMillis);
+            }
+            Object reply = connection.call(command);
+            idle.offer(connection);
+            succeeded();
+            return reply;
+        } catch (IOException | NumberFormatException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            failed(command[0], e);
+            return FAILED;
+        } finally {
+            if (probe) {
+                probing.set(false);
+            }
+            permits.release();
+        }
+    }
+
+    private void succeeded() {
+        if (consecutiveFailures.getAndSet(0) > 0) {
+            LOGGER.info("redis at {}:{} is reachable again", host, port);
+        }
+    }
+
+    private void failed(String command, Exception e) {
+        int failures = consecutiveFailures.incrementAndGet();
+        long backoff = Math.min(maxBackoffNanos, minBackoffNanos << Math.min(failures - 1, 20));
+        openUntilNanos = System.nanoTime() + backoff;
+        // the other pooled connections point at the same failed server
+        closeIdle();
+        if (failures == 1) {
+            LOGGER.warn("redis call {} failed, skipping redis for {} ms: {}",
+                    command, TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+        } else {
+            LOGGER.debug("redis call {} failed {} times in a row: {}", command, failures, e.getMessage());
+        }
+    }
+
+    private void closeIdle() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(String host, int port, int timeoutMillis) throws IOException {
+            Socket s = new Socket();
+            try {
+                s.setTcpNoDelay(true);
+                s.setSoTimeout(timeoutMillis);
+                s.connect(new InetSocketAddress(host, port), timeoutMillis);
+            } catch (IOException e) {
+                s.close();
+                throw e;
+            }
+            socket = s;
+            in = new BufferedInputStream(s.getInputStream());
+            out = new BufferedOutputStream(s.getOutputStream());
+        }
+
+        Object call(String... command) throws IOException {
+            write(command);
+            return read();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void write(String... command) throws IOException {
+            out.write(('*' + Integer.toString(command.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            for (String part : command) {
+                byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+                out.write(('$' + Integer.toString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.write(bytes);
+                out.write('\r');
+                out.write('\n');
+            }
+            out.flush();
+        }
+
+        private Object read() throws IOException {
+            int type = in.read();
+            String line = readLine();
+            return switch (type) {
+                case '+' -> line;
+                case ':' -> Long.parseLong(line);
+                case '-' -> throw new IOException(line);
+                case '$' -> readBulk(Integer.parseInt(line));
+                case '*' -> {
+                    int size = Integer.parseInt(line);
+                    List<Object> items = new ArrayList<>(Math.max(size, 0));
+                    for (int i = 0; i < size; i++) {
+                        items.add(read());
+                    }
+                    yield items;
+                }
+                default -> throw new IOException("unexpected redis reply type " + type);
+            };
+        }
+
+        private String readBulk(int length) throws IOException {
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new IOException("connection closed");
+            }
+            readLine();
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new IOException("connection closed");
+                }
+                line.write(b);
+            }
+            in.read();
+            return line.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.swcode.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Cache tier shared by all nodes of the service.
+ */
+public interface SharedCache {
+    Optional<String> get(String key);
+    void put(String key, String value, Duration ttl);
+    void evict(Collection<String> keys);
+}
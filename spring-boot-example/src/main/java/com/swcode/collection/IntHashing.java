@@ -0,0 +1,27 @@
+package com.swcode.collection;
+
+final class IntHashing {
+
+    private IntHashing() {
+    }
+
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Power-of-two table size keeping the load factor at or below one half.
+     */
+    static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("too many elements: " + expectedSize);
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,225 @@
+package com.swcode.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the customer API. Each request passes, in order:
+ * a per-client token bucket (429), a fixed concurrency limit for expensive
+ * endpoints such as the full list or bulk registration (503) and an adaptive, latency driven
+ * concurrency limit shared by all API requests (503).
+ * <p>
+ * Clients are told apart by {@link ClientIdentity}, never by anything the
+ * client chooses itself. At most {@code max-clients} buckets are kept; a
+ * bucket unused long enough to be full again is dropped, and past the cap the
+ * least valuable buckets are evicted. Requests on the {@code unsampled} paths,
+ * whose duration is set by payload size or by the client (streams, bulk
+ * uploads, downloads), hold a concurrency permit but do not feed the adaptive
+ * limit. Expensive paths are listed as {@code [METHOD ]path}, the method
+ * defaulting to GET.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final boolean enabled;
+    private final double permitsPerSecond;
+    private final int burst;
+    private final List<String> exemptPaths;
+    private final List<String> expensivePaths;
+    private final List<String> unsampledPaths;
+    private final Semaphore expensivePermits;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Counter admitted;
+    private final Counter rateLimited;
+    private final Counter expensiveRejected;
+    private final Counter overloaded;
+
+    public AdmissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled}") boolean enabled,
+            @Value("${admission.rate-limit.permits-per-second}") double permitsPerSecond,
+            @Value("${admission.rate-limit.burst}") int burst,
+            @Value("${admission.rate-limit.max-clients}") int maxClients,
+            @Value("#{'${admission.exempt.paths}'.split(',')}") List<String> exemptPaths,
+            @Value("#{'${admission.expensive.paths}'.split(',')}") List<String> expensivePaths,
+            @Value("${admission.expensive.max-concurrent}") int expensiveMaxConcurrent,
+            @Value("#{'${admission.adaptive.unsampled-paths}'.split(',')}") List<String> unsampledPaths,
+            @Value("${admission.adaptive.initial-limit}") int initialLimit,
+            @Value("${admission.adaptive.min-limit}") int minLimit,
+            @Value("${admission.adaptive.max-limit}") int maxLimit,
+            @Value("${admission.adaptive.latency-threshold-ms}") long latencyThresholdMs,
+            @Value("${admission.adaptive.backoff-ratio}") double backoffRatio) {
+        this.enabled = enabled;
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(TokenBucket.refillTime(permitsPerSecond, burst))
+                .build();
+        this.exemptPaths = exemptPaths.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.expensivePaths = expensivePaths.stream()
+                .map(String::trim)
+                .map(path -> path.contains(" ") ? path : "GET " + path)
+                .toList();
+        this.unsampledPaths = unsampledPaths.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+        this.expensivePermits = new Semaphore(expensiveMaxConcurrent);
+        this.limiter = new AdaptiveConcurrencyLimiter(
+                initialLimit,
+                minLimit,
+                maxLimit,
+                TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs),
+                backoffRatio
+        );
+
+        this.admitted = outcome(meterRegistry, "admitted");
+        this.rateLimited = outcome(meterRegistry, "rate_limited");
+        this.expensiveRejected = outcome(meterRegistry, "expensive_limited");
+        this.overloaded = outcome(meterRegistry, "overloaded");
+        Gauge.builder("admission.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("admission.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("admission.expensive.available", expensivePermits, Semaphore::availablePermits)
+                .register(meterRegistry);
+        Gauge.builder("admission.clients", buckets, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("admission.requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !enabled
+                || !uri.startsWith("/api/")
+                || exemptPaths.stream().anyMatch(uri::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long now = System.nanoTime();
+
+        long waitNanos = bucketFor(ClientIdentity.of(request), now).tryAcquire(now);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos);
+            return;
+        }
+
+        boolean expensive = isExpensive(request);
+        if (expensive && !expensivePermits.tryAcquire()) {
+            expensiveRejected.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+
+        if (!limiter.tryAcquire()) {
+            if (expensive) {
+                expensivePermits.release();
+            }
+            overloaded.increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+
+        admitted.increment();
+        boolean sampled = !isUnsampled(request);
+        Runnable release = () -> {
+            if (sampled) {
+                limiter.release(System.nanoTime() - now);
+            } else {
+                limiter.release();
+            }
+            if (expensive) {
+                expensivePermits.release();
+            }
+        };
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(release));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                release.run();
+            }
+        }
+    }
+
+    private TokenBucket bucketFor(String clientKey, long now) {
+        return buckets.get(clientKey, key -> new TokenBucket(permitsPerSecond, burst, now));
+    }
+
+    private boolean isExpensive(HttpServletRequest request) {
+        return expensivePaths.contains(request.getMethod() + " " + request.getRequestURI());
+    }
+
+    private boolean isUnsampled(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return unsampledPaths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, uri));
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    private static final class ReleasingAsyncListener implements AsyncListener {
+
+        private final Runnable release;
+
+        private ReleasingAsyncListener(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.swcode.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor for blocking DAO calls made on behalf of async endpoints. It has as
+     * many threads as the connection pool has connections (more would only queue
+     * on the pool) and a short bounded queue; beyond that, submissions are
+     * rejected immediately instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService customerDbExecutor(MeterRegistry meterRegistry,
+                                              @Value("${customer.async.pool-size}") int poolSize,
+                                              @Value("${customer.async.queue-capacity}") int queueCapacity) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("customer-db-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "customer.db");
+    }
+
+    /**
+     * Runs shadow reads for the routing DAO. Small and lossy by design: when it
+     * is busy, shadow calls are dropped rather than queued, so mirroring can
+     * never hold up or slow down real requests.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService customerShadowExecutor(MeterRegistry meterRegistry,
+                                                  @Value("${customer.routing.shadow.threads}") int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 10),
+                new CustomizableThreadFactory("customer-shadow-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "customer.shadow");
+    }
+
+    /**
+     * Writes batched frames to customer event subscribers. Each subscriber has
+     * at most one frame in flight, so the queue never holds more tasks than
+     * there are subscribers and can safely be unbounded.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService customerEventSenders(MeterRegistry meterRegistry,
+                                                @Value("${customer.events.sender-threads}") int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("customer-events-")
+        );
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "customer.events");
+    }
+
+    /**
+     * Drives the customer event flush. It gets a thread of its own so the feed
+     * keeps its cadence regardless of the jobs on the shared scheduling pool.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService customerEventFlusher() {
+        return Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("customer-events-flush-"));
+    }
+}
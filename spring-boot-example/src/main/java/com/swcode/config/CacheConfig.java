@@ -0,0 +1,57 @@
+package com.swcode.config;
+
+import com.swcode.cache.CacheInvalidationBus;
+import com.swcode.cache.InMemorySharedCache;
+import com.swcode.cache.LocalCacheInvalidationBus;
+import com.swcode.cache.NoOpSharedCache;
+import com.swcode.cache.PostgresCacheInvalidationBus;
+import com.swcode.cache.RedisSharedCache;
+import com.swcode.cache.SharedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public SharedCache sharedCache(@Value("${customer.cache.shared.type}") String type,
+                                   @Value("${customer.cache.shared.redis.host}") String host,
+                                   @Value("${customer.cache.shared.redis.port}") int port,
+                                   @Value("${customer.cache.shared.redis.timeout}") Duration timeout,
+                                   @Value("${customer.cache.shared.redis.pool-size}") int poolSize,
+                                   @Value("${customer.cache.shared.redis.min-backoff}") Duration minBackoff,
+                                   @Value("${customer.cache.shared.redis.max-backoff}") Duration maxBackoff,
+                                   @Value("${customer.cache.shared.redis.max-pending-evictions}") int maxPendingEvictions,
+                                   @Value("${customer.cache.shared.ttl}") Duration ttl) {
+        return switch (type) {
+            case "redis" -> new RedisSharedCache(host, port, timeout, poolSize, minBackoff, maxBackoff,
+                    maxPendingEvictions, ttl);
+            case "memory" -> new InMemorySharedCache();
+            case "none" -> new NoOpSharedCache();
+            default -> throw new IllegalArgumentException(
+                    "unknown customer.cache.shared.type [%s]".formatted(type));
+        };
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(@Value("${customer.cache.invalidation.type}") String type,
+                                                     JdbcTemplate jdbcTemplate,
+                                                     DataSourceProperties dataSourceProperties) {
+        return switch (type) {
+            case "postgres" -> new PostgresCacheInvalidationBus(
+                    jdbcTemplate,
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword()
+            );
+            case "local" -> new LocalCacheInvalidationBus();
+            default -> throw new IllegalArgumentException(
+                    "unknown customer.cache.invalidation.type [%s]".formatted(type));
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.swcode.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.security.Principal;
+
+/**
+ * Who a request comes from, for anything that must not be shared or forgeable
+ * between callers: the authenticated principal when there is one, otherwise
+ * the remote address. Behind a proxy the remote address is the client's only
+ * with {@code server.forward-headers-strategy} set, and only forwarded headers
+ * from trusted proxies are honoured.
+ */
+public final class ClientIdentity {
+
+    private ClientIdentity() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null && principal.getName() != null) {
+            return "user:" + principal.getName();
+        }
+        return "addr:" + request.getRemoteAddr();
+    }
+}
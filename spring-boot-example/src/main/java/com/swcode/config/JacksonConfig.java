@@ -0,0 +1,20 @@
+package com.swcode.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Replaces reflective accessor and constructor calls with generated lambdas
+     * when binding request bodies and writing responses. Picked up by Boot's
+     * ObjectMapper auto-configuration.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,41 @@
+package com.swcode.config;
+
+import com.swcode.deadline.DeadlineJdbcTemplate;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Configuration
+public class JdbcConfig {
+
+    /**
+     * Flyway holds its PostgreSQL lock inside an open transaction by default,
+     * and V5's {@code CREATE INDEX CONCURRENTLY} waits for every open
+     * transaction to finish, so migrating an empty database never completes.
+     * A session-level lock avoids that.
+     */
+    public static final Map<String, String> FLYWAY_SESSION_LOCK =
+            Map.of("flyway.postgresql.transactional.lock", "false");
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new DeadlineJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    @Bean
+    public FlywayConfigurationCustomizer flywaySessionLock() {
+        return configuration -> configuration.configuration(FLYWAY_SESSION_LOCK);
+    }
+}
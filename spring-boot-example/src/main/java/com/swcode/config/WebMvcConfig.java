@@ -1,9 +1,11 @@
 package com.swcode.config;
 
+import com.swcode.deadline.DeadlineInterceptor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.List;
@@ -16,6 +18,12 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Value("#{'${cors.allowed-methods}'.split(',')}")
     private List<String> allowedMethods;
 
+    private final DeadlineInterceptor deadlineInterceptor;
+
+    public WebMvcConfig(DeadlineInterceptor deadlineInterceptor) {
+        this.deadlineInterceptor = deadlineInterceptor;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         //WebMvcConfigurer.super.addCorsMappings(registry);
@@ -23,4 +31,9 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 allowedOrigins.forEach(corsRegistration::allowedOrigins);
                 allowedOrigins.forEach(corsRegistration::allowedMethods);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(deadlineInterceptor).addPathPatterns("/api/**");
+    }
 }
@@ -0,0 +1,30 @@
+package com.swcode.config;
+
+import com.swcode.customer.CustomerEventWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.List;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Value("#{'${cors.allowed-origins}'.split(',')}")
+    private List<String> allowedOrigins;
+
+    private final CustomerEventWebSocketHandler customerEventWebSocketHandler;
+
+    public WebSocketConfig(CustomerEventWebSocketHandler customerEventWebSocketHandler) {
+        this.customerEventWebSocketHandler = customerEventWebSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(customerEventWebSocketHandler, "/api/v1/customers/events/ws")
+                .setAllowedOriginPatterns(allowedOrigins.toArray(String[]::new));
+    }
+}
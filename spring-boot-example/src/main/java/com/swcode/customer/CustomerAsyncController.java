@@ -0,0 +1,53 @@
+package com.swcode.customer;
+
+import com.swcode.config.ClientIdentity;
+import com.swcode.idempotency.IdempotencyService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("api/v1/async/customers")
+public class CustomerAsyncController {
+
+    private final CustomerAsyncService customerAsyncService;
+
+    public CustomerAsyncController(CustomerAsyncService customerAsyncService) {
+        this.customerAsyncService = customerAsyncService;
+    }
+
+    @GetMapping
+    public CompletableFuture<List<CustomerView>> getCustomers() {
+        return customerAsyncService.getAllCustomerViews();
+    }
+
+    @GetMapping("{customerId}")
+    public CompletableFuture<CustomerView> getCustomer(@PathVariable("customerId") Integer customerId) {
+        return customerAsyncService.getCustomerView(customerId);
+    }
+
+    @PostMapping
+    public CompletableFuture<Void> registerCustomer(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody CustomerRegistrationRequest request,
+            HttpServletRequest httpRequest) {
+        return customerAsyncService.addCustomer(ClientIdentity.of(httpRequest), idempotencyKey, request);
+    }
+
+    @DeleteMapping("{customerId}")
+    public CompletableFuture<Void> deleteCustomer(@PathVariable("customerId") Integer customerId) {
+        return customerAsyncService.deleteCustomerById(customerId);
+    }
+
+    @PutMapping("{customerId}")
+    public CompletableFuture<Void> updateCustomer(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @PathVariable("customerId") Integer customerId,
+            @RequestBody CustomerUpdateRequest updateRequest,
+            HttpServletRequest httpRequest) {
+        return customerAsyncService.updateCustomer(
+                ClientIdentity.of(httpRequest), idempotencyKey, customerId, updateRequest);
+    }
+}
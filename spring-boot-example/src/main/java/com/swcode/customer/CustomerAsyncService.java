@@ -0,0 +1,118 @@
+package com.swcode.customer;
+
+import com.swcode.deadline.Deadline;
+import com.swcode.exception.ServiceUnavailableException;
+import com.swcode.idempotency.IdempotencyService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs {@link CustomerService} calls on the bounded customer DB executor so the
+ * servlet thread is released while the database works. A saturated executor
+ * fails fast, and calls that outlive {@code customer.async.timeout} or the
+ * request's {@link Deadline} are failed, their statement cancelled and their
+ * worker interrupted; both surface as 503. Every call runs under a deadline,
+ * the request's or one of {@code customer.async.timeout}, so its statements
+ * carry a matching query timeout even when the interrupt cannot reach them.
+ * Mutations are deduplicated by {@link IdempotencyService} like their
+ * synchronous counterparts.
+ */
+@Service
+public class CustomerAsyncService {
+
+    private final CustomerService customerService;
+    private final IdempotencyService idempotencyService;
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    public CustomerAsyncService(CustomerService customerService,
+                                IdempotencyService idempotencyService,
+                                @Qualifier("customerDbExecutor") ExecutorService executor,
+                                @Value("${customer.async.timeout}") Duration timeout) {
+        this.customerService = customerService;
+        this.idempotencyService = idempotencyService;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    public CompletableFuture<List<CustomerView>> getAllCustomerViews() {
+        return submit(customerService::getAllCustomerViews);
+    }
+
+    public CompletableFuture<CustomerView> getCustomerView(int id) {
+        return submit(() -> customerService.getCustomerView(id));
+    }
+
+    public CompletableFuture<Void> addCustomer(String client,
+                                               String idempotencyKey,
+                                               CustomerRegistrationRequest request) {
+        return submit(() -> {
+            idempotencyService.execute(client, idempotencyKey, "registerCustomer", request,
+                    () -> customerService.addCustomer(request));
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> deleteCustomerById(Integer customerId) {
+        return submit(() -> {
+            customerService.deleteCustomerById(customerId);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> updateCustomer(String client,
+                                                  String idempotencyKey,
+                                                  Integer customerId,
+                                                  CustomerUpdateRequest request) {
+        return submit(() -> {
+            idempotencyService.execute(client, idempotencyKey, "updateCustomer/" + customerId, request,
+                    () -> customerService.updateCustomer(customerId, request));
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        Deadline deadline = Deadline.current()
+                .filter(current -> current.remaining().compareTo(timeout) < 0)
+                .orElseGet(() -> Deadline.after(timeout));
+        Supplier<T> work = deadline.wrap(call);
+        Duration budget = deadline.remaining();
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(work.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ServiceUnavailableException("customer service is saturated, retry later"));
+        }
+        return result
+                .orTimeout(budget.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    if (e instanceof TimeoutException) {
+                        deadline.cancel();
+                        task.cancel(true);
+                        throw new ServiceUnavailableException(
+                                "customer call timed out after %s ms".formatted(budget.toMillis()));
+                    }
+                    throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+                });
+    }
+}
@@ -0,0 +1,8 @@
+package com.swcode.customer;
+
+public record CustomerBulkDeleteRequest(
+        int[] ids,
+        Integer minAge,
+        Integer maxAge
+) {
+}
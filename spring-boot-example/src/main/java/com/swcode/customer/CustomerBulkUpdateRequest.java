@@ -0,0 +1,9 @@
+package com.swcode.customer;
+
+public record CustomerBulkUpdateRequest(
+        int[] ids,
+        Integer minAge,
+        Integer maxAge,
+        Integer age
+) {
+}
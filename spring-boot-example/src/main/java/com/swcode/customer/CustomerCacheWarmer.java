@@ -0,0 +1,196 @@
+package com.swcode.customer;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the customer near cache before the instance reports ready. Application
+ * runners complete before Spring Boot publishes {@code ACCEPTING_TRAFFIC}, so
+ * the readiness probe stays down until warm-up is done.
+ * <p>
+ * A fresh snapshot file (see {@link CustomerSnapshot}) written at the last
+ * shutdown is preferred, but only as the list of hot ids: those rows are read
+ * again from the database in chunks, because writes other replicas made while
+ * this node was down were never broadcast to it. Otherwise the id range is split into
+ * {@code parallelism} slices that are read concurrently with keyset scans.
+ * Warm-up is best effort: an unreadable snapshot is deleted and replaced by a
+ * scan, and a failed scan leaves the cache to fill on demand rather than
+ * failing startup. Entries are kept for {@code customer.cache.warmup.ttl}.
+ */
+@Component
+public class CustomerCacheWarmer implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerCacheWarmer.class);
+
+    private final CustomerJDBCDataAccessService customerJDBCDataAccessService;
+    private final CustomerCachingDataAccessService customerCachingDataAccessService;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Duration ttl;
+    private final Path snapshotPath;
+    private final Duration snapshotMaxAge;
+
+    public CustomerCacheWarmer(CustomerJDBCDataAccessService customerJDBCDataAccessService,
+                               CustomerCachingDataAccessService customerCachingDataAccessService,
+                               @Value("${customer.cache.warmup.enabled}") boolean enabled,
+                               @Value("${customer.cache.warmup.max-entries}") int maxEntries,
+                               @Value("${customer.cache.warmup.parallelism}") int parallelism,
+                               @Value("${customer.cache.warmup.chunk-size}") int chunkSize,
+                               @Value("${customer.cache.warmup.ttl}") Duration ttl,
+                               @Value("${customer.cache.warmup.snapshot.path:}") String snapshotPath,
+                               @Value("${customer.cache.warmup.snapshot.max-age}") Duration snapshotMaxAge) {
+        this.customerJDBCDataAccessService = customerJDBCDataAccessService;
+        this.customerCachingDataAccessService = customerCachingDataAccessService;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.ttl = ttl;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.snapshotMaxAge = snapshotMaxAge;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        int loaded = loadSnapshot();
+        if (loaded < 0) {
+            try {
+                loaded = scan();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.warn("customer cache warm-up interrupted");
+                return;
+            } catch (ExecutionException | RuntimeException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                LOGGER.warn("customer cache warm-up failed, the cache fills on demand instead", cause);
+                return;
+            }
+        }
+        LOGGER.info("customer cache warmed with {} entries in {} ms",
+                loaded, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    @PreDestroy
+    void writeSnapshot() {
+        if (!enabled || snapshotPath == null) {
+            return;
+        }
+        try {
+            List<CustomerView> hot = customerCachingDataAccessService.hotEntries();
+            CustomerSnapshot.write(snapshotPath, hot.subList(0, Math.min(hot.size(), maxEntries)));
+        } catch (IOException e) {
+            LOGGER.warn("could not write customer snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private int loadSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return -1;
+        }
+        int[] ids;
+        try {
+            CustomerSnapshot.Contents contents = CustomerSnapshot.read(snapshotPath);
+            if (contents.createdAt().isBefore(Instant.now().minus(snapshotMaxAge))) {
+                LOGGER.info("ignoring customer snapshot from {}, older than {}", contents.createdAt(), snapshotMaxAge);
+                return -1;
+            }
+            ids = contents.customers().stream().mapToInt(CustomerView::id).toArray();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("could not read customer snapshot {}, deleting it: {}", snapshotPath, e.toString());
+            deleteSnapshot();
+            return -1;
+        }
+        try {
+            return reload(ids);
+        } catch (RuntimeException e) {
+            LOGGER.warn("could not reload snapshot customers, scanning instead: {}", e.toString());
+            return -1;
+        }
+    }
+
+    private int reload(int[] ids) {
+        int loaded = 0;
+        for (int from = 0; from < ids.length; from += chunkSize) {
+            List<CustomerView> chunk = customerJDBCDataAccessService.selectCustomerViewsByIds(
+                    Arrays.copyOfRange(ids, from, Math.min(ids.length, from + chunkSize)));
+            customerCachingDataAccessService.warm(chunk, ttl);
+            loaded += chunk.size();
+        }
+        return loaded;
+    }
+
+    private void deleteSnapshot() {
+        try {
+            Files.deleteIfExists(snapshotPath);
+        } catch (IOException e) {
+            LOGGER.warn("could not delete customer snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private int scan() throws InterruptedException, ExecutionException {
+        int[] range = customerJDBCDataAccessService.selectCustomerIdRange().orElse(null);
+        if (range == null) {
+            return 0;
+        }
+        long span = (long) range[1] - range[0] + 1;
+        long sliceWidth = Math.max(1, (span + parallelism - 1) / parallelism);
+        int perSlice = Math.max(1, maxEntries / parallelism);
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<Integer>> slices = new ArrayList<>();
+            for (long from = range[0] - 1L; from < range[1]; from += sliceWidth) {
+                int afterId = (int) from;
+                int toId = (int) Math.min(range[1], from + sliceWidth);
+                slices.add(executor.submit(() -> scanSlice(afterId, toId, perSlice)));
+            }
+            int loaded = 0;
+            for (Future<Integer> slice : slices) {
+                loaded += slice.get();
+            }
+            return loaded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int scanSlice(int afterId, int toId, int limit) {
+        int loaded = 0;
+        int cursor = afterId;
+        while (loaded < limit) {
+            List<CustomerView> chunk = customerJDBCDataAccessService.selectCustomerViewsInIdRange(
+                    cursor, toId, Math.min(chunkSize, limit - loaded));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            customerCachingDataAccessService.warm(chunk, ttl);
+            loaded += chunk.size();
+            cursor = chunk.get(chunk.size() - 1).id();
+        }
+        return loaded;
+    }
+}
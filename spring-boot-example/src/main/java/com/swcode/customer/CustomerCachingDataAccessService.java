@@ -0,0 +1,288 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.cache.CacheInvalidation;
+import com.swcode.cache.CacheInvalidationBus;
+import com.swcode.cache.NearCache;
+import com.swcode.cache.SharedCache;
+import com.swcode.collection.IntHashSet;
+import com.swcode.collection.IntObjectHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Two-level cache in front of the JDBC {@link CustomerDao}: a per-node
+ * {@link NearCache} backed by a {@link SharedCache} common to all replicas.
+ * Every mutation evicts the shared entry and broadcasts an invalidation on the
+ * {@link CacheInvalidationBus} so other nodes drop their near copy.
+ * <p>
+ * Staleness bounds: with the bus delivering, a peer serves an old value only
+ * for the bus latency (milliseconds for LISTEN/NOTIFY). If a message is lost,
+ * near entries expire after {@code customer.cache.near.ttl}. A load that
+ * raced an invalidation this node has seen is not written to the shared tier;
+ * only one whose invalidation is still in flight on the bus can leave a stale
+ * shared entry, for at most {@code customer.cache.shared.ttl}. A shared
+ * eviction that fails while Redis is unreachable does not widen this: the
+ * key reads as a miss until the eviction has been replayed (see
+ * {@link com.swcode.cache.RedisSharedCache}).
+ */
+@Repository("cached")
+public class CustomerCachingDataAccessService implements CustomerDao {
+
+    private static final String KEY_PREFIX = "customer:";
+
+    private final CustomerDao delegate;
+    private final NearCache<CustomerView> nearCache;
+    private final SharedCache sharedCache;
+    private final CacheInvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final Duration sharedTtl;
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+
+    public CustomerCachingDataAccessService(@Qualifier("jdbc") CustomerDao delegate,
+                                            SharedCache sharedCache,
+                                            CacheInvalidationBus invalidationBus,
+                                            ObjectMapper objectMapper,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${customer.cache.near.max-entries}") int nearMaxEntries,
+                                            @Value("${customer.cache.near.ttl}") Duration nearTtl,
+                                            @Value("${customer.cache.shared.ttl}") Duration sharedTtl) {
+        this.delegate = delegate;
+        this.nearCache = new NearCache<>(nearMaxEntries, nearTtl);
+        this.sharedCache = sharedCache;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        this.sharedTtl = sharedTtl;
+
+        this.nearHits = lookups(meterRegistry, "near", "hit");
+        this.nearMisses = lookups(meterRegistry, "near", "miss");
+        this.sharedHits = lookups(meterRegistry, "shared", "hit");
+        this.sharedMisses = lookups(meterRegistry, "shared", "miss");
+        Gauge.builder("customer.cache.near.size", nearCache, NearCache::size)
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("customer.cache.lookups")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return delegate.selectAllCustomers();
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return lookup(id).map(CustomerCachingDataAccessService::toCustomer);
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomerViews() {
+        return delegate.selectAllCustomerViews();
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(int id) {
+        return lookup(id);
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        delegate.insertCustomer(customer);
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return delegate.existsPersonWithEmail(email);
+    }
+
+    @Override
+    public boolean existsPersonWithId(Integer id) {
+        if (nearCache.get(id) != null) {
+            return true;
+        }
+        return delegate.existsPersonWithId(id);
+    }
+
+    @Override
+    public void deleteCustomerById(Integer customerId) {
+        delegate.deleteCustomerById(customerId);
+        invalidate(customerId);
+    }
+
+    @Override
+    public void updateCustomer(Customer update) {
+        delegate.updateCustomer(update);
+        invalidate(update.getId());
+    }
+
+    @Override
+    public List<CustomerView> selectCustomerViewsByIds(int[] ids) {
+        IntObjectHashMap<CustomerView> found = new IntObjectHashMap<>(ids.length);
+        IntHashSet missing = new IntHashSet();
+        for (int id : ids) {
+            CustomerView near = nearCache.get(id);
+            if (near != null) {
+                nearHits.increment();
+                found.put(id, near);
+            } else {
+                nearMisses.increment();
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = nearCache.stamp();
+            for (CustomerView view : delegate.selectCustomerViewsByIds(missing.toArray())) {
+                nearCache.put(view.id(), view, stamp);
+                found.put(view.id(), view);
+            }
+        }
+        List<CustomerView> views = new ArrayList<>(found.size());
+        for (int id : ids) {
+            CustomerView view = found.remove(id);
+            if (view != null) {
+                views.add(view);
+            }
+        }
+        return views;
+    }
+
+    @Override
+    public IntHashSet selectExistingCustomerIds(int[] ids) {
+        return delegate.selectExistingCustomerIds(ids);
+    }
+
+    @Override
+    public int deleteCustomersByIds(int[] ids) {
+        int deleted = delegate.deleteCustomersByIds(ids);
+        invalidate(ids);
+        return deleted;
+    }
+
+    @Override
+    public int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit) {
+        int[] deleted = delegate.deleteCustomersByAgeRange(minAge, maxAge, afterId, limit);
+        invalidate(deleted);
+        return deleted;
+    }
+
+    @Override
+    public int updateCustomerAgeByIds(int[] ids, int age) {
+        int updated = delegate.updateCustomerAgeByIds(ids, age);
+        invalidate(ids);
+        return updated;
+    }
+
+    @Override
+    public int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit) {
+        int[] updated = delegate.updateCustomerAgeByAgeRange(minAge, maxAge, age, afterId, limit);
+        invalidate(updated);
+        return updated;
+    }
+
+    /**
+     * Seeds the near cache, e.g. from a warm-up scan or a startup snapshot.
+     * {@code ttl} is usually longer than the near TTL so the entries are still
+     * there when traffic arrives; it is also their staleness bound should an
+     * invalidation be lost.
+     */
+    public void warm(List<CustomerView> views, Duration ttl) {
+        long stamp = nearCache.stamp();
+        views.forEach(view -> nearCache.put(view.id(), view, stamp, ttl));
+    }
+
+    public List<CustomerView> hotEntries() {
+        return nearCache.values();
+    }
+
+    private Optional<CustomerView> lookup(int id) {
+        CustomerView near = nearCache.get(id);
+        if (near != null) {
+            nearHits.increment();
+            return Optional.of(near);
+        }
+        nearMisses.increment();
+
+        long stamp = nearCache.stamp();
+        Optional<CustomerView> shared = sharedCache.get(KEY_PREFIX + id).map(this::deserialize);
+        if (shared.isPresent()) {
+            sharedHits.increment();
+            nearCache.put(id, shared.get(), stamp);
+            return shared;
+        }
+        sharedMisses.increment();
+
+        Optional<CustomerView> loaded = delegate.selectCustomerViewById(id);
+        loaded.ifPresent(view -> {
+            // same guard as the near put: a load that raced an invalidation
+            // must not outlive it in the shared tier
+            if (nearCache.stamp() == stamp) {
+                String key = KEY_PREFIX + id;
+                sharedCache.put(key, serialize(view), sharedTtl);
+                if (nearCache.stamp() != stamp) {
+                    sharedCache.evict(List.of(key));
+                }
+            }
+            nearCache.put(id, view, stamp);
+        });
+        return loaded;
+    }
+
+    private void invalidate(int... ids) {
+        if (ids.length == 0) {
+            return;
+        }
+        sharedCache.evict(Arrays.stream(ids).mapToObj(id -> KEY_PREFIX + id).toList());
+        invalidationBus.publish(ids);
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            nearCache.invalidateAll();
+            return;
+        }
+        for (int id : invalidation.ids()) {
+            nearCache.invalidate(id);
+        }
+    }
+
+    private String serialize(CustomerView view) {
+        try {
+            return objectMapper.writeValueAsString(view);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CustomerView deserialize(String json) {
+        try {
+            return objectMapper.readValue(json, CustomerView.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Customer toCustomer(CustomerView view) {
+        return new Customer(view.id(), view.name(), view.email(), view.age());
+    }
+}
@@ -0,0 +1,33 @@
+package com.swcode.customer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Column indexes of a customer {@link ResultSet}, resolved once per result set
+ * instead of looking every column up by label on every row.
+ */
+record CustomerColumns(
+        int id,
+        int name,
+        int email,
+        int age
+) {
+    static CustomerColumns of(ResultSet rs) throws SQLException {
+        return new CustomerColumns(
+                rs.findColumn("id"),
+                rs.findColumn("name"),
+                rs.findColumn("email"),
+                rs.findColumn("age")
+        );
+    }
+
+    CustomerView mapRow(ResultSet rs) throws SQLException {
+        return new CustomerView(
+                rs.getInt(id),
+                rs.getString(name),
+                rs.getString(email),
+                rs.getInt(age)
+        );
+    }
+}
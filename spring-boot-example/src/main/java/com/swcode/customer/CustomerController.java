@@ -1,32 +1,131 @@
 package com.swcode.customer;
 
+import com.swcode.config.ClientIdentity;
+import com.swcode.deadline.Deadline;
+import com.swcode.deadline.RequestDeadline;
+import com.swcode.idempotency.IdempotencyService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/v1/customers")
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerJsonStreamWriter customerJsonStreamWriter;
+    private final IdempotencyService idempotencyService;
+    private final CustomerStatsService customerStatsService;
+    private final CustomerDocumentCache customerDocumentCache;
+    private final CustomerNdjsonReader customerNdjsonReader;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService,
+                              CustomerJsonStreamWriter customerJsonStreamWriter,
+                              IdempotencyService idempotencyService,
+                              CustomerStatsService customerStatsService,
+                              CustomerDocumentCache customerDocumentCache,
+                              CustomerNdjsonReader customerNdjsonReader) {
         this.customerService = customerService;
+        this.customerJsonStreamWriter = customerJsonStreamWriter;
+        this.idempotencyService = idempotencyService;
+        this.customerStatsService = customerStatsService;
+        this.customerDocumentCache = customerDocumentCache;
+        this.customerNdjsonReader = customerNdjsonReader;
     }
 
     @GetMapping
-    public List<Customer> getCustomers() {
-        return customerService.getAllCustomers();
+    public List<CustomerView> getCustomers() {
+        return customerService.getAllCustomerViews();
     }
 
-    @GetMapping("{customerId}")
-    public Customer getCustomer(@PathVariable("customerId") Integer customerId) {
-        return customerService.getCustomer(customerId);
+    @GetMapping(value = "stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @RequestDeadline("${deadline.stream-timeout}")
+    public StreamingResponseBody streamCustomers() {
+        Optional<Deadline> deadline = Deadline.current();
+        return outputStream -> {
+            try (Deadline.Scope ignored = deadline.map(Deadline::attach).orElse(() -> {})) {
+                customerJsonStreamWriter.writeAllCustomers(outputStream);
+            }
+        };
+    }
+
+    @GetMapping("stats")
+    public CustomerStats getCustomerStats() {
+        return customerStatsService.getStats();
+    }
+
+    @GetMapping("batch")
+    public List<CustomerView> getCustomersByIds(@RequestParam("ids") int[] ids) {
+        return customerService.getCustomerViews(ids);
+    }
+
+    /**
+     * Served from {@link CustomerDocumentCache}; the cached bytes are copied to
+     * the response as they are.
+     */
+    @GetMapping(value = "{customerId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getCustomer(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @PathVariable("customerId") Integer customerId) {
+        CustomerDocumentCache.CustomerDocument document = customerDocumentCache.get(customerId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (document.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.gzip());
+        }
+        return response.body(document.json());
     }
 
     @PostMapping
-    public void registerCustomer(@RequestBody CustomerRegistrationRequest request) {
-        customerService.addCustomer(request);
+    public void registerCustomer(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody CustomerRegistrationRequest request,
+            HttpServletRequest httpRequest) {
+        idempotencyService.execute(
+                ClientIdentity.of(httpRequest),
+                idempotencyKey,
+                "registerCustomer",
+                request,
+                () -> customerService.addCustomer(request)
+        );
+    }
+
+    @PostMapping(value = "bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RequestDeadline("${deadline.bulk-timeout}")
+    public CustomerBulkResult registerCustomers(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            InputStream body,
+            HttpServletRequest httpRequest) {
+        List<CustomerRegistrationRequest> requests = customerNdjsonReader.readAll(body);
+        idempotencyService.execute(
+                ClientIdentity.of(httpRequest),
+                idempotencyKey,
+                "registerCustomers",
+                requests,
+                () -> customerService.addCustomers(requests)
+        );
+        // the batch is all or nothing, so a replayed key registered every record
+        return new CustomerBulkResult(requests.size());
+    }
+
+    @DeleteMapping
+    @RequestDeadline("${deadline.bulk-timeout}")
+    public CustomerBulkResult deleteCustomers(@RequestBody CustomerBulkDeleteRequest request) {
+        return customerService.deleteCustomers(request);
+    }
+
+    @PatchMapping
+    @RequestDeadline("${deadline.bulk-timeout}")
+    public CustomerBulkResult updateCustomers(@RequestBody CustomerBulkUpdateRequest request) {
+        return customerService.updateCustomers(request);
     }
 
     @DeleteMapping("{customerId}")
@@ -37,9 +136,17 @@ public class CustomerController {
 
     @PutMapping("{customerId}")
     public void deleteCustomer(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @PathVariable("customerId") Integer customerId,
-            @RequestBody CustomerUpdateRequest updateRequest) {
-        customerService.updateCustomer(customerId, updateRequest);
+            @RequestBody CustomerUpdateRequest updateRequest,
+            HttpServletRequest httpRequest) {
+        idempotencyService.execute(
+                ClientIdentity.of(httpRequest),
+                idempotencyKey,
+                "updateCustomer/" + customerId,
+                updateRequest,
+                () -> customerService.updateCustomer(customerId, updateRequest)
+        );
     }
 
 }
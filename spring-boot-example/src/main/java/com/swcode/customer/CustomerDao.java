@@ -1,14 +1,24 @@
 package com.swcode.customer;
 
+import com.swcode.collection.IntHashSet;
+
 import java.util.List;
 import java.util.Optional;
 
 public interface CustomerDao {
     List<Customer> selectAllCustomers();
     Optional<Customer> selectCustomerById(Integer id);
+    List<CustomerView> selectAllCustomerViews();
+    Optional<CustomerView> selectCustomerViewById(int id);
     void insertCustomer(Customer customer);
     boolean existsPersonWithEmail(String email);
     boolean existsPersonWithId(Integer id);
     void deleteCustomerById(Integer customerId);
     void updateCustomer(Customer update);
+    List<CustomerView> selectCustomerViewsByIds(int[] ids);
+    IntHashSet selectExistingCustomerIds(int[] ids);
+    int deleteCustomersByIds(int[] ids);
+    int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit);
+    int updateCustomerAgeByIds(int[] ids, int age);
+    int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit);
 }
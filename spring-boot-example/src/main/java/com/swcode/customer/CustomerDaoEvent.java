@@ -0,0 +1,56 @@
+package com.swcode.customer;
+
+import com.swcode.collection.IntHashSet;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * JFR event for one call through the routing {@link CustomerDao}; the event's
+ * duration is the call's latency.
+ */
+@Name(CustomerDaoEvent.NAME)
+@Label("Customer DAO Call")
+@Category({"Customer", "DAO"})
+@Description("A CustomerDao call with its backend and the number of rows returned or affected")
+@StackTrace(false)
+public class CustomerDaoEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.swcode.CustomerDao";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Backend")
+    public String backend;
+
+    @Label("Mode")
+    public String mode;
+
+    @Label("Rows")
+    public long rows;
+
+    static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof int[] ids) {
+            return ids.length;
+        }
+        if (result instanceof IntHashSet ids) {
+            return ids.size();
+        }
+        if (result instanceof Integer count) {
+            return count;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,36 @@
+package com.swcode.customer;
+
+/**
+ * Which {@link CustomerDao} bean serves each kind of operation, and which one,
+ * if any, receives a sampled copy of reads for comparison.
+ */
+public record CustomerDaoRoutes(String read, String write, String bulk, String shadow, double shadowSampleRate) {
+
+    public enum Operation {
+        READ, WRITE, BULK
+    }
+
+    public String backendFor(Operation operation) {
+        return switch (operation) {
+            case READ -> read;
+            case WRITE -> write;
+            case BULK -> bulk;
+        };
+    }
+
+    public CustomerDaoRoutes with(Operation operation, String backend) {
+        return switch (operation) {
+            case READ -> new CustomerDaoRoutes(backend, write, bulk, shadow, shadowSampleRate);
+            case WRITE -> new CustomerDaoRoutes(read, backend, bulk, shadow, shadowSampleRate);
+            case BULK -> new CustomerDaoRoutes(read, write, backend, shadow, shadowSampleRate);
+        };
+    }
+
+    public CustomerDaoRoutes withShadow(String backend, double sampleRate) {
+        return new CustomerDaoRoutes(read, write, bulk, backend, sampleRate);
+    }
+
+    public boolean shadowing() {
+        return shadow != null && !shadow.isBlank() && shadowSampleRate > 0;
+    }
+}
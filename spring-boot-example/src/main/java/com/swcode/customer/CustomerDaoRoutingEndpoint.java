@@ -0,0 +1,76 @@
+package com.swcode.customer;
+
+import com.swcode.customer.CustomerDaoRoutes.Operation;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * {@code /actuator/customerdao}: shows the current routes and switches a route
+ * or the shadow backend without a restart, e.g.
+ * {@code POST {"operation": "read", "backend": "jdbc"}} or
+ * {@code POST {"shadow": "jpa", "sampleRate": 0.05}}. Routes that would leave
+ * reads stale are rejected, so moving everything onto a caching backend means
+ * switching writes and bulk first, then reads. Served on the management port
+ * only.
+ */
+@Component
+@Endpoint(id = "customerdao")
+public class CustomerDaoRoutingEndpoint {
+
+    private final CustomerRoutingDataAccessService routingDataAccessService;
+
+    public CustomerDaoRoutingEndpoint(CustomerRoutingDataAccessService routingDataAccessService) {
+        this.routingDataAccessService = routingDataAccessService;
+    }
+
+    @ReadOperation
+    public RoutingState routes() {
+        return new RoutingState(routingDataAccessService.getRoutes(), routingDataAccessService.getBackends());
+    }
+
+    @WriteOperation
+    public RoutingState update(@Nullable String operation,
+                               @Nullable String backend,
+                               @Nullable String shadow,
+                               @Nullable Double sampleRate) {
+        CustomerDaoRoutes routes = routingDataAccessService.getRoutes();
+        if (operation != null) {
+            if (backend == null) {
+                throw new InvalidEndpointRequestException("backend is required with operation", "backend is required");
+            }
+            routes = routes.with(operation(operation), backend);
+        }
+        if (shadow != null || sampleRate != null) {
+            double rate = sampleRate == null ? routes.shadowSampleRate() : sampleRate;
+            if (rate < 0 || rate > 1) {
+                throw new InvalidEndpointRequestException("sampleRate must be between 0 and 1", "invalid sampleRate");
+            }
+            routes = routes.withShadow(shadow == null ? routes.shadow() : shadow, rate);
+        }
+        try {
+            routingDataAccessService.setRoutes(routes);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "invalid routes");
+        }
+        return routes();
+    }
+
+    private static Operation operation(String operation) {
+        try {
+            return Operation.valueOf(operation.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(
+                    "operation must be one of read, write, bulk", "invalid operation");
+        }
+    }
+
+    public record RoutingState(CustomerDaoRoutes routes, Collection<String> backends) {
+    }
+}
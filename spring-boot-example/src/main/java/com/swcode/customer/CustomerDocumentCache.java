@@ -0,0 +1,138 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.cache.CacheInvalidation;
+import com.swcode.cache.CacheInvalidationBus;
+import com.swcode.cache.NearCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized {@code GET /api/v1/customers/{id}} bodies, so hot reads skip
+ * Jackson entirely. Documents at least {@code customer.documents.gzip-min-size}
+ * bytes long also keep a gzip variant.
+ * <p>
+ * Entries are dropped on this node's {@link CustomerEvent}s, which are also
+ * broadcast on the {@link CacheInvalidationBus} so other replicas drop theirs
+ * whichever DAO route took the write; only the caching DAO publishes on its
+ * own. Writes that bypass {@link CustomerService} are not covered and are
+ * bounded by {@code customer.documents.ttl}. Loads use the {@link NearCache} stamp, so a document rendered
+ * from a row read before an update is never stored after it.
+ */
+@Component
+public class CustomerDocumentCache {
+
+    private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationBus invalidationBus;
+    private final NearCache<CustomerDocument> documents;
+    private final int gzipMinSize;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public CustomerDocumentCache(CustomerService customerService,
+                                 ObjectMapper objectMapper,
+                                 CacheInvalidationBus invalidationBus,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${customer.documents.max-entries}") int maxEntries,
+                                 @Value("${customer.documents.ttl}") Duration ttl,
+                                 @Value("${customer.documents.gzip-min-size}") int gzipMinSize) {
+        this.customerService = customerService;
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+        this.documents = new NearCache<>(maxEntries, ttl);
+        this.gzipMinSize = gzipMinSize;
+
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        Gauge.builder("customer.documents.size", documents, NearCache::size)
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("customer.documents.lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public CustomerDocument get(int id) {
+        CustomerDocument document = documents.get(id);
+        if (document != null) {
+            hits.increment();
+            return document;
+        }
+        misses.increment();
+
+        long stamp = documents.stamp();
+        document = render(customerService.getCustomerView(id));
+        documents.put(id, document, stamp);
+        return document;
+    }
+
+    @EventListener
+    public void onCustomerEvent(CustomerEvent event) {
+        switch (event.type()) {
+            case UPDATED, DELETED -> {
+                documents.invalidate(event.id());
+                invalidationBus.publish(new int[]{event.id()});
+            }
+            case RESYNC -> {
+                documents.invalidateAll();
+                invalidationBus.publishAll();
+            }
+            case CREATED -> {
+            }
+        }
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            documents.invalidateAll();
+            return;
+        }
+        for (int id : invalidation.ids()) {
+            documents.invalidate(id);
+        }
+    }
+
+    private CustomerDocument render(CustomerView view) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(view);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        return new CustomerDocument(json, json.length >= gzipMinSize ? gzip(json) : null);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @param gzip the compressed body, or {@code null} when the document is too
+     *             small for compression to pay off
+     */
+    public record CustomerDocument(byte[] json, byte[] gzip) {
+    }
+}
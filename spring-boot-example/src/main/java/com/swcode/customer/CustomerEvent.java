@@ -0,0 +1,36 @@
+package com.swcode.customer;
+
+/**
+ * A change to the customer table, published by {@link CustomerService} and
+ * pushed to live subscribers by {@link CustomerEventHub}. {@code RESYNC} tells
+ * subscribers that changes were not delivered individually (bulk statements,
+ * or a subscriber that fell too far behind) and they should reload.
+ */
+public record CustomerEvent(Type type, Integer id, CustomerView customer) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESYNC
+    }
+
+    /**
+     * Falls back to {@code RESYNC} when the DAO did not report the generated id.
+     */
+    static CustomerEvent created(Customer customer) {
+        if (customer.getId() == null) {
+            return resync();
+        }
+        return new CustomerEvent(Type.CREATED, customer.getId(), CustomerView.from(customer));
+    }
+
+    static CustomerEvent updated(Customer customer) {
+        return new CustomerEvent(Type.UPDATED, customer.getId(), CustomerView.from(customer));
+    }
+
+    static CustomerEvent deleted(int id) {
+        return new CustomerEvent(Type.DELETED, id, null);
+    }
+
+    static CustomerEvent resync() {
+        return new CustomerEvent(Type.RESYNC, null, null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.swcode.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("api/v1/customers/events")
+public class CustomerEventController {
+
+    private final CustomerEventHub customerEventHub;
+    private final Duration sseTimeout;
+
+    public CustomerEventController(CustomerEventHub customerEventHub,
+                                   @Value("${customer.events.sse-timeout}") Duration sseTimeout) {
+        this.customerEventHub = customerEventHub;
+        this.sseTimeout = sseTimeout;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents() {
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        CustomerEventSubscriber subscriber = customerEventHub.subscribe(new CustomerEventSubscriber.Sink() {
+            @Override
+            public void send(byte[] frame) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .name("customers")
+                        .data(new String(frame, StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(() -> customerEventHub.unsubscribe(subscriber));
+        emitter.onTimeout(() -> customerEventHub.unsubscribe(subscriber));
+        emitter.onError(e -> customerEventHub.unsubscribe(subscriber));
+        return emitter;
+    }
+}
@@ -0,0 +1,180 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans customer events out to SSE and WebSocket subscribers. Publishing only
+ * serializes the event once and enqueues it; every
+ * {@code customer.events.flush-interval} the queue is distributed to all
+ * subscribers and each subscriber with pending events gets one batched frame,
+ * written on the sender pool so a slow connection never delays the others.
+ * <p>
+ * Flushing runs on its own scheduler rather than the shared scheduling pool.
+ * A subscriber whose frame has been in flight for longer than
+ * {@code customer.events.send-time-limit} is unsubscribed and disconnected, so
+ * stalled connections hold a sender thread for at most one write.
+ */
+@Component
+public class CustomerEventHub {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerEventHub.class);
+    private static final int RESYNC = -1;
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService flusher;
+    private final Duration flushInterval;
+    private final long sendTimeLimitNanos;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final Set<CustomerEventSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /**
+     * Reserved before a subscriber is added, so concurrent subscribes cannot
+     * together overshoot {@code maxSubscribers}.
+     */
+    private final AtomicInteger subscriberSlots = new AtomicInteger();
+    private final Queue<QueuedEvent> queue = new ConcurrentLinkedQueue<>();
+    private final Counter frames;
+    private final Counter dropped;
+
+    public CustomerEventHub(ObjectMapper objectMapper,
+                            @Qualifier("customerEventSenders") ExecutorService senders,
+                            @Qualifier("customerEventFlusher") ScheduledExecutorService flusher,
+                            MeterRegistry meterRegistry,
+                            @Value("${customer.events.max-subscribers}") int maxSubscribers,
+                            @Value("${customer.events.buffer-size}") int bufferSize,
+                            @Value("${customer.events.flush-interval}") Duration flushInterval,
+                            @Value("${customer.events.send-time-limit}") Duration sendTimeLimit) {
+        this.objectMapper = objectMapper;
+        this.senders = senders;
+        this.flusher = flusher;
+        this.flushInterval = flushInterval;
+        this.sendTimeLimitNanos = sendTimeLimit.toNanos();
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.frames = Counter.builder("customer.events.frames").register(meterRegistry);
+        this.dropped = Counter.builder("customer.events.subscribers.dropped").register(meterRegistry);
+        Gauge.builder("customer.events.subscribers", subscribers, Set::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // an exception would cancel all further flushes
+                LOGGER.warn("customer event flush failed", e);
+            }
+        }, flushInterval.toNanos(), flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public CustomerEventSubscriber subscribe(CustomerEventSubscriber.Sink sink) {
+        int slots;
+        do {
+            slots = subscriberSlots.get();
+            if (slots >= maxSubscribers) {
+                throw new ServiceUnavailableException("too many customer event subscribers, retry later");
+            }
+        } while (!subscriberSlots.compareAndSet(slots, slots + 1));
+        CustomerEventSubscriber subscriber = new CustomerEventSubscriber(sink, bufferSize);
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    public void unsubscribe(CustomerEventSubscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberSlots.decrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void publish(CustomerEvent event) {
+        if (event.type() == CustomerEvent.Type.RESYNC) {
+            queue.add(new QueuedEvent(RESYNC, null));
+            return;
+        }
+        try {
+            queue.add(new QueuedEvent(event.id(), objectMapper.writeValueAsBytes(event)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void flush() {
+        QueuedEvent event;
+        while ((event = queue.poll()) != null) {
+            for (CustomerEventSubscriber subscriber : subscribers) {
+                if (event.id() == RESYNC) {
+                    subscriber.requestResync();
+                } else {
+                    subscriber.offer(event.id(), event.json());
+                }
+            }
+        }
+        long now = System.nanoTime();
+        for (CustomerEventSubscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now, sendTimeLimitNanos)) {
+                LOGGER.debug("Dropping customer event subscriber stalled for more than {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeLimitNanos));
+                dropped.increment();
+                unsubscribe(subscriber);
+                subscriber.drop();
+                continue;
+            }
+            if (subscriber.hasPending() && subscriber.tryStartSending()) {
+                try {
+                    senders.execute(() -> send(subscriber));
+                } catch (RejectedExecutionException e) {
+                    // still pending; the next flush tries again
+                    subscriber.cancelSending();
+                }
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void send(CustomerEventSubscriber subscriber) {
+        try {
+            subscriber.sendPending();
+            frames.increment();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Dropping customer event subscriber", e);
+            dropped.increment();
+            unsubscribe(subscriber);
+            subscriber.close();
+        }
+    }
+
+    private record QueuedEvent(int id, byte[] json) {
+    }
+}
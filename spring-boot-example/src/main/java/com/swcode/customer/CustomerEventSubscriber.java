@@ -0,0 +1,149 @@
+package com.swcode.customer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One live feed connection. Pending events are coalesced per customer id, so a
+ * slow consumer receives the latest state of each customer rather than every
+ * intermediate change, and the buffer holds at most {@code capacity} ids;
+ * beyond that it collapses into a single {@code RESYNC}. At most one frame is
+ * being written to the connection at a time, and a subscriber whose write has
+ * been in flight for too long is {@linkplain #drop() dropped}.
+ */
+public class CustomerEventSubscriber {
+
+    static final byte[] RESYNC_FRAME = "[{\"type\":\"RESYNC\"}]".getBytes(StandardCharsets.UTF_8);
+
+    private final Sink sink;
+    private final int capacity;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile long sendingSince;
+    private volatile boolean dropped;
+    private LinkedHashMap<Integer, byte[]> pending = new LinkedHashMap<>();
+    private boolean resync;
+
+    CustomerEventSubscriber(Sink sink, int capacity) {
+        this.sink = sink;
+        this.capacity = capacity;
+    }
+
+    synchronized void offer(int id, byte[] event) {
+        if (resync) {
+            return;
+        }
+        if (pending.size() >= capacity && !pending.containsKey(id)) {
+            requestResync();
+            return;
+        }
+        pending.put(id, event);
+    }
+
+    synchronized void requestResync() {
+        pending.clear();
+        resync = true;
+    }
+
+    synchronized boolean hasPending() {
+        return resync || !pending.isEmpty();
+    }
+
+    boolean tryStartSending() {
+        if (!sending.compareAndSet(false, true)) {
+            return false;
+        }
+        sendingSince = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Undoes {@link #tryStartSending()} when the send could not be scheduled.
+     */
+    void cancelSending() {
+        sending.set(false);
+        if (dropped) {
+            close();
+        }
+    }
+
+    boolean isStalled(long nowNanos, long sendTimeLimitNanos) {
+        return sending.get() && nowNanos - sendingSince > sendTimeLimitNanos;
+    }
+
+    /**
+     * Closes the connection, or, while a frame is being written, has the
+     * writing thread close it once the write returns: closing from another
+     * thread could block behind the stalled write.
+     */
+    void drop() {
+        dropped = true;
+        if (!sending.get()) {
+            close();
+        }
+    }
+
+    /**
+     * Writes everything pending as one JSON array frame.
+     */
+    void sendPending() throws IOException {
+        try {
+            byte[] frame = drain();
+            if (frame != null) {
+                sink.send(frame);
+            }
+        } finally {
+            sending.set(false);
+            if (dropped) {
+                close();
+            }
+        }
+    }
+
+    void close() {
+        if (closed.compareAndSet(false, true)) {
+            sink.close();
+        }
+    }
+
+    private byte[] drain() {
+        LinkedHashMap<Integer, byte[]> events;
+        synchronized (this) {
+            if (resync) {
+                resync = false;
+                return RESYNC_FRAME;
+            }
+            if (pending.isEmpty()) {
+                return null;
+            }
+            events = pending;
+            pending = new LinkedHashMap<>();
+        }
+        int size = 2 + events.size() - 1;
+        for (byte[] event : events.values()) {
+            size += event.length;
+        }
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(size);
+        frame.write('[');
+        boolean first = true;
+        for (byte[] event : events.values()) {
+            if (!first) {
+                frame.write(',');
+            }
+            frame.writeBytes(event);
+            first = false;
+        }
+        frame.write(']');
+        return frame.toByteArray();
+    }
+
+    public interface Sink {
+
+        void send(byte[] frame) throws IOException;
+
+        void close();
+    }
+}
@@ -0,0 +1,85 @@
+package com.swcode.customer;
+
+import com.swcode.exception.ServiceUnavailableException;
+import jakarta.websocket.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * WebSocket flavour of the customer feed: same frames as the SSE endpoint, one
+ * text message per batch. Sends go through a
+ * {@link ConcurrentWebSocketSessionDecorator}, which terminates the session
+ * once a send takes longer than {@code customer.events.send-time-limit} or
+ * more than {@code customer.events.ws-buffer-size-limit} is waiting to be
+ * sent; Tomcat's own blocking send is capped at the same time limit.
+ */
+@Component
+public class CustomerEventWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String SUBSCRIBER_ATTRIBUTE = CustomerEventSubscriber.class.getName();
+    private static final String TOMCAT_BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final CustomerEventHub customerEventHub;
+    private final Duration sendTimeLimit;
+    private final DataSize bufferSizeLimit;
+
+    public CustomerEventWebSocketHandler(CustomerEventHub customerEventHub,
+                                         @Value("${customer.events.send-time-limit}") Duration sendTimeLimit,
+                                         @Value("${customer.events.ws-buffer-size-limit}") DataSize bufferSizeLimit) {
+        this.customerEventHub = customerEventHub;
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession webSocketSession) throws IOException {
+        if (webSocketSession instanceof NativeWebSocketSession nativeSession
+                && nativeSession.getNativeSession() instanceof Session standardSession) {
+            standardSession.getUserProperties().put(TOMCAT_BLOCKING_SEND_TIMEOUT, sendTimeLimit.toMillis());
+        }
+        WebSocketSession session = new ConcurrentWebSocketSessionDecorator(
+                webSocketSession,
+                (int) sendTimeLimit.toMillis(),
+                (int) bufferSizeLimit.toBytes(),
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE
+        );
+        try {
+            CustomerEventSubscriber subscriber = customerEventHub.subscribe(new CustomerEventSubscriber.Sink() {
+                @Override
+                public void send(byte[] frame) throws IOException {
+                    session.sendMessage(new TextMessage(frame));
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        session.close(CloseStatus.GOING_AWAY);
+                    } catch (IOException ignored) {
+                        // the connection is already gone
+                    }
+                }
+            });
+            session.getAttributes().put(SUBSCRIBER_ATTRIBUTE, subscriber);
+        } catch (ServiceUnavailableException e) {
+            session.close(CloseStatus.SERVICE_OVERLOAD);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Object subscriber = session.getAttributes().remove(SUBSCRIBER_ATTRIBUTE);
+        if (subscriber != null) {
+            customerEventHub.unsubscribe((CustomerEventSubscriber) subscriber);
+        }
+    }
+}
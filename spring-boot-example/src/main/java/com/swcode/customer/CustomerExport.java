@@ -0,0 +1,38 @@
+package com.swcode.customer;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CustomerExport(
+        UUID id,
+        CustomerExportFormat format,
+        CustomerExportStatus status,
+        Instant createdAt,
+        Instant completedAt,
+        Long sizeBytes,
+        String error
+) {
+    static CustomerExport pending(CustomerExportFormat format) {
+        return new CustomerExport(
+                UUID.randomUUID(),
+                format,
+                CustomerExportStatus.PENDING,
+                Instant.now(),
+                null,
+                null,
+                null
+        );
+    }
+
+    CustomerExport running() {
+        return new CustomerExport(id, format, CustomerExportStatus.RUNNING, createdAt, null, null, null);
+    }
+
+    CustomerExport completed(long sizeBytes) {
+        return new CustomerExport(id, format, CustomerExportStatus.COMPLETED, createdAt, Instant.now(), sizeBytes, null);
+    }
+
+    CustomerExport failed(String error) {
+        return new CustomerExport(id, format, CustomerExportStatus.FAILED, createdAt, Instant.now(), null, error);
+    }
+}
@@ -0,0 +1,86 @@
+package com.swcode.customer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("api/v1/customers/exports")
+public class CustomerExportController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CustomerExportService customerExportService;
+
+    public CustomerExportController(CustomerExportService customerExportService) {
+        this.customerExportService = customerExportService;
+    }
+
+    @PostMapping
+    public ResponseEntity<CustomerExport> startExport(
+            @RequestBody(required = false) CustomerExportRequest request) {
+        CustomerExport export = customerExportService.startExport(request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{exportId}")
+                        .buildAndExpand(export.id())
+                        .toUri())
+                .body(export);
+    }
+
+    @GetMapping("{exportId}")
+    public CustomerExport getExport(@PathVariable("exportId") UUID exportId) {
+        return customerExportService.getExport(exportId);
+    }
+
+    @GetMapping("{exportId}/file")
+    public void downloadExport(@PathVariable("exportId") UUID exportId,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        CustomerExport export = customerExportService.getExport(exportId);
+        Path file = customerExportService.getExportFile(exportId);
+
+        response.setContentType(export.format().contentType());
+        response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"customers-%s.%s\"".formatted(exportId, export.format().extension())
+        );
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            response.setContentLengthLong(size);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // let Tomcat hand the file to the kernel (sendfile) once the request completes
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    @DeleteMapping("{exportId}")
+    public void deleteExport(@PathVariable("exportId") UUID exportId) {
+        customerExportService.deleteExport(exportId);
+    }
+}
@@ -0,0 +1,21 @@
+package com.swcode.customer;
+
+public enum CustomerExportFormat {
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    CustomerExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+}
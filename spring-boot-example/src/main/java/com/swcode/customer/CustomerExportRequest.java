@@ -0,0 +1,6 @@
+package com.swcode.customer;
+
+public record CustomerExportRequest(
+        CustomerExportFormat format
+) {
+}
@@ -0,0 +1,287 @@
+package com.swcode.customer;
+
+import com.swcode.exception.RequestValidationException;
+import com.swcode.exception.ResourceNotFoundException;
+import com.swcode.exception.ServiceUnavailableException;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyOut;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs customer exports in the background. Rows are pulled with
+ * {@code COPY ... TO STDOUT} and written to a local file through a large
+ * direct buffer, so the data never has to be held on the heap as a whole.
+ * <p>
+ * At most {@code customer.export.queue-capacity} exports wait for one of the
+ * {@code customer.export.concurrency} workers; beyond that new exports are
+ * refused with 503. A failed export cancels its COPY before the connection
+ * goes back to the pool, or evicts the connection if the cancel fails, so the
+ * next borrower never sees a half-read COPY. It leaves no file behind, and finished
+ * exports, together with files left over from earlier runs, are removed once
+ * they are older than {@code customer.export.ttl}.
+ */
+@Service
+public class CustomerExportService {
+
+    private static final String COPY_CSV_SQL = """
+            COPY (SELECT id, name, email, age FROM customer ORDER BY id)
+            TO STDOUT WITH (FORMAT csv, HEADER)
+            """;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerExportService.class);
+
+    private final DataSource dataSource;
+    private final Path directory;
+    private final int bufferSize;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, CustomerExport> exports = new ConcurrentHashMap<>();
+
+    public CustomerExportService(DataSource dataSource,
+                                 @Value("${customer.export.directory}") Path directory,
+                                 @Value("${customer.export.buffer-size}") int bufferSize,
+                                 @Value("${customer.export.concurrency}") int concurrency,
+                                 @Value("${customer.export.queue-capacity}") int queueCapacity,
+                                 @Value("${customer.export.ttl}") Duration ttl) {
+        this.dataSource = dataSource;
+        this.directory = directory;
+        this.bufferSize = bufferSize;
+        this.ttl = ttl;
+        this.executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    public CustomerExport startExport(CustomerExportRequest request) {
+        CustomerExportFormat format = request == null || request.format() == null
+                ? CustomerExportFormat.CSV
+                : request.format();
+        CustomerExport export = CustomerExport.pending(format);
+        exports.put(export.id(), export);
+        try {
+            executor.execute(() -> runExport(export));
+        } catch (RejectedExecutionException e) {
+            exports.remove(export.id());
+            throw new ServiceUnavailableException("too many exports in progress, retry later");
+        }
+        return export;
+    }
+
+    public CustomerExport getExport(UUID exportId) {
+        CustomerExport export = exports.get(exportId);
+        if (export == null) {
+            throw new ResourceNotFoundException(
+                    "export with id [%s] not found".formatted(exportId)
+            );
+        }
+        return export;
+    }
+
+    public Path getExportFile(UUID exportId) {
+        CustomerExport export = getExport(exportId);
+        if (export.status() != CustomerExportStatus.COMPLETED) {
+            throw new RequestValidationException(
+                    "export with id [%s] is %s".formatted(exportId, export.status())
+            );
+        }
+        return fileFor(export);
+    }
+
+    public void deleteExport(UUID exportId) {
+        CustomerExport export = getExport(exportId);
+        if (export.status() == CustomerExportStatus.PENDING
+                || export.status() == CustomerExportStatus.RUNNING) {
+            throw new RequestValidationException(
+                    "export with id [%s] is %s".formatted(exportId, export.status())
+            );
+        }
+        exports.remove(exportId);
+        try {
+            Files.deleteIfExists(fileFor(export));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer.export.purge-interval}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        exports.values().removeIf(export -> {
+            if (export.completedAt() == null || !export.completedAt().isBefore(cutoff)) {
+                return false;
+            }
+            deleteQuietly(fileFor(export));
+            return true;
+        });
+        // files of exports this instance no longer knows about, e.g. from before a restart
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> !isKnown(file) && isOlderThan(file, cutoff))
+                    .forEach(CustomerExportService::deleteQuietly);
+        } catch (IOException e) {
+            LOGGER.warn("could not list export directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void runExport(CustomerExport export) {
+        exports.put(export.id(), export.running());
+        Path file = fileFor(export);
+        try {
+            Files.createDirectories(directory);
+            long size = copyCsv(file);
+            exports.put(export.id(), export.completed(size));
+        } catch (Exception e) {
+            deleteQuietly(file);
+            exports.put(export.id(), export.failed(e.getMessage()));
+        }
+    }
+
+    private long copyCsv(Path file) throws SQLException, IOException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyOut copyOut = null;
+        boolean reusable = true;
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            copyOut = connection.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyOut(COPY_CSV_SQL);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            byte[] chunk;
+            while ((chunk = copyOut.readFromCopy()) != null) {
+                if (chunk.length > buffer.remaining()) {
+                    drain(buffer, channel);
+                }
+                if (chunk.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(chunk), channel);
+                } else {
+                    buffer.put(chunk);
+                }
+            }
+            drain(buffer, channel);
+            channel.force(false);
+            return channel.size();
+        } catch (SQLException | IOException | RuntimeException e) {
+            reusable = cancel(copyOut);
+            throw e;
+        } finally {
+            if (reusable) {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            } else {
+                evict(connection);
+            }
+        }
+    }
+
+    /**
+     * Ends a COPY that is still streaming; returns whether the connection is
+     * back in a usable state.
+     */
+    private static boolean cancel(CopyOut copyOut) {
+        if (copyOut == null || !copyOut.isActive()) {
+            return true;
+        }
+        try {
+            copyOut.cancelCopy();
+            return true;
+        } catch (SQLException e) {
+            LOGGER.warn("could not cancel export COPY, evicting its connection: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void evict(Connection connection) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                dataSource.unwrap(HikariDataSource.class).evictConnection(connection);
+                return;
+            }
+            connection.abort(Runnable::run);
+        } catch (SQLException e) {
+            LOGGER.warn("could not abort export connection: {}", e.getMessage());
+        }
+        DataSourceUtils.releaseConnection(connection, dataSource);
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        writeFully(buffer, channel);
+        buffer.clear();
+    }
+
+    private static void writeFully(ByteBuffer buffer, FileChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private Path fileFor(CustomerExport export) {
+        return directory.resolve(export.id() + "." + export.format().extension());
+    }
+
+    private boolean isKnown(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        try {
+            return exports.containsKey(UUID.fromString(dot < 0 ? name : name.substring(0, dot)));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isOlderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("could not delete export file {}: {}", file, e.getMessage());
+        }
+    }
+}
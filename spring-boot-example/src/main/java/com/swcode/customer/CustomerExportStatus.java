@@ -0,0 +1,8 @@
+package com.swcode.customer;
+
+public enum CustomerExportStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,46 @@
+package com.swcode.customer;
+
+import com.swcode.exception.RequestValidationException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Field rules shared by the request records. They run in the records'
+ * constructors, i.e. while Jackson binds the body, so malformed requests fail
+ * before reaching the service or the database.
+ */
+final class CustomerFields {
+
+    static final int MIN_AGE = 0;
+    static final int MAX_AGE = 150;
+
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    private CustomerFields() {
+    }
+
+    static void checkName(String name) {
+        if (name != null && name.isBlank()) {
+            throw new RequestValidationException("name must not be blank");
+        }
+    }
+
+    static void checkEmail(String email) {
+        if (email != null && !EMAIL.matcher(email.trim()).matches()) {
+            throw new RequestValidationException("email is not a valid address");
+        }
+    }
+
+    static void checkAge(Integer age) {
+        if (age != null && (age < MIN_AGE || age > MAX_AGE)) {
+            throw new RequestValidationException(
+                    "age must be between %d and %d".formatted(MIN_AGE, MAX_AGE));
+        }
+    }
+
+    static void require(Object value, String field) {
+        if (value == null) {
+            throw new RequestValidationException(field + " is required");
+        }
+    }
+}
@@ -1,21 +1,44 @@
 package com.swcode.customer;
 
+import com.swcode.collection.IntHashSet;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Repository("jdbc")
 public class CustomerJDBCDataAccessService implements CustomerDao{
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerJDBCDataAccessService.class);
+    private static final ResultSetExtractor<int[]> AFFECTED_IDS = rs -> {
+        IntHashSet ids = new IntHashSet();
+        while (rs.next()) {
+            ids.add(rs.getInt(1));
+        }
+        return ids.toArray();
+    };
+
     private final JdbcTemplate jdbcTemplate;
     private final CustomerRowMapper customerRowMapper;
+    private final CustomerViewResultSetExtractor customerViewResultSetExtractor;
 
-    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate, CustomerRowMapper customerRowMapper) {
+    public CustomerJDBCDataAccessService(JdbcTemplate jdbcTemplate,
+                                         CustomerRowMapper customerRowMapper,
+                                         CustomerViewResultSetExtractor customerViewResultSetExtractor) {
         this.jdbcTemplate = jdbcTemplate;
         this.customerRowMapper = customerRowMapper;
+        this.customerViewResultSetExtractor = customerViewResultSetExtractor;
     }
 
     @Override
@@ -40,14 +63,89 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
                 .findFirst();
     }
 
+    @Override
+    public List<CustomerView> selectAllCustomerViews() {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                """;
+
+        return jdbcTemplate.query(sql, customerViewResultSetExtractor);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(int id) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ?
+                """;
+        return jdbcTemplate.query(sql, customerViewResultSetExtractor, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Hands the full customer result set to {@code extractor} without materializing it.
+     * PostgreSQL only honours the fetch size (and streams through a cursor) when the
+     * call runs inside a transaction, so callers are expected to open one.
+     */
+    public <T> T streamAllCustomers(int fetchSize, ResultSetExtractor<T> extractor) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                """;
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    sql,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY
+            );
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, extractor);
+    }
+
+    /**
+     * Keyset scan of the id range {@code (afterId, toId]}, used to load the table in
+     * parallel chunks without OFFSET.
+     */
+    public List<CustomerView> selectCustomerViewsInIdRange(int afterId, int toId, int limit) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id > ? AND id <= ?
+                ORDER BY id
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, customerViewResultSetExtractor, afterId, toId, limit);
+    }
+
+    public Optional<int[]> selectCustomerIdRange() {
+        var sql = """
+                SELECT min(id) AS min_id, max(id) AS max_id
+                FROM customer
+                """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+                    int minId = rs.getInt("min_id");
+                    return rs.wasNull() ? null : new int[]{minId, rs.getInt("max_id")};
+                })
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         var sql = """
                 INSERT INTO customer(name, email, age)
                 VALUES (?, ?, ?)
+                RETURNING id
                 """;
-        int result = jdbcTemplate.update(sql, customer.getName(), customer.getEmail(), customer.getAge());
-        System.out.println("jdbcTemplate.update = " + result);
+        Integer id = jdbcTemplate.queryForObject(
+                sql, Integer.class, customer.getName(), customer.getEmail(), customer.getAge());
+        customer.setId(id);
     }
 
     @Override
@@ -55,7 +153,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
         var sql = """
                 SELECT count(id)
                 FROM customer
-                WHERE email = ?
+                WHERE lower(trim(email)) = ?
                 """;
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, email);
         return count != null && count >0;
@@ -80,7 +178,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
                 WHERE id = ?
                 """;
         int result = jdbcTemplate.update(sql, customerId);
-        System.out.println("deleteCustomerById result = " + result);
+        LOGGER.debug("deleteCustomerById({}) deleted {} rows", customerId, result);
     }
 
     @Override
@@ -92,7 +190,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
                     update.getName(),
                     update.getId()
             );
-            System.out.println("update customer name result = " + result);
+            LOGGER.debug("updateCustomer({}) name updated {} rows", update.getId(), result);
         }
         if (update.getAge() != null) {
             String sql = "UPDATE customer SET age = ? WHERE id = ?";
@@ -101,7 +199,7 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
                     update.getAge(),
                     update.getId()
             );
-            System.out.println("update customer age result = " + result);
+            LOGGER.debug("updateCustomer({}) age updated {} rows", update.getId(), result);
         }
         if (update.getEmail() != null) {
             String sql = "UPDATE customer SET email = ? WHERE id = ?";
@@ -110,7 +208,119 @@ public class CustomerJDBCDataAccessService implements CustomerDao{
                     update.getEmail(),
                     update.getId()
             );
-            System.out.println("update customer email result = " + result);
+            LOGGER.debug("updateCustomer({}) email updated {} rows", update.getId(), result);
         }
     }
+
+    @Override
+    public List<CustomerView> selectCustomerViewsByIds(int[] ids) {
+        var sql = """
+                SELECT id, name, email, age
+                FROM customer
+                WHERE id = ANY(?)
+                """;
+        return jdbcTemplate.query(sql, ps -> ps.setArray(1, intArray(ps, ids)), customerViewResultSetExtractor);
+    }
+
+    @Override
+    public IntHashSet selectExistingCustomerIds(int[] ids) {
+        var sql = """
+                SELECT id
+                FROM customer
+                WHERE id = ANY(?)
+                """;
+        IntHashSet existing = new IntHashSet(ids.length);
+        jdbcTemplate.query(
+                sql,
+                ps -> ps.setArray(1, intArray(ps, ids)),
+                (ResultSet rs) -> {
+                    existing.add(rs.getInt(1));
+                }
+        );
+        return existing;
+    }
+
+    @Override
+    public int deleteCustomersByIds(int[] ids) {
+        var sql = """
+                DELETE
+                FROM customer
+                WHERE id = ANY(?)
+                """;
+        return jdbcTemplate.update(sql, ps -> ps.setArray(1, intArray(ps, ids)));
+    }
+
+    /**
+     * Deletes at most {@code limit} customers in the age range with an id above
+     * {@code afterId} and returns their ids, so large cohorts are removed in
+     * short transactions. The subquery locks its rows, as the JPA path does, so
+     * a concurrent write cannot move a selected row out of the range before it
+     * is deleted; the outer range check only guards the statement on its own.
+     */
+    @Override
+    public int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit) {
+        var sql = """
+                DELETE
+                FROM customer
+                WHERE id IN (
+                    SELECT id
+                    FROM customer
+                    WHERE age BETWEEN ? AND ? AND id > ?
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE
+                )
+                AND age BETWEEN ? AND ?
+                RETURNING id
+                """;
+        return jdbcTemplate.query(sql, AFFECTED_IDS, minAge, maxAge, afterId, limit, minAge, maxAge);
+    }
+
+    @Override
+    public int updateCustomerAgeByIds(int[] ids, int age) {
+        var sql = """
+                UPDATE customer
+                SET age = ?
+                WHERE id = ANY(?)
+                """;
+        return jdbcTemplate.update(sql, ps -> {
+            ps.setInt(1, age);
+            ps.setArray(2, intArray(ps, ids));
+        });
+    }
+
+    /**
+     * Updates at most {@code limit} customers in the age range with an id above
+     * {@code afterId} and returns their ids. Callers continue from the largest
+     * returned id, which terminates even when the new age is inside the range.
+     * As with {@link #deleteCustomersByAgeRange}, the selected rows are locked.
+     */
+    @Override
+    public int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit) {
+        var sql = """
+                UPDATE customer
+                SET age = ?
+                WHERE id IN (
+                    SELECT id
+                    FROM customer
+                    WHERE age BETWEEN ? AND ? AND id > ?
+                    ORDER BY id
+                    LIMIT ?
+                    FOR UPDATE
+                )
+                AND age BETWEEN ? AND ?
+                RETURNING id
+                """;
+        return jdbcTemplate.query(sql, AFFECTED_IDS, age, minAge, maxAge, afterId, limit, minAge, maxAge);
+    }
+
+    /**
+     * Binds an {@code int[]} as an {@code int4[]} parameter. The PostgreSQL driver
+     * encodes primitive arrays directly, so no {@code Integer[]} is built.
+     */
+    private static Array intArray(PreparedStatement ps, int[] ids) throws SQLException {
+        return ps.getConnection()
+                .unwrap(PGConnection.class)
+                .createArrayOf("int4", ids);
+    }
 }
@@ -1,7 +1,12 @@
 package com.swcode.customer;
 
+import com.swcode.collection.IntHashSet;
+import com.swcode.exception.ResourceNotFoundException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +21,7 @@ public class CustomerJPADataAccessService implements CustomerDao{
 
     @Override
     public List<Customer> selectAllCustomers() {
-        return customerRepository.findAll();
+        return customerRepository.findAllReadOnly();
     }
 
     @Override
@@ -24,6 +29,17 @@ public class CustomerJPADataAccessService implements CustomerDao{
         return customerRepository.findById(id);
     }
 
+    @Override
+    public List<CustomerView> selectAllCustomerViews() {
+        return customerRepository.findAllViews();
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(int id) {
+        return customerRepository.findById(id)
+                .map(CustomerView::from);
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
         customerRepository.save(customer);
@@ -44,8 +60,74 @@ public class CustomerJPADataAccessService implements CustomerDao{
         customerRepository.deleteById(customerId);
     }
 
+    /**
+     * Copies the changes onto the managed entity instead of merging the detached
+     * one: the lookup can be served by the second-level cache, and dirty checking
+     * with {@code @DynamicUpdate} writes only the columns that changed.
+     */
     @Override
+    @Transactional
     public void updateCustomer(Customer update) {
-        customerRepository.save(update);
+        Customer customer = customerRepository.findById(update.getId())
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "customer with id [%s] not found".formatted(update.getId())
+                ));
+        customer.setName(update.getName());
+        customer.setEmail(update.getEmail());
+        customer.setAge(update.getAge());
+    }
+
+    @Override
+    public List<CustomerView> selectCustomerViewsByIds(int[] ids) {
+        return customerRepository.findViewsByIdIn(boxed(ids));
+    }
+
+    @Override
+    public IntHashSet selectExistingCustomerIds(int[] ids) {
+        IntHashSet existing = new IntHashSet(ids.length);
+        customerRepository.findExistingIds(boxed(ids)).forEach(existing::add);
+        return existing;
+    }
+
+    @Override
+    public int deleteCustomersByIds(int[] ids) {
+        return customerRepository.deleteByIdIn(boxed(ids));
+    }
+
+    /**
+     * Selects and deletes in one transaction, with the selected rows locked.
+     */
+    @Override
+    @Transactional
+    public int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit) {
+        List<Integer> ids = customerRepository.lockIdsByAgeRange(minAge, maxAge, afterId, PageRequest.ofSize(limit));
+        if (ids.isEmpty()) {
+            return new int[0];
+        }
+        customerRepository.deleteByIdIn(ids);
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Override
+    public int updateCustomerAgeByIds(int[] ids, int age) {
+        return customerRepository.updateAgeByIdIn(boxed(ids), age);
+    }
+
+    /**
+     * Selects and updates in one transaction, with the selected rows locked.
+     */
+    @Override
+    @Transactional
+    public int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit) {
+        List<Integer> ids = customerRepository.lockIdsByAgeRange(minAge, maxAge, afterId, PageRequest.ofSize(limit));
+        if (ids.isEmpty()) {
+            return new int[0];
+        }
+        customerRepository.updateAgeByIdIn(ids, age);
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static List<Integer> boxed(int[] ids) {
+        return Arrays.stream(ids).boxed().toList();
     }
 }
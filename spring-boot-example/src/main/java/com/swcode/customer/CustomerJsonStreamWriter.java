@@ -0,0 +1,75 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the customer table as a JSON array straight from the JDBC cursor,
+ * without building a list or a DTO per row.
+ */
+@Component
+public class CustomerJsonStreamWriter {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString AGE = new SerializedString("age");
+
+    private final JsonFactory jsonFactory;
+    private final CustomerJDBCDataAccessService customerJDBCDataAccessService;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+
+    public CustomerJsonStreamWriter(ObjectMapper objectMapper,
+                                    CustomerJDBCDataAccessService customerJDBCDataAccessService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${customer.stream.fetch-size}") int fetchSize) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.customerJDBCDataAccessService = customerJDBCDataAccessService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fetchSize = fetchSize;
+    }
+
+    public void writeAllCustomers(OutputStream out) {
+        transactionTemplate.executeWithoutResult(status ->
+                customerJDBCDataAccessService.streamAllCustomers(fetchSize, rs -> {
+                    write(rs, out);
+                    return null;
+                }));
+    }
+
+    void write(ResultSet rs, OutputStream out) throws SQLException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            CustomerColumns columns = CustomerColumns.of(rs);
+            generator.writeStartArray();
+            while (rs.next()) {
+                generator.writeStartObject();
+                generator.writeFieldName(ID);
+                generator.writeNumber(rs.getInt(columns.id()));
+                generator.writeFieldName(NAME);
+                generator.writeString(rs.getString(columns.name()));
+                generator.writeFieldName(EMAIL);
+                generator.writeString(rs.getString(columns.email()));
+                generator.writeFieldName(AGE);
+                generator.writeNumber(rs.getInt(columns.age()));
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.swcode.customer;
 
+import com.swcode.collection.IntHashSet;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -35,29 +36,45 @@ public class CustomerListAccessService implements CustomerDao{
     @Override
     public Optional<Customer> selectCustomerById(Integer customerId) {
         return customers.stream()
-                .filter(c -> c.getId().equals(customerId))
+                .filter(c -> c.getId() == customerId.intValue())
                 .findFirst();
     }
 
+    @Override
+    public List<CustomerView> selectAllCustomerViews() {
+        return customers.stream()
+                .map(CustomerView::from)
+                .toList();
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(int id) {
+        return selectCustomerById(id)
+                .map(CustomerView::from);
+    }
+
     @Override
     public void insertCustomer(Customer customer) {
+        if (customer.getId() == null) {
+            customer.setId(customers.stream().mapToInt(Customer::getId).max().orElse(0) + 1);
+        }
         customers.add(customer);
     }
 
     @Override
     public boolean existsPersonWithEmail(String email) {
-        return customers.stream().anyMatch(c -> c.getEmail().equals(email));
+        return customers.stream().anyMatch(c -> EmailReservations.normalize(c.getEmail()).equals(email));
     }
 
     @Override
     public boolean existsPersonWithId(Integer id) {
-        return customers.stream().anyMatch(c -> c.getId().equals(id));
+        return customers.stream().anyMatch(c -> c.getId() == id.intValue());
     }
 
     @Override
     public void deleteCustomerById(Integer customerId) {
         customers.stream()
-                .filter(c -> c.getId().equals(customerId))
+                .filter(c -> c.getId() == customerId.intValue())
                 .findFirst()
                 .ifPresent(customers::remove);
     }
@@ -66,4 +83,70 @@ public class CustomerListAccessService implements CustomerDao{
     public void updateCustomer(Customer update) {
         customers.add(update);
     }
+
+    @Override
+    public List<CustomerView> selectCustomerViewsByIds(int[] ids) {
+        IntHashSet wanted = IntHashSet.of(ids);
+        return customers.stream()
+                .filter(c -> wanted.contains(c.getId()))
+                .map(CustomerView::from)
+                .toList();
+    }
+
+    @Override
+    public IntHashSet selectExistingCustomerIds(int[] ids) {
+        IntHashSet wanted = IntHashSet.of(ids);
+        IntHashSet existing = new IntHashSet(ids.length);
+        customers.forEach(c -> {
+            if (wanted.contains(c.getId())) {
+                existing.add(c.getId());
+            }
+        });
+        return existing;
+    }
+
+    @Override
+    public int deleteCustomersByIds(int[] ids) {
+        IntHashSet wanted = IntHashSet.of(ids);
+        int before = customers.size();
+        customers.removeIf(c -> wanted.contains(c.getId()));
+        return before - customers.size();
+    }
+
+    @Override
+    public int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit) {
+        int[] ids = customers.stream()
+                .filter(c -> c.getAge() >= minAge && c.getAge() <= maxAge && c.getId() > afterId)
+                .mapToInt(Customer::getId)
+                .sorted()
+                .limit(limit)
+                .toArray();
+        deleteCustomersByIds(ids);
+        return ids;
+    }
+
+    @Override
+    public int updateCustomerAgeByIds(int[] ids, int age) {
+        IntHashSet wanted = IntHashSet.of(ids);
+        int updated = 0;
+        for (Customer customer : customers) {
+            if (wanted.contains(customer.getId())) {
+                customer.setAge(age);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    @Override
+    public int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit) {
+        int[] ids = customers.stream()
+                .filter(c -> c.getAge() >= minAge && c.getAge() <= maxAge && c.getId() > afterId)
+                .mapToInt(Customer::getId)
+                .sorted()
+                .limit(limit)
+                .toArray();
+        updateCustomerAgeByIds(ids, age);
+        return ids;
+    }
 }
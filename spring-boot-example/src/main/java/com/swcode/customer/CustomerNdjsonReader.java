@@ -0,0 +1,102 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.swcode.exception.RequestValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads newline-delimited registration requests one record at a time from the
+ * body stream. The reader is resolved once; parse buffers are recycled by
+ * Jackson's {@code BufferRecycler}.
+ */
+@Component
+public class CustomerNdjsonReader {
+
+    private final ObjectReader reader;
+    private final int maxRecords;
+
+    public CustomerNdjsonReader(ObjectMapper objectMapper,
+                                @Value("${customer.bulk.max-records}") int maxRecords) {
+        this.reader = objectMapper.readerFor(CustomerRegistrationRequest.class);
+        this.maxRecords = maxRecords;
+    }
+
+    /**
+     * Binds, and so validates, every record before any is registered. At most
+     * {@code max-records} are accepted, which bounds what one request holds.
+     */
+    public List<CustomerRegistrationRequest> readAll(InputStream body) {
+        List<CustomerRegistrationRequest> requests = new ArrayList<>();
+        for (CustomerRegistrationRequest request : read(body)) {
+            if (requests.size() == maxRecords) {
+                throw new RequestValidationException(
+                        "at most %d records per request".formatted(maxRecords)
+                );
+            }
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    public Iterable<CustomerRegistrationRequest> read(InputStream body) {
+        return () -> {
+            try {
+                return new Records(reader.readValues(body));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static final class Records implements Iterator<CustomerRegistrationRequest> {
+
+        private final MappingIterator<CustomerRegistrationRequest> values;
+        private int record;
+
+        private Records(MappingIterator<CustomerRegistrationRequest> values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                return values.hasNextValue();
+            } catch (IOException e) {
+                throw invalid(record + 1, e);
+            }
+        }
+
+        @Override
+        public CustomerRegistrationRequest next() {
+            record++;
+            try {
+                return values.nextValue();
+            } catch (IOException e) {
+                throw invalid(record, e);
+            }
+        }
+
+        private static RequestValidationException invalid(int record, IOException e) {
+            String reason;
+            if (e.getCause() instanceof RequestValidationException cause) {
+                reason = cause.getMessage();
+            } else if (e instanceof JsonProcessingException json) {
+                reason = json.getOriginalMessage();
+            } else {
+                reason = e.getMessage();
+            }
+            return new RequestValidationException("record %d: %s".formatted(record, reason));
+        }
+    }
+}
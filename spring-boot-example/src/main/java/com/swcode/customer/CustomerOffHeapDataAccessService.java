@@ -0,0 +1,193 @@
+package com.swcode.customer;
+
+import com.swcode.collection.IntHashSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only {@link CustomerDao} serving the whole customer table from an
+ * {@link OffHeapCustomerTable}, for edge deployments that never write. The
+ * table is loaded from a consistent PostgreSQL snapshot (one read-only
+ * transaction, streamed with a fetch size) and swapped in atomically by
+ * {@link #reload()}. Size {@code -XX:MaxDirectMemorySize} for the dataset.
+ */
+@Repository("offheap")
+public class CustomerOffHeapDataAccessService implements CustomerDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerOffHeapDataAccessService.class);
+
+    private final CustomerJDBCDataAccessService customerJDBCDataAccessService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int fetchSize;
+    private volatile OffHeapCustomerTable table = new OffHeapCustomerTable.Builder().build();
+
+    public CustomerOffHeapDataAccessService(CustomerJDBCDataAccessService customerJDBCDataAccessService,
+                                            PlatformTransactionManager transactionManager,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${customer.offheap.enabled}") boolean enabled,
+                                            @Value("${customer.stream.fetch-size}") int fetchSize) {
+        this.customerJDBCDataAccessService = customerJDBCDataAccessService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.fetchSize = fetchSize;
+
+        Gauge.builder("customer.offheap.rows", this, dao -> dao.table.rows())
+                .register(meterRegistry);
+        Gauge.builder("customer.offheap.bytes", this, dao -> dao.table.offHeapBytes())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        long start = System.nanoTime();
+        OffHeapCustomerTable loaded = transactionTemplate.execute(status ->
+                customerJDBCDataAccessService.streamAllCustomers(fetchSize, rs -> {
+                    CustomerColumns columns = CustomerColumns.of(rs);
+                    OffHeapCustomerTable.Builder builder = new OffHeapCustomerTable.Builder();
+                    while (rs.next()) {
+                        builder.add(
+                                rs.getInt(columns.id()),
+                                rs.getString(columns.name()),
+                                rs.getString(columns.email()),
+                                rs.getInt(columns.age())
+                        );
+                    }
+                    return builder.build();
+                }));
+        table = loaded;
+        LOGGER.info("loaded {} customers ({} bytes off-heap) in {} ms",
+                loaded.rows(), loaded.offHeapBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        OffHeapCustomerTable current = table;
+        List<Customer> customers = new ArrayList<>(current.rows());
+        for (int row = 0; row < current.rows(); row++) {
+            customers.add(toCustomer(current, row));
+        }
+        return customers;
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        OffHeapCustomerTable current = table;
+        int row = current.findById(id);
+        return row < 0 ? Optional.empty() : Optional.of(toCustomer(current, row));
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomerViews() {
+        OffHeapCustomerTable current = table;
+        List<CustomerView> views = new ArrayList<>(current.rows());
+        for (int row = 0; row < current.rows(); row++) {
+            views.add(current.view(row));
+        }
+        return views;
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(int id) {
+        OffHeapCustomerTable current = table;
+        int row = current.findById(id);
+        return row < 0 ? Optional.empty() : Optional.of(current.view(row));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        throw readOnly();
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return table.findByEmail(email) >= 0;
+    }
+
+    @Override
+    public boolean existsPersonWithId(Integer id) {
+        return table.findById(id) >= 0;
+    }
+
+    @Override
+    public void deleteCustomerById(Integer customerId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void updateCustomer(Customer update) {
+        throw readOnly();
+    }
+
+    @Override
+    public List<CustomerView> selectCustomerViewsByIds(int[] ids) {
+        OffHeapCustomerTable current = table;
+        List<CustomerView> views = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            int row = current.findById(id);
+            if (row >= 0) {
+                views.add(current.view(row));
+            }
+        }
+        return views;
+    }
+
+    @Override
+    public IntHashSet selectExistingCustomerIds(int[] ids) {
+        OffHeapCustomerTable current = table;
+        IntHashSet existing = new IntHashSet(ids.length);
+        for (int id : ids) {
+            if (current.findById(id) >= 0) {
+                existing.add(id);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public int deleteCustomersByIds(int[] ids) {
+        throw readOnly();
+    }
+
+    @Override
+    public int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit) {
+        throw readOnly();
+    }
+
+    @Override
+    public int updateCustomerAgeByIds(int[] ids, int age) {
+        throw readOnly();
+    }
+
+    @Override
+    public int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit) {
+        throw readOnly();
+    }
+
+    private static Customer toCustomer(OffHeapCustomerTable table, int row) {
+        return new Customer(table.id(row), table.name(row), table.email(row), table.age(row));
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("the off-heap customer store is read-only");
+    }
+}
@@ -5,4 +5,12 @@ public record CustomerRegistrationRequest(
         String email,
         Integer age
 ) {
+    public CustomerRegistrationRequest {
+        CustomerFields.require(name, "name");
+        CustomerFields.require(email, "email");
+        CustomerFields.require(age, "age");
+        CustomerFields.checkName(name);
+        CustomerFields.checkEmail(email);
+        CustomerFields.checkAge(age);
+    }
 }
@@ -1,9 +1,65 @@
 package com.swcode.customer;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
 
-    boolean existsCustomerByEmail(String email);
+    @Query("SELECT count(c) > 0 FROM Customer c WHERE lower(trim(c.email)) = :email")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    boolean existsCustomerByEmail(@Param("email") String email);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     boolean existsCustomerById(Integer id);
+
+
+    @Query("SELECT new com.swcode.customer.CustomerView(c.id, c.name, c.email, c.age) FROM Customer c")
+    List<CustomerView> findAllViews();
+
+    @Query("SELECT new com.swcode.customer.CustomerView(c.id, c.name, c.email, c.age) FROM Customer c WHERE c.id IN :ids")
+    List<CustomerView> findViewsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Loads entities read-only, so Hibernate keeps no dirty-checking snapshots
+     * for them.
+     */
+    @Query("SELECT c FROM Customer c")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"))
+    List<Customer> findAllReadOnly();
+
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Customer c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Locks the selected rows until the surrounding transaction ends, so they
+     * cannot leave the age range before they are deleted or updated.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c.id FROM Customer c WHERE c.age BETWEEN :minAge AND :maxAge AND c.id > :afterId ORDER BY c.id")
+    List<Integer> lockIdsByAgeRange(@Param("minAge") int minAge,
+                                    @Param("maxAge") int maxAge,
+                                    @Param("afterId") int afterId,
+                                    Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Customer c SET c.age = :age WHERE c.id IN :ids")
+    int updateAgeByIdIn(@Param("ids") Collection<Integer> ids, @Param("age") int age);
 }
@@ -0,0 +1,345 @@
+package com.swcode.customer;
+
+import com.swcode.collection.IntHashSet;
+import com.swcode.customer.CustomerDaoRoutes.Operation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CustomerDao} that forwards each call to the backend configured for its
+ * kind of operation (reads, single-row writes, bulk statements). Routes can be
+ * changed at runtime through the {@code customerdao} actuator endpoint.
+ * <p>
+ * In shadow mode a sample of reads is repeated against a second backend off the
+ * request path and the results compared; only reads are mirrored, since the
+ * database-backed DAOs share one database and mirrored writes would apply
+ * twice. Each call is an observation, {@code customer.dao.calls}, tagged with
+ * backend and method: a timer, and a span when tracing is on. Calls are also
+ * emitted as {@link CustomerDaoEvent}s when a flight recording has them enabled.
+ */
+@Repository("routing")
+public class CustomerRoutingDataAccessService implements CustomerDao {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerRoutingDataAccessService.class);
+    /**
+     * Backends that read the customer table directly, so they see writes made
+     * through any of these.
+     */
+    private static final Set<String> DATABASE_BACKENDS = Set.of("jdbc", "cached", "jpa");
+    private static final String READ_ONLY_SNAPSHOT = "offheap";
+    /**
+     * Keeps its own data set, so comparing it with any other backend always
+     * reports a mismatch.
+     */
+    private static final String DETACHED = "list";
+
+    private final Map<String, CustomerDao> backends;
+    private final ExecutorService shadowExecutor;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final boolean jpaSecondLevelCache;
+    private volatile CustomerDaoRoutes routes;
+
+    public CustomerRoutingDataAccessService(Map<String, CustomerDao> backends,
+                                            @Qualifier("customerShadowExecutor") ExecutorService shadowExecutor,
+                                            MeterRegistry meterRegistry,
+                                            ObservationRegistry observationRegistry,
+                                            @Value("${customer.routing.read}") String read,
+                                            @Value("${customer.routing.write}") String write,
+                                            @Value("${customer.routing.bulk}") String bulk,
+                                            @Value("${customer.routing.shadow.backend}") String shadow,
+                                            @Value("${customer.routing.shadow.sample-rate}") double shadowSampleRate,
+                                            @Value("${spring.jpa.properties.hibernate.cache.use_second_level_cache}") boolean jpaSecondLevelCache) {
+        this.backends = Map.copyOf(backends);
+        this.shadowExecutor = shadowExecutor;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.jpaSecondLevelCache = jpaSecondLevelCache;
+        setRoutes(new CustomerDaoRoutes(read, write, bulk, shadow, shadowSampleRate));
+    }
+
+    public CustomerDaoRoutes getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Rejects routes that would leave reads stale: writes to a read-only
+     * backend, and reads from a backend whose data or caches are not updated by
+     * the backends taking the writes.
+     */
+    public void setRoutes(CustomerDaoRoutes routes) {
+        for (Operation operation : Operation.values()) {
+            requireBackend(routes.backendFor(operation));
+        }
+        for (Operation operation : List.of(Operation.WRITE, Operation.BULK)) {
+            String writer = routes.backendFor(operation);
+            if (writer.equals(READ_ONLY_SNAPSHOT)) {
+                throw new IllegalArgumentException(
+                        "customer dao [%s] is read-only and cannot serve %s".formatted(writer, name(operation)));
+            }
+            requireSees(routes.read(), writer, operation);
+        }
+        if (routes.shadowing()) {
+            requireBackend(routes.shadow());
+            if (routes.shadow().equals(DETACHED)) {
+                throw new IllegalArgumentException(
+                        "customer dao [%s] holds its own data and cannot shadow reads".formatted(DETACHED));
+            }
+            // the snapshot is shadowed precisely to measure how far it has drifted
+            if (!routes.shadow().equals(READ_ONLY_SNAPSHOT)) {
+                requireSees(routes.shadow(), routes.write(), Operation.WRITE);
+                requireSees(routes.shadow(), routes.bulk(), Operation.BULK);
+            }
+        }
+        this.routes = routes;
+        LOGGER.info("Customer DAO routes set to {}", routes);
+    }
+
+    public Collection<String> getBackends() {
+        return backends.keySet().stream().sorted().toList();
+    }
+
+    @Override
+    public List<Customer> selectAllCustomers() {
+        return read("selectAllCustomers", CustomerDao::selectAllCustomers);
+    }
+
+    @Override
+    public Optional<Customer> selectCustomerById(Integer id) {
+        return read("selectCustomerById", dao -> dao.selectCustomerById(id));
+    }
+
+    @Override
+    public List<CustomerView> selectAllCustomerViews() {
+        return read("selectAllCustomerViews", CustomerDao::selectAllCustomerViews);
+    }
+
+    @Override
+    public Optional<CustomerView> selectCustomerViewById(int id) {
+        return read("selectCustomerViewById", dao -> dao.selectCustomerViewById(id));
+    }
+
+    @Override
+    public void insertCustomer(Customer customer) {
+        call(Operation.WRITE, "insertCustomer", dao -> {
+            dao.insertCustomer(customer);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean existsPersonWithEmail(String email) {
+        return read("existsPersonWithEmail", dao -> dao.existsPersonWithEmail(email));
+    }
+
+    @Override
+    public boolean existsPersonWithId(Integer id) {
+        return read("existsPersonWithId", dao -> dao.existsPersonWithId(id));
+    }
+
+    @Override
+    public void deleteCustomerById(Integer customerId) {
+        call(Operation.WRITE, "deleteCustomerById", dao -> {
+            dao.deleteCustomerById(customerId);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateCustomer(Customer update) {
+        call(Operation.WRITE, "updateCustomer", dao -> {
+            dao.updateCustomer(update);
+            return null;
+        });
+    }
+
+    @Override
+    public List<CustomerView> selectCustomerViewsByIds(int[] ids) {
+        return read("selectCustomerViewsByIds", dao -> dao.selectCustomerViewsByIds(ids));
+    }
+
+    @Override
+    public IntHashSet selectExistingCustomerIds(int[] ids) {
+        return read("selectExistingCustomerIds", dao -> dao.selectExistingCustomerIds(ids));
+    }
+
+    @Override
+    public int deleteCustomersByIds(int[] ids) {
+        return call(Operation.BULK, "deleteCustomersByIds", dao -> dao.deleteCustomersByIds(ids));
+    }
+
+    @Override
+    public int[] deleteCustomersByAgeRange(int minAge, int maxAge, int afterId, int limit) {
+        return call(Operation.BULK, "deleteCustomersByAgeRange",
+                dao -> dao.deleteCustomersByAgeRange(minAge, maxAge, afterId, limit));
+    }
+
+    @Override
+    public int updateCustomerAgeByIds(int[] ids, int age) {
+        return call(Operation.BULK, "updateCustomerAgeByIds", dao -> dao.updateCustomerAgeByIds(ids, age));
+    }
+
+    @Override
+    public int[] updateCustomerAgeByAgeRange(int minAge, int maxAge, int age, int afterId, int limit) {
+        return call(Operation.BULK, "updateCustomerAgeByAgeRange",
+                dao -> dao.updateCustomerAgeByAgeRange(minAge, maxAge, age, afterId, limit));
+    }
+
+    private <T> T read(String method, Function<CustomerDao, T> call) {
+        CustomerDaoRoutes current = routes;
+        T result = call(Operation.READ, method, call);
+        if (current.shadowing()
+                && !current.shadow().equals(current.read())
+                && ThreadLocalRandom.current().nextDouble() < current.shadowSampleRate()) {
+            shadow(current.shadow(), method, call, result);
+        }
+        return result;
+    }
+
+    private <T> T call(Operation operation, String method, Function<CustomerDao, T> call) {
+        String backend = routes.backendFor(operation);
+        return observation(backend, method, "primary").observe(() -> invoke(backend, method, "primary", call));
+    }
+
+    private <T> T invoke(String backend, String method, String mode, Function<CustomerDao, T> call) {
+        CustomerDaoEvent event = new CustomerDaoEvent();
+        if (!event.isEnabled()) {
+            return call.apply(backends.get(backend));
+        }
+        event.begin();
+        T result = call.apply(backends.get(backend));
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = method;
+            event.backend = backend;
+            event.mode = mode;
+            event.rows = CustomerDaoEvent.rows(result);
+            event.commit();
+        }
+        return result;
+    }
+
+    private <T> void shadow(String backend, String method, Function<CustomerDao, T> call, T expected) {
+        Observation parent = observationRegistry.getCurrentObservation();
+        try {
+            shadowExecutor.execute(() -> {
+                try {
+                    T actual = observation(backend, method, "shadow").parentObservation(parent)
+                            .observe(() -> invoke(backend, method, "shadow", call));
+                    boolean matches = sameResult(expected, actual);
+                    shadowResults(backend, method, matches ? "match" : "mismatch").increment();
+                    if (!matches) {
+                        LOGGER.debug("Shadow {} on {} returned a different result", method, backend);
+                    }
+                } catch (RuntimeException e) {
+                    shadowResults(backend, method, "error").increment();
+                    LOGGER.debug("Shadow {} on {} failed", method, backend, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            shadowResults(backend, method, "dropped").increment();
+        }
+    }
+
+    /**
+     * Backends do not agree on row order, so lists are compared as multisets.
+     */
+    static boolean sameResult(Object expected, Object actual) {
+        if (expected instanceof List<?> a && actual instanceof List<?> b) {
+            return a.size() == b.size() && counts(a).equals(counts(b));
+        }
+        if (expected instanceof IntHashSet a && actual instanceof IntHashSet b) {
+            return Arrays.equals(sorted(a.toArray()), sorted(b.toArray()));
+        }
+        if (expected instanceof int[] a && actual instanceof int[] b) {
+            return Arrays.equals(sorted(a), sorted(b));
+        }
+        return Objects.equals(normalize(expected), normalize(actual));
+    }
+
+    private static Map<Object, Long> counts(List<?> values) {
+        return values.stream().collect(Collectors.groupingBy(
+                CustomerRoutingDataAccessService::normalize, HashMap::new, Collectors.counting()));
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Optional<?> optional) {
+            return optional.map(CustomerRoutingDataAccessService::normalize).orElse(null);
+        }
+        return value instanceof Customer customer ? CustomerView.from(customer) : value;
+    }
+
+    private static int[] sorted(int[] values) {
+        int[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private void requireSees(String reader, String writer, Operation operation) {
+        if (!writersSeenBy(reader).contains(writer)) {
+            throw new IllegalArgumentException(
+                    "reads from customer dao [%s] would not see %s through [%s]"
+                            .formatted(reader, name(operation), writer));
+        }
+    }
+
+    private Set<String> writersSeenBy(String reader) {
+        return switch (reader) {
+            case "jdbc" -> DATABASE_BACKENDS;
+            // near and shared tiers are only invalidated by writes through the cache itself
+            case "cached" -> Set.of("cached");
+            // likewise for the second-level cache, when it is on
+            case "jpa" -> jpaSecondLevelCache ? Set.of("jpa") : DATABASE_BACKENDS;
+            case READ_ONLY_SNAPSHOT -> Set.of();
+            default -> Set.of(reader);
+        };
+    }
+
+    private static String name(Operation operation) {
+        return operation == Operation.WRITE ? "writes" : "bulk writes";
+    }
+
+    private void requireBackend(String backend) {
+        if (!backends.containsKey(backend)) {
+            throw new IllegalArgumentException(
+                    "unknown customer dao [%s], expected one of %s".formatted(backend, getBackends()));
+        }
+    }
+
+    private Observation observation(String backend, String method, String mode) {
+        return Observation.createNotStarted("customer.dao.calls", observationRegistry)
+                .contextualName("customer dao " + method)
+                .lowCardinalityKeyValue("backend", backend)
+                .lowCardinalityKeyValue("method", method)
+                .lowCardinalityKeyValue("mode", mode);
+    }
+
+    private Counter shadowResults(String backend, String method, String result) {
+        return Counter.builder("customer.dao.shadow.results")
+                .tag("backend", backend)
+                .tag("method", method)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -1,20 +1,51 @@
 package com.swcode.customer;
 
+import com.swcode.deadline.Deadline;
 import com.swcode.exception.DuplicateResourceException;
 import com.swcode.exception.RequestValidationException;
 import com.swcode.exception.ResourceNotFoundException;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
+@Observed(name = "customer.service")
 public class CustomerService {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+    /**
+     * Keyset start for chunked range operations; below every id, whatever the
+     * DAO behind the route.
+     */
+    private static final int FIRST_ID = Integer.MIN_VALUE;
+
     private final CustomerDao customerDao;
+    private final EmailReservations emailReservations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate bulkTransaction;
+    private final int bulkChunkSize;
 
-    public CustomerService(@Qualifier("jdbc") CustomerDao customerDao) {
+    public CustomerService(@Qualifier("routing") CustomerDao customerDao,
+                           EmailReservations emailReservations,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${customer.bulk.chunk-size}") int bulkChunkSize) {
         this.customerDao = customerDao;
+        this.emailReservations = emailReservations;
+        this.eventPublisher = eventPublisher;
+        this.bulkTransaction = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
     }
 
     public List<Customer> getAllCustomers() {
@@ -27,19 +58,69 @@ public class CustomerService {
                 "customer with id [%s] not found".formatted(id)));
     }
 
+    public List<CustomerView> getAllCustomerViews() {
+        return customerDao.selectAllCustomerViews();
+    }
+
+    public CustomerView getCustomerView(int id) {
+        return customerDao.selectCustomerViewById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                "customer with id [%s] not found".formatted(id)));
+    }
+
+    public List<CustomerView> getCustomerViews(int[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return customerDao.selectCustomerViewsByIds(ids);
+    }
+
     public void addCustomer(CustomerRegistrationRequest customerRegistrationRequest) {
-        if (customerDao.existsPersonWithEmail(customerRegistrationRequest.email())) {
-            throw new DuplicateResourceException(
-                    "email already taken"
+        Customer customer = register(customerRegistrationRequest);
+        eventPublisher.publishEvent(CustomerEvent.created(customer));
+    }
+
+    /**
+     * Registers all requests in one transaction, so a failing record rolls back
+     * the ones before it; the error names the record. Subscribers only hear of
+     * the batch once it has committed.
+     */
+    public CustomerBulkResult addCustomers(List<CustomerRegistrationRequest> requests) {
+        List<Customer> registered = bulkTransaction.execute(status -> {
+            List<Customer> customers = new ArrayList<>(requests.size());
+            for (CustomerRegistrationRequest request : requests) {
+                Deadline.checkCurrent();
+                try {
+                    customers.add(register(request));
+                } catch (DuplicateResourceException e) {
+                    throw new DuplicateResourceException(
+                            "record %d: %s".formatted(customers.size() + 1, e.getMessage())
+                    );
+                }
+            }
+            return customers;
+        });
+        registered.forEach(customer -> eventPublisher.publishEvent(CustomerEvent.created(customer)));
+        return new CustomerBulkResult(registered.size());
+    }
+
+    private Customer register(CustomerRegistrationRequest customerRegistrationRequest) {
+        String email = EmailReservations.normalize(customerRegistrationRequest.email());
+        try (EmailReservations.Reservation ignored = emailReservations.reserve(email)) {
+            if (customerDao.existsPersonWithEmail(email)) {
+                throw new DuplicateResourceException(
+                        "email already taken"
+                );
+            }
+
+            Customer customer = new Customer(
+                    customerRegistrationRequest.name(),
+                    email,
+                    customerRegistrationRequest.age()
             );
+            rejectingDuplicateEmail(() -> customerDao.insertCustomer(customer));
+            return customer;
         }
-
-        Customer customer = new Customer(
-                customerRegistrationRequest.name(),
-                customerRegistrationRequest.email(),
-                customerRegistrationRequest.age()
-        );
-        customerDao.insertCustomer(customer);
     }
 
     public void deleteCustomerById(Integer customerId) {
@@ -49,6 +130,7 @@ public class CustomerService {
             );
         }
         customerDao.deleteCustomerById(customerId);
+        eventPublisher.publishEvent(CustomerEvent.deleted(customerId));
     }
 
     public void updateCustomer(Integer customerId, CustomerUpdateRequest updateRequest) {
@@ -61,13 +143,10 @@ public class CustomerService {
             changes = true;
         }
 
-        if (updateRequest.email() != null && !updateRequest.email().equals(customer.getEmail())) {
-            if (customerDao.existsPersonWithEmail(updateRequest.email())) {
-                throw new DuplicateResourceException(
-                        "email already taken"
-                );
-            }
-            customer.setEmail(updateRequest.email());
+        String email = EmailReservations.normalize(updateRequest.email());
+        boolean emailChanged = email != null && !email.equals(EmailReservations.normalize(customer.getEmail()));
+        if (emailChanged) {
+            customer.setEmail(email);
             changes = true;
         }
 
@@ -79,6 +158,122 @@ public class CustomerService {
         if (!changes) {
             throw new RequestValidationException("no data changes found");
         }
-        customerDao.updateCustomer(customer);
+        if (!emailChanged) {
+            customerDao.updateCustomer(customer);
+            eventPublisher.publishEvent(CustomerEvent.updated(customer));
+            return;
+        }
+        try (EmailReservations.Reservation ignored = emailReservations.reserve(email)) {
+            if (customerDao.existsPersonWithEmail(email)) {
+                throw new DuplicateResourceException(
+                        "email already taken"
+                );
+            }
+            rejectingDuplicateEmail(() -> customerDao.updateCustomer(customer));
+        }
+        eventPublisher.publishEvent(CustomerEvent.updated(customer));
+    }
+
+    public CustomerBulkResult deleteCustomers(CustomerBulkDeleteRequest request) {
+        int affected = 0;
+        if (hasIds(request.ids(), request.minAge(), request.maxAge())) {
+            for (int from = 0; from < request.ids().length; from += bulkChunkSize) {
+                Deadline.checkCurrent();
+                affected += customerDao.deleteCustomersByIds(chunk(request.ids(), from));
+            }
+            return bulkResult(affected);
+        }
+        int afterId = FIRST_ID;
+        int[] deleted;
+        do {
+            Deadline.checkCurrent();
+            deleted = customerDao.deleteCustomersByAgeRange(
+                    request.minAge(), request.maxAge(), afterId, bulkChunkSize);
+            affected += deleted.length;
+            afterId = Arrays.stream(deleted).max().orElse(afterId);
+        } while (deleted.length > 0);
+        return bulkResult(affected);
+    }
+
+    public CustomerBulkResult updateCustomers(CustomerBulkUpdateRequest request) {
+        if (request.age() == null) {
+            throw new RequestValidationException("age is required");
+        }
+        int affected = 0;
+        if (hasIds(request.ids(), request.minAge(), request.maxAge())) {
+            for (int from = 0; from < request.ids().length; from += bulkChunkSize) {
+                Deadline.checkCurrent();
+                affected += customerDao.updateCustomerAgeByIds(chunk(request.ids(), from), request.age());
+            }
+            return bulkResult(affected);
+        }
+        int afterId = FIRST_ID;
+        int[] updated;
+        do {
+            Deadline.checkCurrent();
+            updated = customerDao.updateCustomerAgeByAgeRange(
+                    request.minAge(), request.maxAge(), request.age(), afterId, bulkChunkSize);
+            affected += updated.length;
+            afterId = Arrays.stream(updated).max().orElse(afterId);
+        } while (updated.length > 0);
+        return bulkResult(affected);
+    }
+
+    /**
+     * A bulk operation may touch many thousands of rows, more than a
+     * subscriber's bounded queue holds, and the statements return ids but not
+     * the changed rows an UPDATED event carries. Subscribers are therefore told
+     * to reload once instead of receiving one event per row.
+     */
+    private CustomerBulkResult bulkResult(int affected) {
+        if (affected > 0) {
+            eventPublisher.publishEvent(CustomerEvent.resync());
+        }
+        return new CustomerBulkResult(affected);
+    }
+
+    private static boolean hasIds(int[] ids, Integer minAge, Integer maxAge) {
+        boolean byIds = ids != null;
+        boolean byAge = minAge != null || maxAge != null;
+        if (byIds == byAge) {
+            throw new RequestValidationException("specify either ids or an age range");
+        }
+        if (byAge && (minAge == null || maxAge == null || minAge > maxAge)) {
+            throw new RequestValidationException("age range requires minAge <= maxAge");
+        }
+        return byIds;
+    }
+
+    /**
+     * Another node may register the same email between the existence check and
+     * the write; the unique index then rejects the write. JdbcTemplate reports
+     * that as a {@link DuplicateKeyException}, JPA only as a
+     * {@link DataIntegrityViolationException} wrapping the driver's error.
+     */
+    private static void rejectingDuplicateEmail(Runnable write) {
+        try {
+            write.run();
+        } catch (DataIntegrityViolationException e) {
+            if (!isUniqueViolation(e)) {
+                throw e;
+            }
+            throw new DuplicateResourceException("email already taken");
+        }
+    }
+
+    static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int[] chunk(int[] ids, int from) {
+        return Arrays.copyOfRange(ids, from, Math.min(ids.length, from + bulkChunkSize));
     }
 }
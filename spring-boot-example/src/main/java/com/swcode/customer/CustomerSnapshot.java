@@ -0,0 +1,125 @@
+package com.swcode.customer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact binary snapshot of the hot customer set:
+ * <pre>
+ * int magic, int version, long createdAtMillis, int count,
+ * count * (int id, int age, int nameLength, byte[] name, int emailLength, byte[] email)
+ * </pre>
+ * Strings are UTF-8. Files are written to a temporary sibling and moved into
+ * place, and read back through a memory mapping.
+ */
+public final class CustomerSnapshot {
+
+    private static final int MAGIC = 0x43555354;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int MIN_RECORD_BYTES = 4 + 4 + 4 + 4;
+
+    public record Contents(Instant createdAt, List<CustomerView> customers) {
+    }
+
+    private CustomerSnapshot() {
+    }
+
+    public static void write(Path file, Collection<CustomerView> customers) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileChannel channel = FileChannel.open(
+                tmp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(System.currentTimeMillis())
+                    .putInt(customers.size());
+            for (CustomerView customer : customers) {
+                byte[] name = customer.name().getBytes(StandardCharsets.UTF_8);
+                byte[] email = customer.email().getBytes(StandardCharsets.UTF_8);
+                int size = 4 + 4 + 4 + name.length + 4 + email.length;
+                if (buffer.remaining() < size) {
+                    flush(buffer, channel);
+                }
+                if (buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocateDirect(size);
+                }
+                buffer.putInt(customer.id())
+                        .putInt(customer.age())
+                        .putInt(name.length)
+                        .put(name)
+                        .putInt(email.length)
+                        .put(email);
+            }
+            flush(buffer, channel);
+            channel.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("snapshot %s is truncated".formatted(file));
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("%s is not a customer snapshot".formatted(file));
+            }
+            Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+            int count = buffer.getInt();
+            // every count and length is checked against the bytes actually there
+            // before anything is allocated for it
+            if (count < 0 || count > buffer.remaining() / MIN_RECORD_BYTES) {
+                throw new IOException("snapshot %s has an invalid count %d".formatted(file, count));
+            }
+            List<CustomerView> customers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < MIN_RECORD_BYTES) {
+                    throw new IOException("snapshot %s is truncated".formatted(file));
+                }
+                int id = buffer.getInt();
+                int age = buffer.getInt();
+                String name = readString(file, buffer);
+                String email = readString(file, buffer);
+                customers.add(new CustomerView(id, name, email, age));
+            }
+            return new Contents(createdAt, customers);
+        }
+    }
+
+    private static String readString(Path file, ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining() < 4 ? -1 : buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("snapshot %s is truncated".formatted(file));
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,6 @@
+package com.swcode.customer;
+
+import java.util.Map;
+
+public record CustomerStats(long total, Map<Integer, Long> ageHistogram, Map<String, Long> emailDomains) {
+}
@@ -0,0 +1,145 @@
+package com.swcode.customer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads customer statistics from the summary tables maintained by the
+ * {@code customer_stats_*} triggers (V4 migration), so the cost does not grow
+ * with the customer table. Each group is striped over several counter rows
+ * (V8 migration) so concurrent writers rarely contend, and is read as the sum
+ * of its stripes. A periodic job recomputes the summaries from the table,
+ * corrects any drift and folds the stripes of corrected groups back into one
+ * row.
+ */
+@Service
+public class CustomerStatsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerStatsService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reconcileTransaction;
+    private final int topDomains;
+    private final Counter corrections;
+
+    public CustomerStatsService(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${customer.stats.top-domains}") int topDomains) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reconcileTransaction = new TransactionTemplate(transactionManager);
+        this.reconcileTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.topDomains = topDomains;
+        this.corrections = Counter.builder("customer.stats.corrections")
+                .description("summary rows corrected by reconciliation")
+                .register(meterRegistry);
+    }
+
+    public CustomerStats getStats() {
+        var ageSql = """
+                SELECT age, sum(customers)
+                FROM customer_age_stats
+                GROUP BY age
+                HAVING sum(customers) > 0
+                ORDER BY age
+                """;
+        var domainSql = """
+                SELECT domain, sum(customers) AS customers
+                FROM customer_email_domain_stats
+                GROUP BY domain
+                HAVING sum(customers) > 0
+                ORDER BY customers DESC, domain
+                LIMIT ?
+                """;
+        Map<Integer, Long> ages = new TreeMap<>();
+        jdbcTemplate.query(ageSql, rs -> {
+            ages.put(rs.getInt(1), rs.getLong(2));
+        });
+        Map<String, Long> domains = new LinkedHashMap<>();
+        jdbcTemplate.query(domainSql, rs -> {
+            domains.put(rs.getString(1), rs.getLong(2));
+        }, topDomains);
+        long total = ages.values().stream().mapToLong(Long::longValue).sum();
+        return new CustomerStats(total, ages, domains);
+    }
+
+    /**
+     * Runs under repeatable read, so a summary row changed by a concurrent
+     * customer write after the recount started fails the run instead of being
+     * overwritten with a stale count; the next run picks it up.
+     */
+    @Scheduled(fixedDelayString = "${customer.stats.reconcile-interval}")
+    public void reconcile() {
+        try {
+            Integer corrected = reconcileTransaction.execute(status -> reconcileAges() + reconcileDomains());
+            if (corrected != null && corrected > 0) {
+                LOGGER.warn("Corrected {} drifted customer stats rows", corrected);
+                corrections.increment(corrected);
+            }
+        } catch (ConcurrencyFailureException e) {
+            LOGGER.debug("Customer stats reconciliation raced with a write, retrying next run", e);
+        }
+    }
+
+    private int reconcileAges() {
+        var sql = """
+                WITH actual AS (
+                    SELECT age, count(*) AS customers FROM customer GROUP BY age
+                ), stored AS (
+                    SELECT age, sum(customers) AS customers FROM customer_age_stats GROUP BY age
+                ), expected AS (
+                    SELECT coalesce(a.age, s.age) AS age, coalesce(a.customers, 0) AS customers
+                    FROM actual a
+                    FULL JOIN stored s ON s.age = a.age
+                    WHERE s.customers IS DISTINCT FROM coalesce(a.customers, 0)
+                    ORDER BY 1
+                ), folded AS (
+                    DELETE FROM customer_age_stats s
+                    USING expected e
+                    WHERE s.age = e.age AND s.stripe <> 0
+                )
+                INSERT INTO customer_age_stats AS s(age, stripe, customers)
+                SELECT age, 0, customers FROM expected
+                ON CONFLICT (age, stripe) DO UPDATE SET customers = EXCLUDED.customers
+                """;
+        return jdbcTemplate.update(sql);
+    }
+
+    private int reconcileDomains() {
+        var sql = """
+                WITH actual AS (
+                    SELECT customer_email_domain(email) AS domain, count(*) AS customers FROM customer GROUP BY 1
+                ), stored AS (
+                    SELECT domain, sum(customers) AS customers FROM customer_email_domain_stats GROUP BY domain
+                ), expected AS (
+                    SELECT coalesce(a.domain, s.domain) AS domain, coalesce(a.customers, 0) AS customers
+                    FROM actual a
+                    FULL JOIN stored s ON s.domain = a.domain
+                    WHERE s.customers IS DISTINCT FROM coalesce(a.customers, 0)
+                    ORDER BY 1
+                ), folded AS (
+                    DELETE FROM customer_email_domain_stats s
+                    USING expected e
+                    WHERE s.domain = e.domain AND s.stripe <> 0
+                )
+                INSERT INTO customer_email_domain_stats AS s(domain, stripe, customers)
+                SELECT domain, 0, customers FROM expected
+                ON CONFLICT (domain, stripe) DO UPDATE SET customers = EXCLUDED.customers
+                """;
+        return jdbcTemplate.update(sql);
+    }
+}
@@ -5,4 +5,9 @@ public record CustomerUpdateRequest(
         String email,
         Integer age
 ) {
+    public CustomerUpdateRequest {
+        CustomerFields.checkName(name);
+        CustomerFields.checkEmail(email);
+        CustomerFields.checkAge(age);
+    }
 }
@@ -0,0 +1,21 @@
+package com.swcode.customer;
+
+/**
+ * Immutable read model for customer rows. Uses primitive fields so read-only
+ * endpoints don't pay for boxing or for the mutable JPA {@link Customer} entity.
+ */
+public record CustomerView(
+        int id,
+        String name,
+        String email,
+        int age
+) {
+    public static CustomerView from(Customer customer) {
+        return new CustomerView(
+                customer.getId(),
+                customer.getName(),
+                customer.getEmail(),
+                customer.getAge()
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package com.swcode.customer;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class CustomerViewResultSetExtractor implements ResultSetExtractor<List<CustomerView>> {
+    @Override
+    public List<CustomerView> extractData(ResultSet rs) throws SQLException {
+        CustomerColumns columns = CustomerColumns.of(rs);
+        List<CustomerView> views = new ArrayList<>();
+        while (rs.next()) {
+            views.add(columns.mapRow(rs));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,45 @@
+package com.swcode.customer;
+
+import com.swcode.exception.DuplicateResourceException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emails currently being registered or assigned on this node. A second attempt
+ * for an address that is still in flight is rejected before it reaches the
+ * database, so a signup storm for one address costs one existence check and
+ * one insert rather than one per request. The unique index on the normalised
+ * email stays the authority across nodes.
+ */
+@Component
+public class EmailReservations {
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param email a normalised email, see {@link #normalize(String)}
+     */
+    public Reservation reserve(String email) {
+        if (!inFlight.add(email)) {
+            throw new DuplicateResourceException("email already taken");
+        }
+        return () -> inFlight.remove(email);
+    }
+
+    int size() {
+        return inFlight.size();
+    }
+
+    public interface Reservation extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,238 @@
+package com.swcode.customer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Immutable columnar customer table kept entirely outside the Java heap.
+ * <p>
+ * Layout, all in direct buffers: {@code id} and {@code age} as int columns,
+ * {@code name} and {@code email} as UTF-8 byte regions addressed through int
+ * offset columns ({@code rows + 1} entries each), and two open-addressing hash
+ * indexes (by id and by email) holding {@code row + 1}, with {@code 0} marking
+ * an empty slot. The heap only holds a handful of buffer headers, whatever the
+ * row count. Each string region is limited to 2 GiB.
+ */
+final class OffHeapCustomerTable {
+
+    private final int rows;
+    private final ByteBuffer ids;
+    private final ByteBuffer ages;
+    private final ByteBuffer nameOffsets;
+    private final ByteBuffer names;
+    private final ByteBuffer emailOffsets;
+    private final ByteBuffer emails;
+    private final ByteBuffer idIndex;
+    private final ByteBuffer emailIndex;
+    private final int indexMask;
+
+    private OffHeapCustomerTable(int rows,
+                                 ByteBuffer ids,
+                                 ByteBuffer ages,
+                                 ByteBuffer nameOffsets,
+                                 ByteBuffer names,
+                                 ByteBuffer emailOffsets,
+                                 ByteBuffer emails) {
+        this.rows = rows;
+        this.ids = ids;
+        this.ages = ages;
+        this.nameOffsets = nameOffsets;
+        this.names = names;
+        this.emailOffsets = emailOffsets;
+        this.emails = emails;
+
+        int slots = Integer.highestOneBit(Math.max(2, rows) * 2 - 1) << 1;
+        this.indexMask = slots - 1;
+        this.idIndex = ByteBuffer.allocateDirect(slots * Integer.BYTES);
+        this.emailIndex = ByteBuffer.allocateDirect(slots * Integer.BYTES);
+        for (int row = 0; row < rows; row++) {
+            insert(idIndex, mix(id(row)), row);
+            insert(emailIndex, emailHash(row), row);
+        }
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    long offHeapBytes() {
+        return (long) ids.capacity() + ages.capacity()
+                + nameOffsets.capacity() + names.capacity()
+                + emailOffsets.capacity() + emails.capacity()
+                + idIndex.capacity() + emailIndex.capacity();
+    }
+
+    /**
+     * @return the row holding {@code id}, or {@code -1}
+     */
+    int findById(int id) {
+        int slot = mix(id) & indexMask;
+        while (true) {
+            int entry = idIndex.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if (id(entry - 1) == id) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & indexMask;
+        }
+    }
+
+    /**
+     * @return the row holding {@code email}, or {@code -1}
+     */
+    int findByEmail(String email) {
+        byte[] bytes = email.getBytes(StandardCharsets.UTF_8);
+        int slot = mix(hash(bytes)) & indexMask;
+        while (true) {
+            int entry = emailIndex.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return -1;
+            }
+            if (emailEquals(entry - 1, bytes)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & indexMask;
+        }
+    }
+
+    int id(int row) {
+        return ids.getInt(row * Integer.BYTES);
+    }
+
+    int age(int row) {
+        return ages.getInt(row * Integer.BYTES);
+    }
+
+    String name(int row) {
+        return string(nameOffsets, names, row);
+    }
+
+    String email(int row) {
+        return string(emailOffsets, emails, row);
+    }
+
+    CustomerView view(int row) {
+        return new CustomerView(id(row), name(row), email(row), age(row));
+    }
+
+    private void insert(ByteBuffer index, int hash, int row) {
+        int slot = hash & indexMask;
+        while (index.getInt(slot * Integer.BYTES) != 0) {
+            slot = (slot + 1) & indexMask;
+        }
+        index.putInt(slot * Integer.BYTES, row + 1);
+    }
+
+    private int emailHash(int row) {
+        int from = emailOffsets.getInt(row * Integer.BYTES);
+        int to = emailOffsets.getInt((row + 1) * Integer.BYTES);
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + emails.get(i);
+        }
+        return mix(h);
+    }
+
+    private boolean emailEquals(int row, byte[] bytes) {
+        int from = emailOffsets.getInt(row * Integer.BYTES);
+        int to = emailOffsets.getInt((row + 1) * Integer.BYTES);
+        if (to - from != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (emails.get(from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String string(ByteBuffer offsets, ByteBuffer region, int row) {
+        int from = offsets.getInt(row * Integer.BYTES);
+        int to = offsets.getInt((row + 1) * Integer.BYTES);
+        byte[] bytes = new byte[to - from];
+        region.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = 1;
+        for (byte b : bytes) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static final class Builder {
+
+        private int rows;
+        private ByteBuffer ids = ByteBuffer.allocateDirect(1024 * Integer.BYTES);
+        private ByteBuffer ages = ByteBuffer.allocateDirect(1024 * Integer.BYTES);
+        private ByteBuffer nameOffsets = ByteBuffer.allocateDirect(1025 * Integer.BYTES).putInt(0);
+        private ByteBuffer names = ByteBuffer.allocateDirect(16 * 1024);
+        private ByteBuffer emailOffsets = ByteBuffer.allocateDirect(1025 * Integer.BYTES).putInt(0);
+        private ByteBuffer emails = ByteBuffer.allocateDirect(32 * 1024);
+
+        Builder add(int id, String name, String email, int age) {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            byte[] emailBytes = email.getBytes(StandardCharsets.UTF_8);
+
+            ids = ensure(ids, Integer.BYTES).putInt(id);
+            ages = ensure(ages, Integer.BYTES).putInt(age);
+            names = ensure(names, nameBytes.length).put(nameBytes);
+            nameOffsets = ensure(nameOffsets, Integer.BYTES).putInt(names.position());
+            emails = ensure(emails, emailBytes.length).put(emailBytes);
+            emailOffsets = ensure(emailOffsets, Integer.BYTES).putInt(emails.position());
+            rows++;
+            return this;
+        }
+
+        OffHeapCustomerTable build() {
+            return new OffHeapCustomerTable(
+                    rows,
+                    trim(ids),
+                    trim(ages),
+                    trim(nameOffsets),
+                    trim(names),
+                    trim(emailOffsets),
+                    trim(emails)
+            );
+        }
+
+        private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+            if (buffer.remaining() >= bytes) {
+                return buffer;
+            }
+            long required = (long) buffer.position() + bytes;
+            long capacity = Math.max(required, (long) buffer.capacity() * 2);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                if (required > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("off-heap customer column exceeds 2 GiB");
+                }
+                capacity = Integer.MAX_VALUE - 8;
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+            buffer.flip();
+            grown.put(buffer);
+            return grown;
+        }
+
+        private static ByteBuffer trim(ByteBuffer buffer) {
+            ByteBuffer trimmed = ByteBuffer.allocateDirect(buffer.position());
+            buffer.flip();
+            trimmed.put(buffer);
+            return trimmed;
+        }
+    }
+}
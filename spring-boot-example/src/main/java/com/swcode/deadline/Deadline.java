@@ -0,0 +1,118 @@
+package com.swcode.deadline;
+
+import com.swcode.exception.DeadlineExceededException;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which the work for a request must be done. The deadline of
+ * the current request is bound to the thread handling it and has to be carried
+ * over explicitly (see {@link #wrap(Supplier)}) when work moves to another
+ * thread. Cancelling a deadline cancels the statement currently running on its
+ * behalf.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+    private final AtomicReference<Statement> statement = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Fails fast if the current thread's deadline has already passed; a no-op
+     * outside a request.
+     */
+    public static void checkCurrent() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+        return () -> {
+            try (Scope ignored = attach()) {
+                check();
+                return task.get();
+            }
+        };
+    }
+
+    public Duration remaining() {
+        return cancelled ? Duration.ZERO : Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    public void check() {
+        if (isExpired()) {
+            throw new DeadlineExceededException(cancelled ? "request was cancelled" : "request deadline exceeded");
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        cancelQuietly(statement.get());
+    }
+
+    /**
+     * Records the statement about to run for this deadline so {@link #cancel()}
+     * can interrupt it. Requests run their statements one at a time, so only the
+     * latest one is kept.
+     */
+    void running(Statement current) {
+        statement.set(current);
+        if (cancelled) {
+            cancelQuietly(current);
+        }
+    }
+
+    private static void cancelQuietly(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.cancel();
+        } catch (SQLException ignored) {
+            // already closed or the connection is gone, nothing left to cancel
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,122 @@
+package com.swcode.deadline;
+
+import com.swcode.exception.RequestValidationException;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Gives every API request a {@link Deadline}: the client's
+ * {@value #REQUEST_TIMEOUT_HEADER} (capped at {@code deadline.max-timeout}),
+ * otherwise the handler's {@link RequestDeadline}, otherwise
+ * {@code deadline.default-timeout}. Async requests that fail or time out,
+ * which includes clients that went away, cancel their deadline.
+ */
+@Component
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private static final String SCOPE_ATTRIBUTE = DeadlineInterceptor.class.getName() + ".scope";
+
+    private final Environment environment;
+    private final Duration defaultTimeout;
+    private final Duration maxTimeout;
+
+    public DeadlineInterceptor(Environment environment,
+                               @Value("${deadline.default-timeout}") Duration defaultTimeout,
+                               @Value("${deadline.max-timeout}") Duration maxTimeout) {
+        this.environment = environment;
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Deadline deadline = Deadline.after(timeout(request, handler));
+        request.setAttribute(SCOPE_ATTRIBUTE, deadline.attach());
+        request.setAttribute(Deadline.class.getName(), deadline);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Deadline deadline = (Deadline) request.getAttribute(Deadline.class.getName());
+        if (deadline != null && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    deadline.cancel();
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    deadline.cancel();
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        }
+        detach(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        detach(request);
+    }
+
+    Duration timeout(HttpServletRequest request, Object handler) {
+        String header = request.getHeader(REQUEST_TIMEOUT_HEADER);
+        if (header != null) {
+            Duration requested = parse(header);
+            if (requested.isNegative() || requested.isZero()) {
+                throw new RequestValidationException(REQUEST_TIMEOUT_HEADER + " must be positive");
+            }
+            return requested.compareTo(maxTimeout) > 0 ? maxTimeout : requested;
+        }
+        if (handler instanceof HandlerMethod method) {
+            RequestDeadline annotation = method.getMethodAnnotation(RequestDeadline.class);
+            if (annotation != null) {
+                return DurationStyle.detectAndParse(environment.resolvePlaceholders(annotation.value()));
+            }
+        }
+        return defaultTimeout;
+    }
+
+    private static Duration parse(String header) {
+        try {
+            return DurationStyle.detectAndParse(header.trim(), ChronoUnit.MILLIS);
+        } catch (IllegalArgumentException e) {
+            throw new RequestValidationException(
+                    "%s must be a duration such as 500ms or 2s".formatted(REQUEST_TIMEOUT_HEADER));
+        }
+    }
+
+    private static void detach(HttpServletRequest request) {
+        Object scope = request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            ((Deadline.Scope) scope).close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.swcode.deadline;
+
+import org.postgresql.jdbc.PgStatement;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * {@link JdbcTemplate} that bounds each statement by the current
+ * {@link Deadline}: the remaining time becomes the statement's query timeout
+ * (in milliseconds on PostgreSQL, rounded up to seconds elsewhere) and the
+ * statement is registered so a cancelled deadline cancels it on the server.
+ */
+public class DeadlineJdbcTemplate extends JdbcTemplate {
+
+    private static final String QUERY_CANCELED = "57014";
+
+    public DeadlineJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        Optional<Deadline> current = Deadline.current();
+        if (current.isEmpty()) {
+            return;
+        }
+        Deadline deadline = current.get();
+        deadline.check();
+        long remainingMillis = Math.max(1, deadline.remaining().toMillis());
+        if (stmt.isWrapperFor(PgStatement.class)) {
+            stmt.unwrap(PgStatement.class).setQueryTimeoutMs(remainingMillis);
+        } else {
+            stmt.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000));
+        }
+        deadline.running(stmt);
+    }
+
+    @Override
+    protected DataAccessException translateException(String task, String sql, SQLException ex) {
+        // A statement cancelled on behalf of an expired deadline surfaces as the
+        // deadline failure rather than a generic data access error.
+        if (QUERY_CANCELED.equals(ex.getSQLState())) {
+            Deadline.current().ifPresent(Deadline::check);
+        }
+        return super.translateException(task, sql, ex);
+    }
+}
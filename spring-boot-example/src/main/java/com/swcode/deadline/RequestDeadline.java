@@ -0,0 +1,18 @@
+package com.swcode.deadline;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Default deadline for a handler method, used when the client does not send
+ * {@link DeadlineInterceptor#REQUEST_TIMEOUT_HEADER}. The value is a duration
+ * such as {@code 30s} and may be a property placeholder.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestDeadline {
+
+    String value();
+}
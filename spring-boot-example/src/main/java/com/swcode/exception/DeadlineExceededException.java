@@ -0,0 +1,12 @@
+package com.swcode.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(code = HttpStatus.GATEWAY_TIMEOUT)
+public class DeadlineExceededException extends RuntimeException{
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.swcode.exception;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Request records validate their fields in their constructors, so a bad field
+ * reaches Spring as a {@link HttpMessageNotReadableException} wrapping Jackson's
+ * {@code ValueInstantiationException}. Answers with the validation message
+ * instead of the generic parse error; other unreadable bodies keep Boot's
+ * default error response.
+ */
+@RestControllerAdvice
+public class RequestBodyExceptionHandler {
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public void handleUnreadableBody(HttpMessageNotReadableException e,
+                                     HttpServletResponse response) throws IOException {
+        RequestValidationException validation = validationCause(e);
+        if (validation != null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), validation.getMessage());
+        } else {
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+        }
+    }
+
+    private static RequestValidationException validationCause(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestValidationException validation) {
+                return validation;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,197 @@
+package com.swcode.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.swcode.exception.DuplicateResourceException;
+import com.swcode.exception.RequestValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Deduplicates retried mutations that carry an {@code Idempotency-Key} header.
+ * Keys are scoped to the client that sent them, so two clients picking the same
+ * key never see each other's responses. Completed keys are remembered in a
+ * bounded in-memory cache (a retry on the same node is a single lookup) and in
+ * the {@code idempotent_request} table, which also arbitrates concurrent
+ * attempts across nodes.
+ * <p>
+ * A claim is a lease: if its attempt has not completed within
+ * {@code idempotency.lease}, e.g. because its node died, a retry takes the key
+ * over instead of getting 409 until the key expires. The lease should outlast
+ * the longest request deadline, since a slow original attempt still runs its
+ * action after losing the lease; it then only fails to record its response.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Cache<ScopedKey, IdempotentResponse> completed;
+
+    public IdempotencyService(JdbcTemplate jdbcTemplate,
+                              @Value("${idempotency.ttl}") Duration ttl,
+                              @Value("${idempotency.lease}") Duration lease,
+                              @Value("${idempotency.max-entries}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public void execute(String client, String idempotencyKey, String operation, Object request, Runnable action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            action.run();
+            return;
+        }
+        ScopedKey key = new ScopedKey(client, idempotencyKey);
+        String requestHash = hash(operation, request);
+
+        IdempotentResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            verifySameRequest(idempotencyKey, cached.requestHash(), requestHash);
+            return;
+        }
+
+        String claimId = UUID.randomUUID().toString();
+        if (!claim(key, requestHash, claimId)) {
+            replayStored(key, requestHash);
+            return;
+        }
+
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            release(key, claimId);
+            throw e;
+        }
+        complete(key, requestHash, claimId, HttpStatus.OK.value());
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval}")
+    public void purgeExpired() {
+        var sql = """
+                DELETE
+                FROM idempotent_request
+                WHERE created_at < ?
+                """;
+        jdbcTemplate.update(sql, Timestamp.from(Instant.now().minus(ttl)));
+    }
+
+    /**
+     * Inserts the claim, or takes over one whose lease ran out without a
+     * response. A claim for a different payload is never taken over, so the
+     * mismatch is still reported by {@link #replayStored}.
+     */
+    private boolean claim(ScopedKey key, String requestHash, String claimId) {
+        var sql = """
+                INSERT INTO idempotent_request(client_id, idempotency_key, request_hash, claim_id)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (client_id, idempotency_key) DO UPDATE
+                SET claim_id = EXCLUDED.claim_id, claimed_at = now()
+                WHERE idempotent_request.response_status IS NULL
+                  AND idempotent_request.request_hash = EXCLUDED.request_hash
+                  AND idempotent_request.claimed_at < now() - make_interval(secs => ?)
+                """;
+        return jdbcTemplate.update(sql, key.client(), key.idempotencyKey(), requestHash, claimId,
+                lease.toMillis() / 1000.0) == 1;
+    }
+
+    private void replayStored(ScopedKey key, String requestHash) {
+        var sql = """
+                SELECT request_hash, response_status
+                FROM idempotent_request
+                WHERE client_id = ? AND idempotency_key = ?
+                """;
+        List<IdempotentResponse> stored = jdbcTemplate.query(
+                sql,
+                (rs, rowNum) -> new IdempotentResponse(
+                        rs.getString("request_hash"),
+                        rs.getInt("response_status")
+                ),
+                key.client(),
+                key.idempotencyKey()
+        );
+        if (stored.isEmpty()) {
+            // the original attempt failed and released its claim in the meantime
+            throw new DuplicateResourceException(
+                    "request with idempotency key [%s] is being retried concurrently".formatted(key.idempotencyKey())
+            );
+        }
+        IdempotentResponse response = stored.get(0);
+        verifySameRequest(key.idempotencyKey(), response.requestHash(), requestHash);
+        if (response.status() == 0) {
+            throw new DuplicateResourceException(
+                    "request with idempotency key [%s] is still in progress".formatted(key.idempotencyKey())
+            );
+        }
+        completed.put(key, response);
+    }
+
+    private void complete(ScopedKey key, String requestHash, String claimId, int status) {
+        var sql = """
+                UPDATE idempotent_request
+                SET response_status = ?
+                WHERE client_id = ? AND idempotency_key = ? AND claim_id = ?
+                """;
+        if (jdbcTemplate.update(sql, status, key.client(), key.idempotencyKey(), claimId) == 0) {
+            LOGGER.warn("idempotency key [{}] was taken over before its first attempt completed",
+                    key.idempotencyKey());
+        }
+        completed.put(key, new IdempotentResponse(requestHash, status));
+    }
+
+    private void release(ScopedKey key, String claimId) {
+        var sql = """
+                DELETE
+                FROM idempotent_request
+                WHERE client_id = ? AND idempotency_key = ? AND claim_id = ?
+                """;
+        jdbcTemplate.update(sql, key.client(), key.idempotencyKey(), claimId);
+    }
+
+    private static void verifySameRequest(String idempotencyKey, String expectedHash, String actualHash) {
+        if (!expectedHash.equals(actualHash)) {
+            throw new RequestValidationException(
+                    "idempotency key [%s] was already used for a different request".formatted(idempotencyKey)
+            );
+        }
+    }
+
+    static String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record ScopedKey(String client, String idempotencyKey) {
+    }
+}
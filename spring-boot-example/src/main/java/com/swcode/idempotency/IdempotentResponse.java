@@ -0,0 +1,7 @@
+package com.swcode.idempotency;
+
+record IdempotentResponse(
+        String requestHash,
+        int status
+) {
+}
@@ -0,0 +1,54 @@
+package com.swcode.telemetry;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The {@code set*} calls made on a prepared statement, kept so that a slow
+ * statement can be re-run under {@code EXPLAIN}. Values are never logged or
+ * exported; only {@link #count()} is.
+ */
+final class BindParameters {
+
+    private record Call(Method method, Object[] args) {
+    }
+
+    private final Map<Integer, Call> calls = new TreeMap<>();
+
+    void record(Method method, Object[] args) {
+        calls.put((Integer) args[0], new Call(method, args.clone()));
+    }
+
+    int count() {
+        return calls.size();
+    }
+
+    BindParameters copy() {
+        BindParameters copy = new BindParameters();
+        copy.calls.putAll(calls);
+        return copy;
+    }
+
+    void clear() {
+        calls.clear();
+    }
+
+    void applyTo(PreparedStatement statement) throws SQLException {
+        for (Call call : calls.values()) {
+            try {
+                call.method().invoke(statement, call.args());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
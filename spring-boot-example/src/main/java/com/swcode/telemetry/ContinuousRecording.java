@@ -0,0 +1,120 @@
+package com.swcode.telemetry;
+
+import com.swcode.customer.CustomerDaoEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Always-on flight recording with the JDK's low-overhead {@code default}
+ * settings (or {@code telemetry.jfr.settings}), kept on disk for
+ * {@code telemetry.jfr.max-age}. {@link CustomerDaoEvent}s are recorded when
+ * the call takes at least {@code telemetry.jfr.dao-threshold}. Events that
+ * capture environment variables, system properties, JVM arguments or other
+ * processes' command lines are turned off, since those carry credentials.
+ */
+@Component
+public class ContinuousRecording implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContinuousRecording.class);
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess"
+    );
+
+    private final boolean enabled;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSize;
+    private final Duration daoThreshold;
+    private volatile Recording recording;
+
+    public ContinuousRecording(@Value("${telemetry.jfr.enabled}") boolean enabled,
+                               @Value("${telemetry.jfr.settings}") String settings,
+                               @Value("${telemetry.jfr.max-age}") Duration maxAge,
+                               @Value("${telemetry.jfr.max-size-mb}") long maxSizeMb,
+                               @Value("${telemetry.jfr.dao-threshold}") Duration daoThreshold) {
+        this.enabled = enabled;
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSizeMb * 1024 * 1024;
+        this.daoThreshold = daoThreshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException, ParseException {
+        if (!enabled || !FlightRecorder.isAvailable()) {
+            return;
+        }
+        Map<String, String> recordingSettings = new HashMap<>(Configuration.getConfiguration(settings).getSettings());
+        SENSITIVE_EVENTS.forEach(event -> recordingSettings.put(event + "#enabled", "false"));
+        Recording started = new Recording(recordingSettings);
+        started.setName("continuous");
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize);
+        started.enable(CustomerDaoEvent.NAME).withThreshold(daoThreshold);
+        started.start();
+        recording = started;
+        LOGGER.info("Started continuous flight recording ({} settings, max age {})", settings, maxAge);
+    }
+
+    public Optional<Recording> recording() {
+        return Optional.ofNullable(recording);
+    }
+
+    /**
+     * Copies the chunks covering {@code since} until now into a temporary
+     * file. Chunks are the unit of retention, so the file can start a little
+     * before {@code since}. A running recording cannot be read, so this goes
+     * through a stopped copy, which also flushes the current chunk.
+     */
+    public Optional<Path> dump(Instant since) {
+        Recording current = recording;
+        if (current == null) {
+            return Optional.empty();
+        }
+        try (Recording copy = current.copy(true);
+             InputStream stream = copy.getStream(since, Instant.now())) {
+            if (stream == null) {
+                return Optional.empty();
+            }
+            Path file = Files.createTempFile("customer-", ".jfr");
+            Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+            return Optional.of(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not copy flight recording", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        Recording current = recording;
+        recording = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+}
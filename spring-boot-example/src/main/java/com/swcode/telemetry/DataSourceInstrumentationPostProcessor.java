@@ -0,0 +1,36 @@
+package com.swcode.telemetry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps every {@link DataSource} bean with {@link JdbcProxies} unless
+ * {@code telemetry.sql.enabled} is false. {@link SqlTelemetry} is looked up on
+ * the first connection rather than injected, so this post-processor does not
+ * pull it (and its dependencies) into early initialization.
+ */
+@Component
+public class DataSourceInstrumentationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SqlTelemetry> sqlTelemetry;
+    private final boolean enabled;
+
+    public DataSourceInstrumentationPostProcessor(ObjectProvider<SqlTelemetry> sqlTelemetry,
+                                                  Environment environment) {
+        this.sqlTelemetry = sqlTelemetry;
+        this.enabled = environment.getProperty("telemetry.sql.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || Proxy.isProxyClass(bean.getClass())) {
+            return bean;
+        }
+        return JdbcProxies.dataSource(dataSource, sqlTelemetry::getObject);
+    }
+}
@@ -0,0 +1,141 @@
+package com.swcode.telemetry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code /actuator/jfr}: a summary of the continuous recording's last
+ * {@code minutes} (hot methods, allocation, contention, customer DAO calls),
+ * and {@code /actuator/jfr/recording} to download the same window as a
+ * {@code .jfr} file for JDK Mission Control or {@code jfr print}. Each call
+ * copies the window to a temporary file first; at most
+ * {@code telemetry.jfr.max-concurrent-dumps} copies exist at a time, further
+ * calls get 429. Not exposed by default.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final String RECORDING = "recording";
+
+    private final ContinuousRecording continuousRecording;
+    private final Duration defaultWindow;
+    private final int summaryLimit;
+    private final Semaphore dumps;
+
+    public FlightRecordingEndpoint(ContinuousRecording continuousRecording,
+                                   @Value("${telemetry.jfr.default-window}") Duration defaultWindow,
+                                   @Value("${telemetry.jfr.summary-limit}") int summaryLimit,
+                                   @Value("${telemetry.jfr.max-concurrent-dumps}") int maxConcurrentDumps) {
+        this.continuousRecording = continuousRecording;
+        this.defaultWindow = defaultWindow;
+        this.summaryLimit = summaryLimit;
+        this.dumps = new Semaphore(maxConcurrentDumps);
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<RecordingSummary> summary(@Nullable Integer minutes) {
+        if (!dumps.tryAcquire()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            Instant since = since(minutes);
+            Optional<Path> dump = continuousRecording.dump(since);
+            if (dump.isEmpty()) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            try {
+                return new WebEndpointResponse<>(RecordingSummary.of(dump.get(), since, summaryLimit));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read flight recording", e);
+            } finally {
+                delete(dump.get());
+            }
+        } finally {
+            dumps.release();
+        }
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector String name, @Nullable Integer minutes) {
+        if (!RECORDING.equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (!dumps.tryAcquire()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        Optional<Path> dump;
+        try {
+            dump = continuousRecording.dump(since(minutes));
+        } catch (RuntimeException e) {
+            dumps.release();
+            throw e;
+        }
+        if (dump.isEmpty()) {
+            dumps.release();
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            // the file is deleted and the permit returned once the response has been streamed
+            InputStream file = Files.newInputStream(dump.get(), StandardOpenOption.DELETE_ON_CLOSE);
+            return new WebEndpointResponse<>(new InputStreamResource(new ReleasingInputStream(file)));
+        } catch (IOException e) {
+            delete(dump.get());
+            dumps.release();
+            throw new UncheckedIOException("Could not open flight recording", e);
+        }
+    }
+
+    private Instant since(Integer minutes) {
+        Duration window = minutes == null ? defaultWindow : Duration.ofMinutes(minutes);
+        return Instant.now().minus(window);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // left to the temp directory's own cleanup
+        }
+    }
+
+    private class ReleasingInputStream extends FilterInputStream {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        ReleasingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    dumps.release();
+                }
+            }
+        }
+    }
+}
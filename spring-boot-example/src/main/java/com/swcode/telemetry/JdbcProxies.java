@@ -0,0 +1,196 @@
+package com.swcode.telemetry;
+
+import io.micrometer.observation.Observation;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * {@link Proxy} based JDBC wrappers that report to {@link SqlTelemetry}:
+ * connection acquire time, statement execution time (until the driver returns,
+ * i.e. the first rows for a query) and rows, counted as the caller reads them
+ * or taken from the update count. Each execution is also a
+ * {@code jdbc.statement} observation, i.e. a span under the current trace.
+ * Everything else, including {@code unwrap},
+ * goes straight to the driver objects.
+ */
+final class JdbcProxies {
+
+    private JdbcProxies() {
+    }
+
+    static DataSource dataSource(DataSource target, Supplier<SqlTelemetry> telemetry) {
+        return proxy(DataSource.class, target, (proxy, method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            Connection connection = (Connection) invoke(target, method, args);
+            SqlTelemetry sqlTelemetry = telemetry.get();
+            sqlTelemetry.recordAcquire(System.nanoTime() - start);
+            return connection(connection, sqlTelemetry);
+        });
+    }
+
+    private static Connection connection(Connection target, SqlTelemetry telemetry) {
+        Connection[] self = new Connection[1];
+        self[0] = proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, null, self[0], telemetry);
+                case "prepareStatement" -> statement(
+                        PreparedStatement.class, (Statement) result, (String) args[0], self[0], telemetry);
+                case "prepareCall" -> statement(
+                        CallableStatement.class, (Statement) result, (String) args[0], self[0], telemetry);
+                default -> result;
+            };
+        });
+        return self[0];
+    }
+
+    private static <S extends Statement> S statement(Class<S> type,
+                                                     Statement target,
+                                                     String preparedSql,
+                                                     Connection connection,
+                                                     SqlTelemetry telemetry) {
+        if (preparedSql != null && SqlTelemetry.isInternal(preparedSql)) {
+            return type.cast(target);
+        }
+        BindParameters parameters = new BindParameters();
+        boolean captureParameters = telemetry.capturesParameters();
+        return proxy(type, target, new InvocationHandler() {
+            private SqlFingerprint batchFingerprint;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.equals("getConnection")) {
+                    return connection;
+                }
+                if (captureParameters && preparedSql != null && name.startsWith("set")
+                        && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.record(method, args);
+                }
+                if (name.equals("clearParameters")) {
+                    parameters.clear();
+                }
+                if (name.equals("addBatch") && batchFingerprint == null) {
+                    String sql = args != null && args.length == 1 ? (String) args[0] : preparedSql;
+                    batchFingerprint = sql == null ? null : telemetry.fingerprint(sql);
+                }
+                if (!name.startsWith("execute")) {
+                    Object result = JdbcProxies.invoke(target, method, args);
+                    return name.equals("getResultSet") ? resultSet((ResultSet) result, null, telemetry) : result;
+                }
+
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                if (sql == null && name.startsWith("executeBatch")) {
+                    sql = batchFingerprint == null ? null : batchFingerprint.sql();
+                }
+                if (sql == null || SqlTelemetry.isInternal(sql)) {
+                    return JdbcProxies.invoke(target, method, args);
+                }
+                SqlFingerprint fingerprint = telemetry.fingerprint(sql);
+                Observation observation = telemetry.startStatement(fingerprint);
+                long start = System.nanoTime();
+                Object result;
+                try (Observation.Scope ignored = observation.openScope()) {
+                    result = JdbcProxies.invoke(target, method, args);
+                } catch (Throwable e) {
+                    observation.error(e);
+                    throw e;
+                } finally {
+                    observation.stop();
+                }
+                telemetry.recordExecution(fingerprint, sql, System.nanoTime() - start,
+                        captureParameters && preparedSql != null ? parameters.copy() : null,
+                        parameters.count());
+                if (name.startsWith("executeBatch")) {
+                    batchFingerprint = null;
+                }
+                if (result instanceof ResultSet resultSet) {
+                    return resultSet(resultSet, fingerprint, telemetry);
+                }
+                if (result instanceof Integer || result instanceof Long) {
+                    telemetry.recordRows(fingerprint, ((Number) result).longValue());
+                } else if (result instanceof int[] counts) {
+                    telemetry.recordRows(fingerprint, sum(counts));
+                } else if (result instanceof long[] counts) {
+                    telemetry.recordRows(fingerprint, sum(counts));
+                }
+                return result;
+            }
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet target, SqlFingerprint fingerprint, SqlTelemetry telemetry) {
+        if (target == null || fingerprint == null) {
+            return target;
+        }
+        return proxy(ResultSet.class, target, new InvocationHandler() {
+            private long rows;
+            private boolean recorded;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = JdbcProxies.invoke(target, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else if (method.getName().equals("close") && !recorded) {
+                    recorded = true;
+                    telemetry.recordRows(fingerprint, rows);
+                }
+                return result;
+            }
+        });
+    }
+
+    private static long sum(int[] counts) {
+        long sum = 0;
+        for (int count : counts) {
+            sum += Math.max(0, count);
+        }
+        return sum;
+    }
+
+    private static long sum(long[] counts) {
+        long sum = 0;
+        for (long count : counts) {
+            sum += Math.max(0, count);
+        }
+        return sum;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                JdbcProxies.class.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> method.getParameterCount() == 1 && proxy == args[0];
+                    case "hashCode" -> method.getParameterCount() == 0
+                            ? System.identityHashCode(proxy)
+                            : handler.invoke(proxy, method, args);
+                    case "toString" -> method.getParameterCount() == 0
+                            ? "Instrumented[" + target + "]"
+                            : handler.invoke(proxy, method, args);
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
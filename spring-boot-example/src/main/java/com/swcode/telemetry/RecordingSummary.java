@@ -0,0 +1,141 @@
+package com.swcode.telemetry;
+
+import com.swcode.customer.CustomerDaoEvent;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Condenses a flight recording into what is usually looked at first: the
+ * methods on top of the most CPU samples, the classes with the most sampled
+ * allocation, the most contended monitors and the customer DAO calls by
+ * backend and operation. Events before {@code since} are skipped.
+ */
+public record RecordingSummary(Instant since,
+                               long executionSamples,
+                               List<HotMethod> hotMethods,
+                               List<Allocation> allocations,
+                               List<Contention> contention,
+                               List<DaoCalls> daoCalls) {
+
+    public static RecordingSummary of(Path file, Instant since, int limit) throws IOException {
+        Map<String, Long> samples = new HashMap<>();
+        Map<String, Long> allocated = new HashMap<>();
+        Map<String, Contention> monitors = new HashMap<>();
+        Map<String, DaoCalls> calls = new HashMap<>();
+        long executionSamples = 0;
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (event.getStartTime().isBefore(since)) {
+                    continue;
+                }
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        executionSamples++;
+                        String method = topFrame(event.getStackTrace());
+                        if (method != null) {
+                            samples.merge(method, 1L, Long::sum);
+                        }
+                    }
+                    case "jdk.ObjectAllocationSample" ->
+                            allocated.merge(className(event.getClass("objectClass")), event.getLong("weight"), Long::sum);
+                    case "jdk.JavaMonitorEnter" -> {
+                        Contention entered = new Contention(className(event.getClass("monitorClass")), 1, event.getDuration());
+                        monitors.merge(entered.monitorClass(), entered, Contention::plus);
+                    }
+                    case CustomerDaoEvent.NAME -> {
+                        DaoCalls call = DaoCalls.of(event);
+                        calls.merge(call.backend() + " " + call.operation(), call, DaoCalls::plus);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        long total = executionSamples;
+        return new RecordingSummary(
+                since,
+                executionSamples,
+                samples.entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                        .limit(limit)
+                        .map(entry -> new HotMethod(entry.getKey(), entry.getValue(), 100.0 * entry.getValue() / total))
+                        .toList(),
+                allocated.entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                        .limit(limit)
+                        .map(entry -> new Allocation(entry.getKey(), entry.getValue()))
+                        .toList(),
+                monitors.values().stream()
+                        .sorted(Comparator.comparing(Contention::blocked).reversed())
+                        .limit(limit)
+                        .toList(),
+                calls.values().stream()
+                        .sorted(Comparator.comparing(DaoCalls::total).reversed())
+                        .toList()
+        );
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.isJavaFrame()) {
+                RecordedMethod method = frame.getMethod();
+                return method.getType().getName() + "." + method.getName();
+            }
+        }
+        return null;
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass == null ? "unknown" : recordedClass.getName();
+    }
+
+    public record HotMethod(String method, long samples, double percent) {
+    }
+
+    /**
+     * Estimated bytes allocated, from the sampled allocations' weights.
+     */
+    public record Allocation(String objectClass, long bytes) {
+    }
+
+    public record Contention(String monitorClass, long count, Duration blocked) {
+
+        Contention plus(Contention other) {
+            return new Contention(monitorClass, count + other.count, blocked.plus(other.blocked));
+        }
+    }
+
+    /**
+     * Only calls at or above the recording's DAO threshold are counted.
+     */
+    public record DaoCalls(String backend, String operation, long count, long rows, Duration total, Duration max) {
+
+        static DaoCalls of(RecordedEvent event) {
+            Duration duration = event.getDuration();
+            return new DaoCalls(event.getString("backend"), event.getString("operation"), 1,
+                    Math.max(0, event.getLong("rows")), duration, duration);
+        }
+
+        DaoCalls plus(DaoCalls other) {
+            return new DaoCalls(backend, operation, count + other.count, rows + other.rows,
+                    total.plus(other.total), max.compareTo(other.max) >= 0 ? max : other.max);
+        }
+    }
+}
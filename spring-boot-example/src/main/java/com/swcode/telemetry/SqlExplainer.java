@@ -0,0 +1,156 @@
+package com.swcode.telemetry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Captures {@code EXPLAIN (ANALYZE, BUFFERS)} for queries slower than
+ * {@code telemetry.sql.explain.threshold}, at most once per statement per
+ * {@code telemetry.sql.explain.min-interval}, so plan changes show up without
+ * re-running expensive queries constantly. Only read-only queries are
+ * explained (ANALYZE executes the statement), in a read-only transaction that
+ * is rolled back, on a single background thread. Plans are stored masked:
+ * string literals everywhere, and numeric literals and parameter references in
+ * the expression lines ({@code Index Cond}, {@code Filter}, {@code Sort Key},
+ * ...), where PostgreSQL prints bind values inline. Costs, row counts and
+ * timings are kept.
+ */
+@Component
+public class SqlExplainer implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlExplainer.class);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern EXPRESSION_LINE = Pattern.compile(
+            "^(\\s*(?!Rows Removed)(?:[A-Z][A-Za-z-]* )*(?:Cond|Filter|Key|Output|Order By): )(.*)$", Pattern.MULTILINE);
+    private static final Pattern NUMBER_OR_PARAMETER = Pattern.compile(
+            "(?<![\\w.])(?:\\$\\d+|[-+]?\\d+(?:\\.\\d+)?(?:[eE][-+]?\\d+)?)(?![\\w.])");
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final Duration minInterval;
+    private final Duration timeout;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Instant> lastExplained = new ConcurrentHashMap<>();
+    private final Map<String, CapturedPlan> plans = new ConcurrentHashMap<>();
+    private final Counter captured;
+
+    public SqlExplainer(DataSource dataSource,
+                        SqlTelemetry sqlTelemetry,
+                        MeterRegistry meterRegistry,
+                        @Value("${telemetry.sql.explain.enabled}") boolean enabled,
+                        @Value("${telemetry.sql.explain.threshold}") Duration threshold,
+                        @Value("${telemetry.sql.explain.min-interval}") Duration minInterval,
+                        @Value("${telemetry.sql.explain.timeout}") Duration timeout) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.thresholdNanos = threshold.toNanos();
+        this.minInterval = minInterval;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(4), threadFactory());
+        this.captured = Counter.builder("db.statement.explains").register(meterRegistry);
+        if (enabled) {
+            sqlTelemetry.onSlowExecution(this::onSlowExecution);
+        }
+    }
+
+    private static CustomizableThreadFactory threadFactory() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("sql-explain-");
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    public Map<String, CapturedPlan> plans() {
+        return Map.copyOf(plans);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    void onSlowExecution(SqlTelemetry.SlowExecution execution) {
+        SqlFingerprint fingerprint = execution.fingerprint();
+        if (!enabled || execution.nanos() < thresholdNanos || !fingerprint.isQuery()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant previous = lastExplained.get(fingerprint.id());
+        if (previous != null && previous.plus(minInterval).isAfter(now)) {
+            return;
+        }
+        if (previous == null
+                ? lastExplained.putIfAbsent(fingerprint.id(), now) != null
+                : !lastExplained.replace(fingerprint.id(), previous, now)) {
+            return;
+        }
+        try {
+            executor.execute(() -> explain(execution, now));
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Skipping EXPLAIN for [{}], explainer busy", fingerprint.id());
+        }
+    }
+
+    private void explain(SqlTelemetry.SlowExecution execution, Instant capturedAt) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try {
+                StringBuilder plan = new StringBuilder();
+                try (PreparedStatement explain = connection.prepareStatement(
+                        "EXPLAIN (ANALYZE, BUFFERS) " + execution.sql())) {
+                    explain.setQueryTimeout((int) Math.max(1, timeout.toSeconds()));
+                    execution.parameters().applyTo(explain);
+                    try (ResultSet rs = explain.executeQuery()) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(1)).append('\n');
+                        }
+                    }
+                }
+                plans.put(execution.fingerprint().id(), new CapturedPlan(
+                        capturedAt,
+                        execution.fingerprint().sql(),
+                        execution.nanos() / 1e6,
+                        mask(plan.toString())
+                ));
+                captured.increment();
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.warn("EXPLAIN failed for statement [{}]", execution.fingerprint().id(), e);
+        }
+    }
+
+    static String mask(String plan) {
+        String masked = STRING_LITERAL.matcher(plan).replaceAll("'?'");
+        return EXPRESSION_LINE.matcher(masked).replaceAll(line -> Matcher.quoteReplacement(
+                line.group(1) + NUMBER_OR_PARAMETER.matcher(line.group(2)).replaceAll("?")));
+    }
+
+    public record CapturedPlan(Instant at, String sql, double triggeringMillis, String plan) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.swcode.telemetry;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized form of a SQL string: literals become {@code ?}, {@code IN} lists
+ * collapse to one placeholder and whitespace is squeezed, so every execution
+ * of the same statement shares one fingerprint. The text never contains bind
+ * values or literals and is safe to log and export.
+ */
+public record SqlFingerprint(String id, String operation, String sql) {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public static SqlFingerprint of(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = IN_LIST.matcher(normalized).replaceAll("IN (?)");
+        int space = normalized.indexOf(' ');
+        String operation = (space < 0 ? normalized : normalized.substring(0, space)).toLowerCase(Locale.ROOT);
+        return new SqlFingerprint(Integer.toHexString(normalized.hashCode()), operation, normalized);
+    }
+
+    boolean isQuery() {
+        return operation.equals("select") || operation.equals("with");
+    }
+}
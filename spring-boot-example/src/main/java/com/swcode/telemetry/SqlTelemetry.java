@@ -0,0 +1,257 @@
+package com.swcode.telemetry;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Per-statement JDBC metrics, fed by the instrumented {@code DataSource}:
+ * {@code db.statement} (execution time) and {@code db.statement.rows}, both
+ * tagged with the fingerprint id and operation, plus
+ * {@code db.connection.acquire}. Executions over
+ * {@code telemetry.sql.slow-threshold} are sampled into a bounded slow log with
+ * the bind values left out. At most {@code telemetry.sql.max-statements}
+ * fingerprints get meters of their own; executions of any further statements
+ * are recorded under the single {@code statement=other} series, so dynamically
+ * built SQL cannot grow the number of meters and observation tags without
+ * bound.
+ * <p>
+ * The first statements run while the application context is still starting
+ * (Flyway), before any registry exists; meters are therefore created in a
+ * composite that Boot binds to the real registry once it is ready. For the same
+ * reason the {@link ObservationRegistry} behind the {@code jdbc.statement}
+ * spans is only picked up once all singletons exist.
+ */
+@Component
+public class SqlTelemetry implements MeterBinder, SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlTelemetry.class);
+    private static final int MAX_CACHED_FINGERPRINTS = 10_000;
+    static final String OTHER = "other";
+
+    private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+    private final Map<String, SqlFingerprint> fingerprints = new ConcurrentHashMap<>();
+    private final Map<String, StatementMeters> statements = new ConcurrentHashMap<>();
+    private final Deque<SlowStatement> slowLog = new ArrayDeque<>();
+    private final List<Consumer<SlowExecution>> slowListeners = new CopyOnWriteArrayList<>();
+    private final Timer acquire;
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+    private final int slowLogSize;
+    private final int maxStatements;
+    private final StatementMeters other;
+    private final boolean capturesParameters;
+    private ObjectProvider<ObservationRegistry> observationRegistryProvider;
+    private volatile ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    public SqlTelemetry(@Value("${telemetry.sql.slow-threshold}") Duration slowThreshold,
+                        @Value("${telemetry.sql.slow-sample-rate}") double slowSampleRate,
+                        @Value("${telemetry.sql.slow-log-size}") int slowLogSize,
+                        @Value("${telemetry.sql.max-statements}") int maxStatements,
+                        @Value("${telemetry.sql.explain.enabled}") boolean capturesParameters) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowSampleRate = slowSampleRate;
+        this.slowLogSize = slowLogSize;
+        this.maxStatements = maxStatements;
+        this.other = newMeters(new SqlFingerprint(OTHER, OTHER, "(statements beyond telemetry.sql.max-statements)"));
+        this.capturesParameters = capturesParameters;
+        this.acquire = Timer.builder("db.connection.acquire")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        registry.add(meterRegistry);
+    }
+
+    @Autowired
+    void setObservationRegistry(ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+        this.observationRegistryProvider = observationRegistryProvider;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (observationRegistryProvider != null) {
+            useObservationRegistry(observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP));
+        }
+    }
+
+    void useObservationRegistry(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    Observation startStatement(SqlFingerprint fingerprint) {
+        SqlFingerprint tracked = meters(fingerprint).fingerprint();
+        return Observation.createNotStarted("jdbc.statement", observationRegistry)
+                .contextualName(fingerprint.operation() + " " + fingerprint.id())
+                .lowCardinalityKeyValue("statement", tracked.id())
+                .lowCardinalityKeyValue("operation", tracked.operation())
+                .highCardinalityKeyValue("db.statement", fingerprint.sql())
+                .start();
+    }
+
+    /**
+     * Statements issued by the telemetry itself, which are not recorded.
+     */
+    static boolean isInternal(String sql) {
+        return sql.regionMatches(true, 0, "EXPLAIN ", 0, 8);
+    }
+
+    boolean capturesParameters() {
+        return capturesParameters;
+    }
+
+    SqlFingerprint fingerprint(String sql) {
+        SqlFingerprint fingerprint = fingerprints.get(sql);
+        if (fingerprint == null) {
+            fingerprint = SqlFingerprint.of(sql);
+            if (fingerprints.size() < MAX_CACHED_FINGERPRINTS) {
+                fingerprints.put(sql, fingerprint);
+            }
+        }
+        return fingerprint;
+    }
+
+    void recordAcquire(long nanos) {
+        acquire.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordExecution(SqlFingerprint fingerprint, String sql, long nanos,
+                         BindParameters parameters, int parameterCount) {
+        meters(fingerprint).duration().record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos < slowThresholdNanos || ThreadLocalRandom.current().nextDouble() >= slowSampleRate) {
+            return;
+        }
+        SlowStatement slow = new SlowStatement(
+                Instant.now(), fingerprint.id(), fingerprint.sql(), nanos / 1e6, parameterCount);
+        LOGGER.warn("Slow SQL [{}] {} ms: {} ({} bind parameters redacted)",
+                slow.statement(), "%.1f".formatted(slow.millis()), slow.sql(), parameterCount);
+        synchronized (slowLog) {
+            if (slowLog.size() == slowLogSize) {
+                slowLog.removeFirst();
+            }
+            slowLog.addLast(slow);
+        }
+        if (parameters != null) {
+            SlowExecution execution = new SlowExecution(fingerprint, sql, parameters, nanos);
+            slowListeners.forEach(listener -> listener.accept(execution));
+        }
+    }
+
+    void recordRows(SqlFingerprint fingerprint, long rows) {
+        meters(fingerprint).rows().record(rows);
+    }
+
+    /**
+     * Receives slow executions together with their bind parameters; only
+     * called when parameter capture is enabled.
+     */
+    void onSlowExecution(Consumer<SlowExecution> listener) {
+        slowListeners.add(listener);
+    }
+
+    public List<StatementSummary> statements() {
+        return Stream.concat(statements.values().stream(), Stream.of(other))
+                .filter(meters -> meters.duration().count() > 0)
+                .map(StatementMeters::summary)
+                .sorted(Comparator.comparingDouble(StatementSummary::totalMillis).reversed())
+                .toList();
+    }
+
+    public AcquireSummary connectionAcquire() {
+        return new AcquireSummary(
+                acquire.count(),
+                acquire.mean(TimeUnit.MILLISECONDS),
+                acquire.max(TimeUnit.MILLISECONDS)
+        );
+    }
+
+    public List<SlowStatement> slowStatements() {
+        synchronized (slowLog) {
+            return List.copyOf(slowLog);
+        }
+    }
+
+    private StatementMeters meters(SqlFingerprint fingerprint) {
+        StatementMeters meters = statements.get(fingerprint.id());
+        if (meters != null) {
+            return meters;
+        }
+        if (statements.size() >= maxStatements) {
+            return other;
+        }
+        return statements.computeIfAbsent(fingerprint.id(), id -> newMeters(fingerprint));
+    }
+
+    private StatementMeters newMeters(SqlFingerprint fingerprint) {
+        return new StatementMeters(
+                fingerprint,
+                Timer.builder("db.statement")
+                        .tag("statement", fingerprint.id())
+                        .tag("operation", fingerprint.operation().toLowerCase(Locale.ROOT))
+                        .publishPercentileHistogram()
+                        .register(registry),
+                DistributionSummary.builder("db.statement.rows")
+                        .tag("statement", fingerprint.id())
+                        .tag("operation", fingerprint.operation().toLowerCase(Locale.ROOT))
+                        .register(registry)
+        );
+    }
+
+    private record StatementMeters(SqlFingerprint fingerprint, Timer duration, DistributionSummary rows) {
+
+        StatementSummary summary() {
+            return new StatementSummary(
+                    fingerprint.id(),
+                    fingerprint.operation(),
+                    fingerprint.sql(),
+                    duration.count(),
+                    duration.totalTime(TimeUnit.MILLISECONDS),
+                    duration.mean(TimeUnit.MILLISECONDS),
+                    duration.max(TimeUnit.MILLISECONDS),
+                    (long) rows.totalAmount(),
+                    rows.mean()
+            );
+        }
+    }
+
+    public record StatementSummary(String id, String operation, String sql, long count, double totalMillis,
+                                   double meanMillis, double maxMillis, long rows, double meanRows) {
+    }
+
+    public record AcquireSummary(long count, double meanMillis, double maxMillis) {
+    }
+
+    public record SlowStatement(Instant at, String statement, String sql, double millis, int redactedParameters) {
+    }
+
+    record SlowExecution(SqlFingerprint fingerprint, String sql, BindParameters parameters, long nanos) {
+    }
+}
@@ -0,0 +1,42 @@
+package com.swcode.telemetry;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/sqlstats}: statements by total execution time, connection
+ * acquire time, the recent slow statements and the captured plans. The same
+ * numbers are exported as {@code db.statement*} meters for Prometheus.
+ */
+@Component
+@Endpoint(id = "sqlstats")
+public class SqlTelemetryEndpoint {
+
+    private final SqlTelemetry sqlTelemetry;
+    private final SqlExplainer sqlExplainer;
+
+    public SqlTelemetryEndpoint(SqlTelemetry sqlTelemetry, SqlExplainer sqlExplainer) {
+        this.sqlTelemetry = sqlTelemetry;
+        this.sqlExplainer = sqlExplainer;
+    }
+
+    @ReadOperation
+    public SqlStats stats() {
+        return new SqlStats(
+                sqlTelemetry.statements(),
+                sqlTelemetry.connectionAcquire(),
+                sqlTelemetry.slowStatements(),
+                sqlExplainer.plans()
+        );
+    }
+
+    public record SqlStats(List<SqlTelemetry.StatementSummary> statements,
+                           SqlTelemetry.AcquireSummary connectionAcquire,
+                           List<SqlTelemetry.SlowStatement> slowStatements,
+                           Map<String, SqlExplainer.CapturedPlan> plans) {
+    }
+}
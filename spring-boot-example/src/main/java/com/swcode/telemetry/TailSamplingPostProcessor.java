@@ -0,0 +1,39 @@
+package com.swcode.telemetry;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Puts a {@link TailSamplingSpanExporter} in front of every
+ * {@link SpanExporter} bean (the OTLP exporter, or a test's in-memory one)
+ * unless {@code tracing.tail-sampling.enabled} is false.
+ */
+@Component
+public class TailSamplingPostProcessor implements BeanPostProcessor {
+
+    private final Environment environment;
+
+    public TailSamplingPostProcessor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof SpanExporter exporter)
+                || bean instanceof TailSamplingSpanExporter
+                || !environment.getProperty("tracing.tail-sampling.enabled", Boolean.class, true)) {
+            return bean;
+        }
+        return new TailSamplingSpanExporter(
+                exporter,
+                environment.getRequiredProperty("tracing.tail-sampling.latency-threshold", Duration.class),
+                environment.getRequiredProperty("tracing.tail-sampling.baseline-rate", Double.class),
+                environment.getRequiredProperty("tracing.tail-sampling.max-pending-traces", Integer.class),
+                environment.getRequiredProperty("tracing.tail-sampling.max-spans-per-trace", Integer.class)
+        );
+    }
+}
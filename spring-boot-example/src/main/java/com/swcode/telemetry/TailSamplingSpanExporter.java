@@ -0,0 +1,184 @@
+package com.swcode.telemetry;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tail-based sampling in front of a real exporter. Every trace is recorded
+ * (head sampling at 100%); finished spans are held per trace until the local
+ * root span ends, and the whole trace is then exported only if the root took
+ * at least {@code latencyThreshold}, any span failed, or it falls into the
+ * {@code baselineRate} random sample. Spans that end after their root follow
+ * the decision already taken for the trace.
+ * <p>
+ * Memory is bounded by {@code maxPendingTraces}: beyond it the oldest pending
+ * traces are dropped undecided, e.g. long-lived SSE connections whose root
+ * never ends. A single trace holds at most {@code maxSpansPerTrace} spans
+ * (e.g. a bulk request with one span per statement); further child spans are
+ * dropped, though a failure among them still keeps the trace, and an exported
+ * root carries the number dropped in {@code sampling.dropped_spans}.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+    static final AttributeKey<Long> DROPPED_SPANS = AttributeKey.longKey("sampling.dropped_spans");
+
+    private final SpanExporter delegate;
+    private final long latencyThresholdNanos;
+    private final double baselineRate;
+    private final int maxPendingTraces;
+    private final int maxSpansPerTrace;
+    private final Map<String, PendingTrace> pending = new LinkedHashMap<>();
+    private final Map<String, Boolean> decisions;
+    private long droppedSpans;
+
+    public TailSamplingSpanExporter(SpanExporter delegate,
+                                    Duration latencyThreshold,
+                                    double baselineRate,
+                                    int maxPendingTraces,
+                                    int maxSpansPerTrace) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.baselineRate = baselineRate;
+        this.maxPendingTraces = maxPendingTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.decisions = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxPendingTraces;
+            }
+        };
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<SpanData> sampled = new ArrayList<>();
+        synchronized (this) {
+            for (SpanData span : spans) {
+                String traceId = span.getTraceId();
+                Boolean decision = decisions.get(traceId);
+                if (decision != null) {
+                    if (decision) {
+                        sampled.add(span);
+                    }
+                } else if (isLocalRoot(span)) {
+                    PendingTrace trace = pending.remove(traceId);
+                    boolean keep = keep(span, trace);
+                    decisions.put(traceId, keep);
+                    if (keep) {
+                        if (trace == null) {
+                            sampled.add(span);
+                        } else {
+                            sampled.addAll(trace.spans);
+                            sampled.add(trace.dropped == 0 ? span : new DroppedSpansCount(span, trace.dropped));
+                        }
+                    }
+                } else {
+                    pending.computeIfAbsent(traceId, id -> new PendingTrace()).add(span);
+                    evictOverflow();
+                }
+            }
+        }
+        return sampled.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(sampled);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    synchronized int pendingTraces() {
+        return pending.size();
+    }
+
+    synchronized long droppedSpans() {
+        return droppedSpans;
+    }
+
+    private boolean keep(SpanData root, PendingTrace trace) {
+        if (root.getEndEpochNanos() - root.getStartEpochNanos() >= latencyThresholdNanos || failed(root)) {
+            return true;
+        }
+        if (trace != null && trace.failed) {
+            return true;
+        }
+        return ThreadLocalRandom.current().nextDouble() < baselineRate;
+    }
+
+    private void evictOverflow() {
+        Iterator<String> oldest = pending.keySet().iterator();
+        while (pending.size() > maxPendingTraces && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    private static boolean failed(SpanData span) {
+        return span.getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    /**
+     * Spans of a trace whose local root has not ended yet. Guarded by the
+     * exporter's monitor.
+     */
+    private final class PendingTrace {
+
+        private final List<SpanData> spans = new ArrayList<>();
+        private int dropped;
+        private boolean failed;
+
+        void add(SpanData span) {
+            failed |= failed(span);
+            if (spans.size() < maxSpansPerTrace) {
+                spans.add(span);
+            } else {
+                dropped++;
+                droppedSpans++;
+            }
+        }
+    }
+
+    private static final class DroppedSpansCount extends DelegatingSpanData {
+
+        private final Attributes attributes;
+
+        DroppedSpansCount(SpanData root, long dropped) {
+            super(root);
+            this.attributes = root.getAttributes().toBuilder().put(DROPPED_SPANS, dropped).build();
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public int getTotalAttributeCount() {
+            return super.getTotalAttributeCount() + 1;
+        }
+    }
+}
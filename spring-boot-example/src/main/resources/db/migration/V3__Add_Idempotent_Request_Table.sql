@@ -0,0 +1,8 @@
+CREATE TABLE idempotent_request(
+    idempotency_key TEXT PRIMARY KEY,
+    request_hash TEXT NOT NULL,
+    response_status INT,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idempotent_request_created_at_idx ON idempotent_request(created_at);
@@ -0,0 +1,77 @@
+-- Summary tables behind GET /api/v1/customers/stats, kept current by statement
+-- level triggers so a bulk statement costs one upsert per affected group.
+-- The total is the sum of the age histogram, which keeps inserts from all
+-- serialising on a single counter row.
+CREATE TABLE customer_age_stats(
+    age INT PRIMARY KEY,
+    customers BIGINT NOT NULL
+);
+
+CREATE TABLE customer_email_domain_stats(
+    domain TEXT PRIMARY KEY,
+    customers BIGINT NOT NULL
+);
+
+CREATE FUNCTION customer_email_domain(email TEXT) RETURNS TEXT
+    LANGUAGE SQL IMMUTABLE AS $$ SELECT lower(split_part(email, '@', 2)) $$;
+
+-- Adds signed per-group deltas to both summary tables. Groups are upserted in
+-- key order so concurrent statements lock summary rows in the same order and
+-- cannot deadlock each other; zero deltas (e.g. a name-only update) are skipped.
+CREATE FUNCTION customer_stats_add(ages INT[], emails TEXT[], deltas INT[]) RETURNS VOID
+    LANGUAGE SQL AS $$
+    INSERT INTO customer_age_stats AS s(age, customers)
+    SELECT age, sum(delta)
+    FROM unnest(ages, deltas) AS c(age, delta)
+    GROUP BY age HAVING sum(delta) <> 0 ORDER BY age
+    ON CONFLICT (age) DO UPDATE SET customers = s.customers + EXCLUDED.customers;
+
+    INSERT INTO customer_email_domain_stats AS s(domain, customers)
+    SELECT customer_email_domain(email), sum(delta)
+    FROM unnest(emails, deltas) AS c(email, delta)
+    GROUP BY 1 HAVING sum(delta) <> 0 ORDER BY 1
+    ON CONFLICT (domain) DO UPDATE SET customers = s.customers + EXCLUDED.customers;
+$$;
+
+CREATE FUNCTION customer_stats_apply() RETURNS TRIGGER
+    LANGUAGE plpgsql AS $$
+DECLARE
+    ages INT[] := '{}';
+    emails TEXT[] := '{}';
+    deltas INT[] := '{}';
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        SELECT ages || array_agg(age), emails || array_agg(email), deltas || array_agg(-1)
+        INTO ages, emails, deltas
+        FROM old_rows;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        SELECT ages || array_agg(age), emails || array_agg(email), deltas || array_agg(1)
+        INTO ages, emails, deltas
+        FROM new_rows;
+    END IF;
+    PERFORM customer_stats_add(ages, emails, deltas);
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER customer_stats_insert
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_stats_apply();
+
+CREATE TRIGGER customer_stats_update
+    AFTER UPDATE ON customer
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_stats_apply();
+
+CREATE TRIGGER customer_stats_delete
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION customer_stats_apply();
+
+INSERT INTO customer_age_stats(age, customers)
+SELECT age, count(*) FROM customer GROUP BY age;
+
+INSERT INTO customer_email_domain_stats(domain, customers)
+SELECT customer_email_domain(email), count(*) FROM customer GROUP BY 1;
@@ -0,0 +1,10 @@
+-- Email uniqueness is enforced on the normalised address, so addresses that
+-- differ only by case or surrounding whitespace collide. The application looks
+-- emails up by the same expression so this index serves those lookups too.
+--
+-- Built CONCURRENTLY so registrations keep running while it builds, which
+-- means this migration runs outside a transaction. A failed build leaves an
+-- invalid index behind, so it is dropped first when the migration is re-run.
+DROP INDEX CONCURRENTLY IF EXISTS customer_email_normalized_unique;
+
+CREATE UNIQUE INDEX CONCURRENTLY customer_email_normalized_unique ON customer (lower(trim(email)));
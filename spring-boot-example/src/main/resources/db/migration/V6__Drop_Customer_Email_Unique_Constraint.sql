@@ -0,0 +1,5 @@
+-- Superseded by customer_email_normalized_unique (V5). Kept out of V5 because
+-- Flyway does not mix transactional and non-transactional statements in one
+-- migration.
+ALTER TABLE customer
+DROP CONSTRAINT customer_email_unique;
@@ -0,0 +1,14 @@
+-- Keys are chosen by clients, so they are only unique per client. A claim is
+-- leased: claimed_at older than idempotency.lease with no response means the
+-- attempt died with its node and the key can be taken over. claim_id fences
+-- the original attempt out once that happens.
+ALTER TABLE idempotent_request
+ADD COLUMN client_id TEXT NOT NULL DEFAULT '',
+ADD COLUMN claim_id TEXT,
+ADD COLUMN claimed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now();
+
+ALTER TABLE idempotent_request
+DROP CONSTRAINT idempotent_request_pkey;
+
+ALTER TABLE idempotent_request
+ADD PRIMARY KEY (client_id, idempotency_key);
@@ -0,0 +1,34 @@
+-- Spreads each summary group over several counter rows ("stripes"). Every
+-- connection adds its deltas to the stripe picked by its backend pid, so
+-- concurrent writers touching the same age or email domain usually update
+-- different rows instead of queueing on one row lock until commit. Readers
+-- sum the stripes of a group.
+ALTER TABLE customer_age_stats
+    ADD COLUMN stripe SMALLINT NOT NULL DEFAULT 0,
+    DROP CONSTRAINT customer_age_stats_pkey,
+    ADD PRIMARY KEY (age, stripe);
+
+ALTER TABLE customer_email_domain_stats
+    ADD COLUMN stripe SMALLINT NOT NULL DEFAULT 0,
+    DROP CONSTRAINT customer_email_domain_stats_pkey,
+    ADD PRIMARY KEY (domain, stripe);
+
+-- A connection keeps its stripe for the whole transaction, so a transaction
+-- never waits on a counter row it has itself updated in another stripe.
+CREATE FUNCTION customer_stats_stripe() RETURNS SMALLINT
+    LANGUAGE SQL STABLE AS $$ SELECT (pg_backend_pid() % 16)::SMALLINT $$;
+
+CREATE OR REPLACE FUNCTION customer_stats_add(ages INT[], emails TEXT[], deltas INT[]) RETURNS VOID
+    LANGUAGE SQL AS $$
+    INSERT INTO customer_age_stats AS s(age, stripe, customers)
+    SELECT age, customer_stats_stripe(), sum(delta)
+    FROM unnest(ages, deltas) AS c(age, delta)
+    GROUP BY age HAVING sum(delta) <> 0 ORDER BY age
+    ON CONFLICT (age, stripe) DO UPDATE SET customers = s.customers + EXCLUDED.customers;
+
+    INSERT INTO customer_email_domain_stats AS s(domain, stripe, customers)
+    SELECT customer_email_domain(email), customer_stats_stripe(), sum(delta)
+    FROM unnest(emails, deltas) AS c(email, delta)
+    GROUP BY 1 HAVING sum(delta) <> 0 ORDER BY 1
+    ON CONFLICT (domain, stripe) DO UPDATE SET customers = s.customers + EXCLUDED.customers;
+$$;
@@ -1,6 +1,7 @@
 package com.swcode;
 
 import com.github.javafaker.Faker;
+import com.swcode.config.JdbcConfig;
 import org.flywaydb.core.Flyway;
 import org.junit.jupiter.api.BeforeAll;
 import org.springframework.boot.jdbc.DataSourceBuilder;
@@ -21,7 +22,7 @@ public abstract class AbstractTestcontainers {
                 postgreSQLContainer.getJdbcUrl(),
                 postgreSQLContainer.getUsername(),
                 postgreSQLContainer.getPassword()
-        ).load();
+        ).configuration(JdbcConfig.FLYWAY_SESSION_LOCK).load();
         flyway.migrate();
     }
 
@@ -0,0 +1,61 @@
+package com.swcode.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PostgresCacheInvalidationBusTest {
+
+    private final List<CacheInvalidation> delivered = new ArrayList<>();
+    private PostgresCacheInvalidationBus underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new PostgresCacheInvalidationBus(mock(JdbcTemplate.class), "jdbc:postgresql://unused", "u", "p");
+        underTest.subscribe(delivered::add);
+    }
+
+    @Test
+    void deliversIdsFromOtherNodes() {
+        underTest.onNotification("other|1,2,3");
+
+        assertThat(delivered).singleElement()
+                .satisfies(invalidation -> assertThat(invalidation.ids()).containsExactly(1, 2, 3));
+    }
+
+    @Test
+    void ignoresOwnNotifications() {
+        underTest.onNotification(underTest.nodeId() + "|1");
+
+        assertThat(delivered).isEmpty();
+    }
+
+    @Test
+    void malformedPayloadInvalidatesEverything() {
+        underTest.onNotification("other|1,x");
+        underTest.onNotification("no-separator");
+
+        assertThat(delivered).hasSize(2).allMatch(CacheInvalidation::isAll);
+    }
+
+    @Test
+    void failingListenerDoesNotStopOthers() {
+        List<CacheInvalidation> second = new ArrayList<>();
+        PostgresCacheInvalidationBus bus =
+                new PostgresCacheInvalidationBus(mock(JdbcTemplate.class), "jdbc:postgresql://unused", "u", "p");
+        bus.subscribe(invalidation -> {
+            throw new IllegalStateException("boom");
+        });
+        bus.subscribe(second::add);
+
+        bus.onNotification("other|*");
+
+        assertThat(second).singleElement().matches(CacheInvalidation::isAll);
+    }
+}
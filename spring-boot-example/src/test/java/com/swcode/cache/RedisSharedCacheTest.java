@@ -0,0 +1,223 @@
+package com.swcode.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisSharedCacheTest {
+
+    private FakeRedis redis;
+    private RedisSharedCache underTest;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (underTest != null) {
+            underTest.close();
+        }
+        if (redis != null) {
+            redis.close();
+        }
+    }
+
+    @Test
+    void putGetAndEvict() throws IOException {
+        redis = new FakeRedis(true);
+        underTest = new RedisSharedCache("localhost", redis.port(), Duration.ofSeconds(1),
+                2, Duration.ofMillis(100), Duration.ofSeconds(1), 100, Duration.ofMinutes(1));
+
+        underTest.put("customer:1", "{\"id\":1}", Duration.ofMinutes(1));
+
+        assertThat(underTest.get("customer:1")).contains("{\"id\":1}");
+        underTest.evict(List.of("customer:1"));
+        assertThat(underTest.get("customer:1")).isEmpty();
+        assertThat(redis.connections()).isEqualTo(1);
+    }
+
+    @Test
+    void skipsRedisWhileBackingOffAfterAFailure() throws IOException {
+        redis = new FakeRedis(false);
+        underTest = new RedisSharedCache("localhost", redis.port(), Duration.ofSeconds(1),
+                2, Duration.ofMinutes(1), Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(underTest.get("customer:1")).isEmpty();
+        }
+
+        assertThat(redis.connections()).isEqualTo(1);
+        assertThat(underTest.isOpen()).isTrue();
+    }
+
+    @Test
+    void probesAgainOnceTheBackoffHasPassed() throws Exception {
+        redis = new FakeRedis(false);
+        underTest = new RedisSharedCache("localhost", redis.port(), Duration.ofSeconds(1),
+                2, Duration.ofMillis(50), Duration.ofMillis(50), 100, Duration.ofMinutes(1));
+        underTest.get("customer:1");
+
+        redis.serving = true;
+        Thread.sleep(100);
+        underTest.put("customer:1", "v", Duration.ofMinutes(1));
+
+        assertThat(underTest.get("customer:1")).contains("v");
+        assertThat(underTest.isOpen()).isFalse();
+    }
+
+    @Test
+    void replaysFailedEvictionOnceRedisIsBack() throws Exception {
+        redis = new FakeRedis(true);
+        underTest = new RedisSharedCache("localhost", redis.port(), Duration.ofSeconds(1),
+                2, Duration.ofMillis(50), Duration.ofMillis(50), 100, Duration.ofMinutes(1));
+        underTest.put("customer:1", "old", Duration.ofMinutes(1));
+
+        redis.serving = false;
+        underTest.evict(List.of("customer:1"));
+        redis.serving = true;
+
+        assertThat(underTest.pendingEvictions()).isEqualTo(1);
+        assertThat(underTest.get("customer:1")).isEmpty();
+        Thread.sleep(100);
+        underTest.put("customer:2", "v", Duration.ofMinutes(1));
+
+        assertThat(underTest.pendingEvictions()).isZero();
+        assertThat(redis.values).doesNotContainKey("customer:1");
+        assertThat(underTest.get("customer:2")).contains("v");
+    }
+
+    @Test
+    void skipsReadsForEntryTtlOncePendingEvictionsOverflow() throws Exception {
+        redis = new FakeRedis(true);
+        underTest = new RedisSharedCache("localhost", redis.port(), Duration.ofSeconds(1),
+                2, Duration.ofMillis(50), Duration.ofMillis(50), 1, Duration.ofMinutes(1));
+        underTest.put("customer:3", "v", Duration.ofMinutes(1));
+
+        redis.serving = false;
+        underTest.evict(List.of("customer:1", "customer:2"));
+        redis.serving = true;
+        Thread.sleep(100);
+
+        assertThat(underTest.get("customer:3")).isEmpty();
+    }
+
+    /**
+     * Minimal RESP server for GET, SET and DEL; when not serving it accepts
+     * connections and closes them straight away, and drops open connections
+     * on their next command.
+     */
+    private static final class FakeRedis implements AutoCloseable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        volatile boolean serving;
+
+        FakeRedis(boolean serving) throws IOException {
+            this.serving = serving;
+            Thread acceptor = new Thread(this::accept, "fake-redis");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        int connections() {
+            return connections.get();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    if (!serving) {
+                        socket.close();
+                        continue;
+                    }
+                    Thread handler = new Thread(() -> serve(socket), "fake-redis-connection");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket) {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                while (true) {
+                    String header = readLine(in);
+                    if (header == null || !serving) {
+                        return;
+                    }
+                    String[] command = new String[Integer.parseInt(header.substring(1))];
+                    for (int i = 0; i < command.length; i++) {
+                        int length = Integer.parseInt(readLine(in).substring(1));
+                        command[i] = new String(in.readNBytes(length), StandardCharsets.UTF_8);
+                        readLine(in);
+                    }
+                    out.write(reply(command).getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        private String reply(String[] command) {
+            switch (command[0]) {
+                case "GET" -> {
+                    String value = values.get(command[1]);
+                    return value == null ? "$-1\r\n" : "$" + value.length() + "\r\n" + value + "\r\n";
+                }
+                case "SET" -> {
+                    values.put(command[1], command[2]);
+                    return "+OK\r\n";
+                }
+                case "DEL" -> {
+                    int removed = 0;
+                    for (int i = 1; i < command.length; i++) {
+                        removed += values.remove(command[i]) == null ? 0 : 1;
+                    }
+                    return ":" + removed + "\r\n";
+                }
+                default -> {
+                    return "-ERR unknown command\r\n";
+                }
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    return null;
+                }
+                line.append((char) b);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.swcode.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntHashSetTest {
+
+    @Test
+    void addContainsRemove() {
+        IntHashSet underTest = new IntHashSet();
+
+        assertThat(underTest.add(1)).isTrue();
+        assertThat(underTest.add(1)).isFalse();
+        assertThat(underTest.add(0)).isTrue();
+        assertThat(underTest.contains(1)).isTrue();
+        assertThat(underTest.contains(0)).isTrue();
+        assertThat(underTest.contains(2)).isFalse();
+        assertThat(underTest.size()).isEqualTo(2);
+
+        assertThat(underTest.remove(1)).isTrue();
+        assertThat(underTest.remove(0)).isTrue();
+        assertThat(underTest.isEmpty()).isTrue();
+    }
+
+    @Test
+    void behavesLikeHashSetUnderRandomOperations() {
+        Random random = new Random(42);
+        IntHashSet underTest = new IntHashSet(4);
+        Set<Integer> expected = new HashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                assertThat(underTest.add(key)).isEqualTo(expected.add(key));
+            } else {
+                assertThat(underTest.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+
+        assertThat(underTest.size()).isEqualTo(expected.size());
+        assertThat(underTest.toArray())
+                .containsExactlyInAnyOrder(expected.stream().mapToInt(Integer::intValue).toArray());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertThat(underTest.contains(key)).isEqualTo(expected.contains(key));
+        }
+    }
+}
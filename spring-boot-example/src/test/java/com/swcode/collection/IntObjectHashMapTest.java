@@ -0,0 +1,34 @@
+package com.swcode.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void behavesLikeHashMapUnderRandomOperations() {
+        Random random = new Random(7);
+        IntObjectHashMap<String> underTest = new IntObjectHashMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) > 0) {
+                String value = "v" + i;
+                assertThat(underTest.put(key, value)).isEqualTo(expected.put(key, value));
+            } else {
+                assertThat(underTest.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+
+        assertThat(underTest.size()).isEqualTo(expected.size());
+        for (int key = -1_000; key < 1_000; key++) {
+            assertThat(underTest.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+}
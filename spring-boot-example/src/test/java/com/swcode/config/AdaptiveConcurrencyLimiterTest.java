@@ -0,0 +1,43 @@
+package com.swcode.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void rejectsWhenLimitReached() {
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(2, 1, 10, 100, 0.5);
+
+        assertThat(underTest.tryAcquire()).isTrue();
+        assertThat(underTest.tryAcquire()).isTrue();
+        assertThat(underTest.tryAcquire()).isFalse();
+        assertThat(underTest.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void shrinksOnSlowRequestsAndGrowsOnFastOnes() {
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(8, 1, 10, 100, 0.5);
+
+        underTest.tryAcquire();
+        underTest.release(1_000);
+        assertThat(underTest.getLimit()).isEqualTo(4);
+
+        for (int i = 0; i < 20; i++) {
+            underTest.tryAcquire();
+            underTest.release(10);
+        }
+        assertThat(underTest.getLimit()).isGreaterThan(4).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void neverDropsBelowMinimum() {
+        AdaptiveConcurrencyLimiter underTest = new AdaptiveConcurrencyLimiter(2, 2, 10, 100, 0.1);
+
+        underTest.tryAcquire();
+        underTest.release(1_000);
+
+        assertThat(underTest.getLimit()).isEqualTo(2);
+    }
+}
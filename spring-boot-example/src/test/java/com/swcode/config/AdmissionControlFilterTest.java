@@ -0,0 +1,163 @@
+package com.swcode.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlFilter underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = filter(250);
+    }
+
+    private AdmissionControlFilter filter(long latencyThresholdMs) {
+        return new AdmissionControlFilter(
+                meterRegistry,
+                true,
+                1,
+                2,
+                100,
+                List.of("/api/v1/customers/events"),
+                List.of("/api/v1/customers", "POST /api/v1/customers/bulk"),
+                1,
+                List.of("/api/v1/customers/stream", "/api/v1/customers/exports/*/file"),
+                10,
+                1,
+                10,
+                latencyThresholdMs,
+                0.9
+        );
+    }
+
+    @Test
+    void rejectsClientThatExceedsItsBurstWith429() throws Exception {
+        assertThat(send("a", "/api/v1/customers/1").getStatus()).isEqualTo(200);
+        assertThat(send("a", "/api/v1/customers/1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = send("a", "/api/v1/customers/1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(send("b", "/api/v1/customers/1").getStatus()).isEqualTo(200);
+        assertThat(meterRegistry.counter("admission.requests", "outcome", "rate_limited").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void keysClientsByAddressNotBySelfChosenHeader() throws Exception {
+        MockHttpServletRequest first = request("a", "/api/v1/customers/1");
+        first.addHeader("X-Client-Id", "one");
+        MockHttpServletRequest second = request("a", "/api/v1/customers/1");
+        second.addHeader("X-Client-Id", "two");
+        MockHttpServletRequest third = request("a", "/api/v1/customers/1");
+        third.addHeader("X-Client-Id", "three");
+
+        assertThat(send(first).getStatus()).isEqualTo(200);
+        assertThat(send(second).getStatus()).isEqualTo(200);
+        assertThat(send(third).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void streamingRequestsDoNotFeedTheAdaptiveLimit() throws Exception {
+        // every sampled request counts as slow
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = filter(0);
+
+        send("a", "/api/v1/customers/stream");
+        send("b", "/api/v1/customers/exports/42/file");
+        assertThat(meterRegistry.get("admission.concurrency.limit").gauge().value()).isEqualTo(10);
+
+        send("c", "/api/v1/customers/1");
+        assertThat(meterRegistry.get("admission.concurrency.limit").gauge().value()).isEqualTo(9);
+        assertThat(meterRegistry.get("admission.concurrency.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void rejectsConcurrentExpensiveRequestsWith503() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        MockHttpServletRequest request = request("a", "/api/v1/customers");
+
+        underTest.doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                try {
+                    nested[0] = send("b", "/api/v1/customers");
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        assertThat(nested[0].getStatus()).isEqualTo(503);
+        assertThat(nested[0].getHeader("Retry-After")).isNotNull();
+        assertThat(send("c", "/api/v1/customers").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void expensivePathsMatchTheirMethod() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[2];
+        MockHttpServletRequest bulk = request("a", "/api/v1/customers/bulk");
+        bulk.setMethod("POST");
+
+        underTest.doFilter(bulk, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                try {
+                    MockHttpServletRequest register = request("b", "/api/v1/customers");
+                    register.setMethod("POST");
+                    nested[0] = send(register);
+                    MockHttpServletRequest secondBulk = request("c", "/api/v1/customers/bulk");
+                    secondBulk.setMethod("POST");
+                    nested[1] = send(secondBulk);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        assertThat(nested[0].getStatus()).isEqualTo(200);
+        assertThat(nested[1].getStatus()).isEqualTo(503);
+    }
+
+    @Test
+    void ignoresNonApiRequests() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(send("a", "/actuator/health").getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void ignoresExemptStreams() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertThat(send("a", "/api/v1/customers/events").getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse send(String client, String uri) throws Exception {
+        return send(request(client, uri));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        underTest.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String client, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setRemoteAddr("10.0.0." + client.charAt(0));
+        return request;
+    }
+}
@@ -0,0 +1,126 @@
+package com.swcode.customer;
+
+import com.swcode.deadline.Deadline;
+import com.swcode.exception.ServiceUnavailableException;
+import com.swcode.idempotency.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerAsyncServiceTest {
+
+    @Mock
+    private CustomerService customerService;
+    @Mock
+    private IdempotencyService idempotencyService;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<>());
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getCustomerViewCompletesOnExecutor() {
+        CustomerView view = new CustomerView(1, "Alex", "alex@gmail.com", 19);
+        when(customerService.getCustomerView(1)).thenReturn(view);
+        CustomerAsyncService underTest = new CustomerAsyncService(customerService, idempotencyService, executor, Duration.ofSeconds(5));
+
+        assertThat(underTest.getCustomerView(1).join()).isEqualTo(view);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenExecutorIsSaturated() {
+        CountDownLatch busy = new CountDownLatch(1);
+        when(customerService.getCustomerView(1)).thenAnswer(invocation -> {
+            busy.countDown();
+            release.await();
+            return null;
+        });
+        CustomerAsyncService underTest = new CustomerAsyncService(customerService, idempotencyService, executor, Duration.ofSeconds(5));
+        underTest.getCustomerView(1);
+        assertThat(awaitQuietly(busy)).isTrue();
+
+        assertThatThrownBy(() -> underTest.getCustomerView(2).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("saturated");
+    }
+
+    @Test
+    void failsAndInterruptsWorkerWhenCallTimesOut() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(customerService.getCustomerView(1)).thenAnswer(invocation -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        CustomerAsyncService underTest = new CustomerAsyncService(customerService, idempotencyService, executor, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> underTest.getCustomerView(1).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("timed out");
+        assertThat(awaitQuietly(interrupted)).isTrue();
+    }
+
+    @Test
+    void callsRunUnderDeadlineOfAsyncTimeoutWithoutRequestDeadline() {
+        when(customerService.getCustomerView(1)).thenAnswer(invocation -> {
+            Deadline deadline = Deadline.current().orElseThrow();
+            return deadline.remaining().compareTo(Duration.ofSeconds(5)) <= 0
+                    ? new CustomerView(1, "Alex", "alex@gmail.com", 19)
+                    : null;
+        });
+        CustomerAsyncService underTest = new CustomerAsyncService(customerService, idempotencyService, executor, Duration.ofSeconds(5));
+
+        assertThat(underTest.getCustomerView(1).join()).isNotNull();
+    }
+
+    @Test
+    void addCustomerGoesThroughIdempotencyService() {
+        CustomerRegistrationRequest request = new CustomerRegistrationRequest("Alex", "alex@gmail.com", 19);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(4).run();
+            return null;
+        }).when(idempotencyService).execute(eq("addr:10.0.0.1"), eq("key-1"), eq("registerCustomer"), eq(request), any());
+        CustomerAsyncService underTest = new CustomerAsyncService(customerService, idempotencyService, executor, Duration.ofSeconds(5));
+
+        underTest.addCustomer("addr:10.0.0.1", "key-1", request).join();
+
+        verify(customerService).addCustomer(request);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.swcode.customer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCacheWarmerTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    @Mock
+    private CustomerJDBCDataAccessService customerJDBCDataAccessService;
+    @Mock
+    private CustomerCachingDataAccessService customerCachingDataAccessService;
+    @TempDir
+    Path dir;
+
+    @Test
+    void scanWarmsEveryIdOnceAcrossSlices() {
+        // given ids 1..100, split into 4 slices read 10 at a time
+        givenCustomers(100);
+        List<Integer> warmed = recordWarmedIds();
+        CustomerCacheWarmer underTest = warmer(1_000, null);
+
+        // when
+        underTest.run(null);
+
+        // then
+        assertThat(warmed).containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, 100).boxed().toList());
+        verify(customerJDBCDataAccessService, never()).selectCustomerViewsInIdRange(anyInt(), anyInt(), intThat(limit -> limit > 10));
+        verify(customerCachingDataAccessService, atLeastOnce()).warm(any(), eq(TTL));
+    }
+
+    @Test
+    void scanStopsEachSliceAtItsShareOfMaxEntries() {
+        // given 4 slices sharing 20 entries
+        givenCustomers(100);
+        List<Integer> warmed = recordWarmedIds();
+        CustomerCacheWarmer underTest = warmer(20, null);
+
+        // when
+        underTest.run(null);
+
+        // then each slice loads its first 5 ids
+        assertThat(warmed).containsExactlyInAnyOrder(
+                1, 2, 3, 4, 5,
+                26, 27, 28, 29, 30,
+                51, 52, 53, 54, 55,
+                76, 77, 78, 79, 80
+        );
+    }
+
+    @Test
+    void databaseErrorDoesNotFailStartup() {
+        // given
+        when(customerJDBCDataAccessService.selectCustomerIdRange()).thenReturn(Optional.of(new int[]{1, 100}));
+        when(customerJDBCDataAccessService.selectCustomerViewsInIdRange(anyInt(), anyInt(), anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        CustomerCacheWarmer underTest = warmer(1_000, null);
+
+        // when
+        // then
+        assertThatCode(() -> underTest.run(null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void corruptSnapshotIsDeletedAndReplacedByScan() throws Exception {
+        // given
+        Path snapshot = dir.resolve("hot-set.bin");
+        Files.write(snapshot, new byte[64]);
+        givenCustomers(10);
+        List<Integer> warmed = recordWarmedIds();
+        CustomerCacheWarmer underTest = warmer(1_000, snapshot);
+
+        // when
+        underTest.run(null);
+
+        // then
+        assertThat(snapshot).doesNotExist();
+        assertThat(warmed).hasSize(10);
+    }
+
+    @Test
+    void snapshotIdsAreReloadedFromDatabaseInChunks() throws Exception {
+        // given a snapshot holding names changed elsewhere since
+        Path snapshot = dir.resolve("hot-set.bin");
+        List<CustomerView> snapshotted = IntStream.rangeClosed(1, 15)
+                .mapToObj(id -> new CustomerView(id, "old" + id, "c" + id + "@gmail.com", 20))
+                .toList();
+        CustomerSnapshot.write(snapshot, snapshotted);
+        when(customerJDBCDataAccessService.selectCustomerViewsByIds(any())).thenAnswer(invocation -> {
+            int[] ids = invocation.getArgument(0);
+            return Arrays.stream(ids)
+                    .mapToObj(id -> new CustomerView(id, "new" + id, "c" + id + "@gmail.com", 20))
+                    .toList();
+        });
+        List<CustomerView> warmed = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> warmed.addAll(invocation.getArgument(0)))
+                .when(customerCachingDataAccessService).warm(any(), any());
+        CustomerCacheWarmer underTest = warmer(1_000, snapshot);
+
+        // when
+        underTest.run(null);
+
+        // then
+        assertThat(warmed).hasSize(15).allSatisfy(view -> assertThat(view.name()).startsWith("new"));
+        verify(customerJDBCDataAccessService, times(2)).selectCustomerViewsByIds(any());
+        verify(customerJDBCDataAccessService, never()).selectCustomerIdRange();
+    }
+
+    private CustomerCacheWarmer warmer(int maxEntries, Path snapshot) {
+        return new CustomerCacheWarmer(
+                customerJDBCDataAccessService,
+                customerCachingDataAccessService,
+                true,
+                maxEntries,
+                4,
+                10,
+                TTL,
+                snapshot == null ? "" : snapshot.toString(),
+                Duration.ofHours(1)
+        );
+    }
+
+    private void givenCustomers(int count) {
+        when(customerJDBCDataAccessService.selectCustomerIdRange()).thenReturn(Optional.of(new int[]{1, count}));
+        when(customerJDBCDataAccessService.selectCustomerViewsInIdRange(anyInt(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    int afterId = invocation.getArgument(0);
+                    int toId = invocation.getArgument(1);
+                    int limit = invocation.getArgument(2);
+                    return IntStream.rangeClosed(afterId + 1, toId)
+                            .limit(limit)
+                            .mapToObj(id -> new CustomerView(id, "c" + id, "c" + id + "@gmail.com", 20))
+                            .toList();
+                });
+    }
+
+    private List<Integer> recordWarmedIds() {
+        List<Integer> warmed = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<CustomerView> views = invocation.getArgument(0);
+            views.forEach(view -> warmed.add(view.id()));
+            return null;
+        }).when(customerCachingDataAccessService).warm(any(), any());
+        return warmed;
+    }
+}
@@ -0,0 +1,138 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.cache.InMemorySharedCache;
+import com.swcode.cache.LocalCacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerCachingDataAccessServiceTest {
+
+    @Mock
+    private CustomerDao customerDao;
+    private final Map<Integer, CustomerView> table = new ConcurrentHashMap<>();
+    private final InMemorySharedCache sharedCache = new InMemorySharedCache();
+    private final LocalCacheInvalidationBus invalidationBus = new LocalCacheInvalidationBus();
+    private SimpleMeterRegistry meterRegistryA;
+    private SimpleMeterRegistry meterRegistryB;
+    private CustomerCachingDataAccessService nodeA;
+    private CustomerCachingDataAccessService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        table.put(1, new CustomerView(1, "al", "al@gmail.com", 20));
+        lenient().when(customerDao.selectCustomerViewById(anyInt()))
+                .thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<Integer>getArgument(0))));
+        lenient().doAnswer(invocation -> {
+            Customer update = invocation.getArgument(0);
+            table.put(update.getId(), CustomerView.from(update));
+            return null;
+        }).when(customerDao).updateCustomer(any());
+
+        meterRegistryA = new SimpleMeterRegistry();
+        meterRegistryB = new SimpleMeterRegistry();
+        nodeA = node(meterRegistryA);
+        nodeB = node(meterRegistryB);
+    }
+
+    private CustomerCachingDataAccessService node(SimpleMeterRegistry meterRegistry) {
+        return new CustomerCachingDataAccessService(
+                customerDao,
+                sharedCache,
+                invalidationBus,
+                new ObjectMapper(),
+                meterRegistry,
+                100,
+                Duration.ofMinutes(1),
+                Duration.ofMinutes(1)
+        );
+    }
+
+    @Test
+    void secondReadIsServedFromNearCache() {
+        nodeA.selectCustomerViewById(1);
+        nodeA.selectCustomerViewById(1);
+
+        verify(customerDao, times(1)).selectCustomerViewById(1);
+        assertThat(hits(meterRegistryA, "near")).isEqualTo(1);
+    }
+
+    @Test
+    void peerIsServedFromSharedTier() {
+        nodeA.selectCustomerViewById(1);
+
+        Optional<CustomerView> actual = nodeB.selectCustomerViewById(1);
+
+        assertThat(actual).contains(table.get(1));
+        verify(customerDao, times(1)).selectCustomerViewById(1);
+        assertThat(hits(meterRegistryB, "shared")).isEqualTo(1);
+    }
+
+    @Test
+    void updateOnOneNodeInvalidatesPeers() {
+        nodeA.selectCustomerViewById(1);
+        nodeB.selectCustomerViewById(1);
+
+        nodeA.updateCustomer(new Customer(1, "alan", "al@gmail.com", 21));
+
+        assertThat(nodeB.selectCustomerViewById(1))
+                .contains(new CustomerView(1, "alan", "al@gmail.com", 21));
+    }
+
+    @Test
+    void loadThatRacesAnInvalidationIsNotShared() {
+        CustomerView stale = table.get(1);
+        when(customerDao.selectCustomerViewById(1)).thenAnswer(invocation -> {
+            // the row changes on another node while this load is in flight
+            table.put(1, new CustomerView(1, "alan", "al@gmail.com", 21));
+            invalidationBus.publish(new int[]{1});
+            return Optional.of(stale);
+        });
+
+        assertThat(nodeA.selectCustomerViewById(1)).contains(stale);
+
+        assertThat(sharedCache.get("customer:1")).isEmpty();
+    }
+
+    @Test
+    void returnedEntitiesDoNotShareStateWithCache() {
+        Customer customer = nodeA.selectCustomerById(1).orElseThrow();
+        customer.setName("changed");
+
+        assertThat(nodeA.selectCustomerById(1)).get()
+                .extracting(Customer::getName)
+                .isEqualTo("al");
+    }
+
+    @Test
+    void hitRatioUnderMixedMultiNodeReads() {
+        for (int i = 0; i < 50; i++) {
+            nodeA.selectCustomerViewById(1);
+            nodeB.selectCustomerViewById(1);
+        }
+
+        double lookups = 100;
+        double nearHits = hits(meterRegistryA, "near") + hits(meterRegistryB, "near");
+        assertThat(nearHits / lookups).isEqualTo(0.98);
+        verify(customerDao, times(1)).selectCustomerViewById(1);
+    }
+
+    private static double hits(SimpleMeterRegistry meterRegistry, String tier) {
+        return meterRegistry.counter("customer.cache.lookups", "tier", tier, "result", "hit").count();
+    }
+}
@@ -0,0 +1,111 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.cache.LocalCacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerDocumentCacheTest {
+
+    private static final CustomerView VIEW = new CustomerView(1, "al", "al@gmail.com", 20);
+    private static final String JSON = "{\"id\":1,\"name\":\"al\",\"email\":\"al@gmail.com\",\"age\":20}";
+
+    @Mock
+    private CustomerService customerService;
+    private LocalCacheInvalidationBus invalidationBus;
+    private CustomerDocumentCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        invalidationBus = new LocalCacheInvalidationBus();
+        underTest = cache(1024);
+    }
+
+    @Test
+    void servesRepeatedReadsFromTheSameBytes() {
+        when(customerService.getCustomerView(1)).thenReturn(VIEW);
+
+        CustomerDocumentCache.CustomerDocument first = underTest.get(1);
+        CustomerDocumentCache.CustomerDocument second = underTest.get(1);
+
+        assertThat(new String(first.json(), StandardCharsets.UTF_8)).isEqualTo(JSON);
+        assertThat(second.json()).isSameAs(first.json());
+        assertThat(first.gzip()).isNull();
+        verify(customerService, times(1)).getCustomerView(1);
+    }
+
+    @Test
+    void reloadsAfterDeleteEvent() {
+        when(customerService.getCustomerView(1)).thenReturn(VIEW);
+        underTest.get(1);
+
+        underTest.onCustomerEvent(CustomerEvent.deleted(1));
+        underTest.get(1);
+
+        verify(customerService, times(2)).getCustomerView(1);
+    }
+
+    @Test
+    void reloadsAfterBusInvalidation() {
+        when(customerService.getCustomerView(1)).thenReturn(VIEW);
+        underTest.get(1);
+
+        invalidationBus.publish(new int[]{1});
+        underTest.get(1);
+
+        verify(customerService, times(2)).getCustomerView(1);
+    }
+
+    @Test
+    void broadcastsUpdateEventsToOtherReplicas() {
+        // given a peer on the same bus holding the document
+        CustomerDocumentCache peer = cache(1024);
+        when(customerService.getCustomerView(1)).thenReturn(VIEW);
+        peer.get(1);
+
+        // when this node updates the customer
+        underTest.onCustomerEvent(CustomerEvent.updated(new Customer(1, "al", "al@gmail.com", 21)));
+        peer.get(1);
+
+        // then
+        verify(customerService, times(2)).getCustomerView(1);
+    }
+
+    @Test
+    void keepsGzipVariantForLargeDocuments() throws IOException {
+        underTest = cache(1);
+        when(customerService.getCustomerView(1)).thenReturn(VIEW);
+
+        CustomerDocumentCache.CustomerDocument document = underTest.get(1);
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(document.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(document.json());
+        }
+    }
+
+    private CustomerDocumentCache cache(int gzipMinSize) {
+        return new CustomerDocumentCache(
+                customerService,
+                new ObjectMapper(),
+                invalidationBus,
+                new SimpleMeterRegistry(),
+                100,
+                Duration.ofMinutes(1),
+                gzipMinSize
+        );
+    }
+}
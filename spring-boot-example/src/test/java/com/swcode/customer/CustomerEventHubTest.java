@@ -0,0 +1,251 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swcode.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class CustomerEventHubTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CustomerEventHub underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ExecutorService sameThread = mock(ExecutorService.class, invocation -> {
+            if (invocation.getMethod().getName().equals("execute")) {
+                invocation.<Runnable>getArgument(0).run();
+            }
+            return null;
+        });
+        underTest = hub(sameThread, Duration.ofSeconds(5));
+    }
+
+    private CustomerEventHub hub(ExecutorService senders, Duration sendTimeLimit) {
+        return new CustomerEventHub(
+                new ObjectMapper(),
+                senders,
+                mock(ScheduledExecutorService.class),
+                meterRegistry,
+                2,
+                2,
+                Duration.ofMillis(100),
+                sendTimeLimit
+        );
+    }
+
+    @Test
+    void batchesEventsIntoOneFramePerFlush() {
+        RecordingSink sink = new RecordingSink();
+        underTest.subscribe(sink);
+
+        underTest.publish(CustomerEvent.created(customer(1, 20)));
+        underTest.publish(CustomerEvent.deleted(2));
+        underTest.flush();
+        underTest.flush();
+
+        assertThat(sink.frames).containsExactly(
+                "[{\"type\":\"CREATED\",\"id\":1,\"customer\":{\"id\":1,\"name\":\"al\",\"email\":\"al1@gmail.com\",\"age\":20}},"
+                        + "{\"type\":\"DELETED\",\"id\":2,\"customer\":null}]");
+    }
+
+    @Test
+    void coalescesChangesToTheSameCustomer() {
+        RecordingSink sink = new RecordingSink();
+        underTest.subscribe(sink);
+
+        underTest.publish(CustomerEvent.updated(customer(1, 20)));
+        underTest.publish(CustomerEvent.updated(customer(1, 21)));
+        underTest.flush();
+
+        assertThat(sink.frames).hasSize(1);
+        assertThat(sink.frames.get(0)).contains("\"age\":21").doesNotContain("\"age\":20");
+    }
+
+    @Test
+    void collapsesOverflowingBufferIntoResync() {
+        RecordingSink sink = new RecordingSink();
+        underTest.subscribe(sink);
+
+        for (int id = 1; id <= 3; id++) {
+            underTest.publish(CustomerEvent.deleted(id));
+        }
+        underTest.flush();
+
+        assertThat(sink.frames).containsExactly("[{\"type\":\"RESYNC\"}]");
+    }
+
+    @Test
+    void dropsSubscriberWhoseConnectionFails() {
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        underTest.subscribe(sink);
+
+        underTest.publish(CustomerEvent.deleted(1));
+        underTest.flush();
+
+        assertThat(underTest.subscriberCount()).isZero();
+        assertThat(sink.closed).isTrue();
+        assertThat(meterRegistry.counter("customer.events.subscribers.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsSubscriberStalledBeyondSendTimeLimit() throws Exception {
+        ExecutorService senders = Executors.newSingleThreadExecutor();
+        try {
+            underTest = hub(senders, Duration.ofMillis(1));
+            CountDownLatch writing = new CountDownLatch(1);
+            CountDownLatch unblock = new CountDownLatch(1);
+            RecordingSink sink = new RecordingSink() {
+                @Override
+                public void send(byte[] frame) throws IOException {
+                    writing.countDown();
+                    try {
+                        unblock.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.send(frame);
+                }
+            };
+            underTest.subscribe(sink);
+            underTest.publish(CustomerEvent.deleted(1));
+            underTest.flush();
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(10);
+
+            underTest.flush();
+
+            assertThat(underTest.subscriberCount()).isZero();
+            assertThat(meterRegistry.counter("customer.events.subscribers.dropped").count()).isEqualTo(1);
+            // closing is left to the thread stuck in the write
+            assertThat(sink.closed).isFalse();
+            unblock.countDown();
+            senders.shutdown();
+            assertThat(senders.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(sink.closed).isTrue();
+        } finally {
+            senders.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsSubscribersBeyondLimit() {
+        underTest.subscribe(new RecordingSink());
+        underTest.subscribe(new RecordingSink());
+
+        assertThatThrownBy(() -> underTest.subscribe(new RecordingSink()))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void unsubscribeFreesSlot() {
+        CustomerEventSubscriber first = underTest.subscribe(new RecordingSink());
+        underTest.subscribe(new RecordingSink());
+
+        underTest.unsubscribe(first);
+        underTest.unsubscribe(first);
+
+        underTest.subscribe(new RecordingSink());
+        assertThat(underTest.subscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentSubscribesStayWithinLimit() throws Exception {
+        int threads = 16;
+        ExecutorService callers = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger rejected = new AtomicInteger();
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(callers.submit(() -> {
+                    start.await();
+                    try {
+                        underTest.subscribe(new RecordingSink());
+                    } catch (ServiceUnavailableException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get(5, TimeUnit.SECONDS);
+            }
+
+            assertThat(underTest.subscriberCount()).isEqualTo(2);
+            assertThat(rejected).hasValue(threads - 2);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void retriesSendRejectedBySenderPool() {
+        AtomicBoolean rejectNext = new AtomicBoolean(true);
+        ExecutorService senders = mock(ExecutorService.class, invocation -> {
+            if (invocation.getMethod().getName().equals("execute")) {
+                if (rejectNext.getAndSet(false)) {
+                    throw new RejectedExecutionException("sender pool saturated");
+                }
+                invocation.<Runnable>getArgument(0).run();
+            }
+            return null;
+        });
+        underTest = hub(senders, Duration.ofSeconds(5));
+        RecordingSink sink = new RecordingSink();
+        underTest.subscribe(sink);
+        underTest.publish(CustomerEvent.deleted(1));
+
+        underTest.flush();
+        underTest.flush();
+
+        assertThat(sink.frames).containsExactly("[{\"type\":\"DELETED\",\"id\":1,\"customer\":null}]");
+    }
+
+    private static Customer customer(int id, int age) {
+        return new Customer(id, "al", "al" + id + "@gmail.com", age);
+    }
+
+    private static class RecordingSink implements CustomerEventSubscriber.Sink {
+
+        private final List<String> frames = new ArrayList<>();
+        private boolean failing;
+        private volatile boolean closed;
+
+        @Override
+        public void send(byte[] frame) throws IOException {
+            if (failing) {
+                throw new IOException("connection reset");
+            }
+            frames.add(new String(frame, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
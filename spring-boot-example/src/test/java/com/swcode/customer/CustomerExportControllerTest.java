@@ -0,0 +1,131 @@
+package com.swcode.customer;
+
+import com.swcode.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExportControllerTest {
+
+    @Mock
+    private CustomerExportService customerExportService;
+    @TempDir
+    Path directory;
+    private MockHttpServletRequest request;
+    private CustomerExportController underTest;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("POST", "/api/v1/customers/exports");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        underTest = new CustomerExportController(customerExportService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void startExportAnswersAcceptedWithLocation() {
+        // given
+        CustomerExport export = CustomerExport.pending(CustomerExportFormat.CSV);
+        when(customerExportService.startExport(null)).thenReturn(export);
+
+        // when
+        ResponseEntity<CustomerExport> actual = underTest.startExport(null);
+
+        // then
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(actual.getHeaders().getLocation())
+                .hasPath("/api/v1/customers/exports/" + export.id());
+        assertThat(actual.getBody()).isEqualTo(export);
+    }
+
+    @Test
+    void startExportPropagatesSaturation() {
+        // given
+        when(customerExportService.startExport(null))
+                .thenThrow(new ServiceUnavailableException("too many exports in progress, retry later"));
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.startExport(null))
+                .isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    void downloadStreamsFileWithoutSendfile() throws Exception {
+        // given
+        byte[] csv = "id,name,email,age\n".getBytes(StandardCharsets.UTF_8);
+        CustomerExport export = completed();
+        Path file = Files.write(directory.resolve(export.id() + ".csv"), csv);
+        when(customerExportService.getExport(export.id())).thenReturn(export);
+        when(customerExportService.getExportFile(export.id())).thenReturn(file);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        underTest.downloadExport(export.id(), new MockHttpServletRequest(), response);
+
+        // then
+        assertThat(response.getContentAsByteArray()).isEqualTo(csv);
+        assertThat(response.getContentLengthLong()).isEqualTo(csv.length);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION))
+                .isEqualTo("attachment; filename=\"customers-%s.csv\"".formatted(export.id()));
+    }
+
+    @Test
+    void downloadHandsFileToSendfileWhenSupported() throws Exception {
+        // given
+        CustomerExport export = completed();
+        Path file = Files.write(directory.resolve(export.id() + ".csv"), new byte[42]);
+        when(customerExportService.getExport(export.id())).thenReturn(export);
+        when(customerExportService.getExportFile(export.id())).thenReturn(file);
+        MockHttpServletRequest download = new MockHttpServletRequest();
+        download.setAttribute("org.apache.tomcat.sendfile.support", true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        underTest.downloadExport(export.id(), download, response);
+
+        // then
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(download.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(file.toAbsolutePath().toString());
+        assertThat(download.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(42L);
+    }
+
+    private static CustomerExport completed() {
+        return new CustomerExport(
+                UUID.randomUUID(),
+                CustomerExportFormat.CSV,
+                CustomerExportStatus.COMPLETED,
+                Instant.now(),
+                Instant.now(),
+                42L,
+                null
+        );
+    }
+}
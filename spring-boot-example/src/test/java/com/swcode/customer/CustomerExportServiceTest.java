@@ -0,0 +1,213 @@
+package com.swcode.customer;
+
+import com.swcode.exception.RequestValidationException;
+import com.swcode.exception.ResourceNotFoundException;
+import com.swcode.exception.ServiceUnavailableException;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExportServiceTest {
+
+    private static final byte[] CSV = "id,name,email,age\n1,al,al@gmail.com,19\n".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private Connection connection;
+    @Mock
+    private PGConnection pgConnection;
+    @Mock
+    private CopyManager copyManager;
+    @Mock
+    private CopyOut copyOut;
+    @TempDir
+    Path directory;
+    private CustomerExportService underTest;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        lenient().when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        lenient().when(copyManager.copyOut(anyString())).thenReturn(copyOut);
+        underTest = service(Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.shutdown();
+    }
+
+    @Test
+    void exportCompletesWithFile() throws Exception {
+        // given
+        when(copyOut.readFromCopy()).thenReturn(CSV, (byte[]) null);
+
+        // when
+        CustomerExport export = underTest.startExport(null);
+
+        // then
+        CustomerExport completed = awaitStatus(export.id(), CustomerExportStatus.COMPLETED);
+        assertThat(completed.sizeBytes()).isEqualTo(CSV.length);
+        assertThat(underTest.getExportFile(export.id())).hasBinaryContent(CSV);
+    }
+
+    @Test
+    void failedExportLeavesNoFile() throws Exception {
+        // given
+        when(copyOut.readFromCopy()).thenReturn(CSV).thenThrow(new SQLException("connection reset"));
+
+        // when
+        CustomerExport export = underTest.startExport(null);
+
+        // then
+        CustomerExport failed = awaitStatus(export.id(), CustomerExportStatus.FAILED);
+        assertThat(failed.error()).isEqualTo("connection reset");
+        assertThat(directory).isEmptyDirectory();
+        assertThatThrownBy(() -> underTest.getExportFile(export.id()))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void failureMidCopyCancelsCopyBeforeReleasingConnection() throws Exception {
+        // given
+        when(copyOut.readFromCopy())
+                .thenReturn(CSV)
+                .thenThrow(new SQLException("disk full"))
+                .thenReturn(CSV, (byte[]) null);
+        when(copyOut.isActive()).thenReturn(true, false);
+        CustomerExport failing = underTest.startExport(null);
+        awaitStatus(failing.id(), CustomerExportStatus.FAILED);
+
+        // when the pool hands the same connection to the next export
+        CustomerExport next = underTest.startExport(null);
+
+        // then
+        awaitStatus(next.id(), CustomerExportStatus.COMPLETED);
+        var order = inOrder(copyOut, connection);
+        order.verify(copyOut).cancelCopy();
+        order.verify(connection).close();
+        verify(connection, never()).abort(any());
+    }
+
+    @Test
+    void failedCancelEvictsConnectionFromPool() throws Exception {
+        // given
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(pool);
+        when(copyOut.readFromCopy()).thenReturn(CSV).thenThrow(new SQLException("connection reset"));
+        when(copyOut.isActive()).thenReturn(true);
+        doThrow(new SQLException("cancel failed")).when(copyOut).cancelCopy();
+
+        // when
+        CustomerExport export = underTest.startExport(null);
+
+        // then
+        awaitStatus(export.id(), CustomerExportStatus.FAILED);
+        verify(pool).evictConnection(connection);
+        verify(connection, never()).close();
+    }
+
+    @Test
+    void willRejectExportWhenQueueIsFull() throws Exception {
+        // given one running export and one queued behind it
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(copyOut.readFromCopy()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        underTest.startExport(null);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        underTest.startExport(null);
+
+        try {
+            // when
+            // then
+            assertThatThrownBy(() -> underTest.startExport(null))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void purgeRemovesExpiredExportsAndTheirFiles() throws Exception {
+        // given
+        underTest.shutdown();
+        underTest = service(Duration.ZERO);
+        when(copyOut.readFromCopy()).thenReturn(CSV, (byte[]) null);
+        CustomerExport export = underTest.startExport(null);
+        awaitStatus(export.id(), CustomerExportStatus.COMPLETED);
+        Path file = underTest.getExportFile(export.id());
+        Thread.sleep(5);
+
+        // when
+        underTest.purgeExpired();
+
+        // then
+        assertThat(file).doesNotExist();
+        assertThatThrownBy(() -> underTest.getExport(export.id()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void purgeRemovesOrphanedFilesOnlyOnceExpired() throws Exception {
+        // given a file left by an earlier run and a fresh one
+        Path stale = Files.write(directory.resolve(UUID.randomUUID() + ".csv"), CSV);
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        Path fresh = Files.write(directory.resolve(UUID.randomUUID() + ".csv"), CSV);
+
+        // when
+        underTest.purgeExpired();
+
+        // then
+        assertThat(stale).doesNotExist();
+        assertThat(fresh).exists();
+    }
+
+    private CustomerExportService service(Duration ttl) {
+        return new CustomerExportService(dataSource, directory, 1024, 1, 1, ttl);
+    }
+
+    private CustomerExport awaitStatus(UUID exportId, CustomerExportStatus status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        CustomerExport export = underTest.getExport(exportId);
+        while (export.status() != status && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            export = underTest.getExport(exportId);
+        }
+        assertThat(export.status()).isEqualTo(status);
+        return export;
+    }
+}
@@ -3,24 +3,34 @@ package com.swcode.customer;
 import com.swcode.AbstractTestcontainers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 
 
 class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
 
     private CustomerJDBCDataAccessService underTest;
     private final CustomerRowMapper customerRowMapper = new CustomerRowMapper();
+    private final CustomerViewResultSetExtractor customerViewResultSetExtractor =
+            new CustomerViewResultSetExtractor();
 
     @BeforeEach
     void setUp() {
         underTest = new CustomerJDBCDataAccessService(
                 getJdbcTemplate(),
-                customerRowMapper
+                customerRowMapper,
+                customerViewResultSetExtractor
         );
     }
 
@@ -64,6 +74,56 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
         });
     }
 
+    @Test
+    void selectCustomerViewById() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                20
+        );
+        underTest.insertCustomer(customer);
+
+        int id = underTest.selectAllCustomerViews()
+                .stream()
+                .filter(c -> c.email().equals(email))
+                .mapToInt(CustomerView::id)
+                .findFirst()
+                .orElseThrow();
+
+        Optional<CustomerView> actual = underTest.selectCustomerViewById(id);
+        assertThat(actual).contains(new CustomerView(id, customer.getName(), email, 20));
+    }
+
+    @Test
+    void selectExistingCustomerIdsAndDeleteCustomersByIds() {
+        String email = FAKER.internet().safeEmailAddress() + "-" + UUID.randomUUID();
+        Customer customer = new Customer(
+                FAKER.name().fullName(),
+                email,
+                20
+        );
+        underTest.insertCustomer(customer);
+
+        int id = underTest.selectAllCustomerViews()
+                .stream()
+                .filter(c -> c.email().equals(email))
+                .mapToInt(CustomerView::id)
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(underTest.selectExistingCustomerIds(new int[]{id, -1}).toArray())
+                .containsExactly(id);
+        assertThat(underTest.selectCustomerViewsByIds(new int[]{id, -1}))
+                .extracting(CustomerView::id)
+                .containsExactly(id);
+
+        int deleted = underTest.deleteCustomersByIds(new int[]{id, -1});
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(underTest.existsPersonWithId(id)).isFalse();
+    }
+
     @Test
     void willReturnEmptyWhenSelectCustomerById() {
         int id = -1;
@@ -279,4 +339,37 @@ class CustomerJDBCDataAccessServiceTest extends AbstractTestcontainers {
             assertThat(c.getAge()).isEqualTo(customer.getAge());
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkDeleteByAgeRangeCoversCohortModifiedMidRun() {
+        // ages no other test uses, so the cohort is only these rows
+        JdbcTemplate jdbcTemplate = getJdbcTemplate();
+        int[] ids = new int[6];
+        for (int i = 0; i < ids.length; i++) {
+            String email = "cohort-" + UUID.randomUUID() + "@example.com";
+            underTest.insertCustomer(new Customer(FAKER.name().fullName(), email, 145));
+            ids[i] = jdbcTemplate.queryForObject("SELECT id FROM customer WHERE email = ?", Integer.class, email);
+        }
+        CustomerJDBCDataAccessService dao = spy(underTest);
+        AtomicBoolean modified = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Object chunk = invocation.callRealMethod();
+            if (modified.compareAndSet(false, true)) {
+                // another writer touches rows of the next chunks between statements
+                jdbcTemplate.update("UPDATE customer SET age = 146 WHERE id = ?", ids[2]);
+                jdbcTemplate.update("UPDATE customer SET age = 20 WHERE id = ?", ids[3]);
+                jdbcTemplate.update("DELETE FROM customer WHERE id = ?", ids[4]);
+            }
+            return chunk;
+        }).when(dao).deleteCustomersByAgeRange(anyInt(), anyInt(), anyInt(), anyInt());
+        CustomerService service = new CustomerService(
+                dao, new EmailReservations(), event -> { }, mock(PlatformTransactionManager.class), 2);
+
+        CustomerBulkResult actual = service.deleteCustomers(new CustomerBulkDeleteRequest(null, 145, 146));
+
+        assertThat(actual.affected()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer WHERE age BETWEEN 145 AND 146", Integer.class)).isZero();
+        assertThat(underTest.existsPersonWithId(ids[3])).isTrue();
+    }
+}
@@ -1,5 +1,6 @@
 package com.swcode.customer;
 
+import com.swcode.exception.ResourceNotFoundException;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +8,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,9 +37,21 @@ class CustomerJPADataAccessServiceTest {
 
     @Test
     void selectAllCustomers() {
-        underTest.selectAllCustomers();
+        Customer customer = new Customer(1, "al", "al@gmail.com", 44);
+        when(customerRepository.findAllReadOnly()).thenReturn(List.of(customer));
+
+        List<Customer> actual = underTest.selectAllCustomers();
+
+        assertEquals(List.of(customer), actual);
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    void selectAllCustomerViews() {
+        underTest.selectAllCustomerViews();
 
-        verify(customerRepository).findAll();
+        verify(customerRepository).findAllViews();
+        verify(customerRepository, never()).findAll();
     }
 
     @Test
@@ -95,8 +113,52 @@ class CustomerJPADataAccessServiceTest {
                 44
         );
 
+        Customer managed = new Customer(
+                1,
+                "alex",
+                "alex@gmail.com",
+                40
+        );
+        when(customerRepository.findById(1)).thenReturn(Optional.of(managed));
+
         underTest.updateCustomer(customer);
 
-        verify(customerRepository).save(customer);
+        assertEquals(customer, managed);
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void updateCustomerThatDoesNotExist() {
+        when(customerRepository.findById(1)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> underTest.updateCustomer(new Customer(1, "al", "al@gmail.com", 44)));
+    }
+
+    @Test
+    void deleteCustomersByAgeRangeLocksThenDeletesInOneTransaction() throws Exception {
+        when(customerRepository.lockIdsByAgeRange(10, 20, Integer.MIN_VALUE, PageRequest.ofSize(2)))
+                .thenReturn(List.of(3, 5));
+
+        int[] actual = underTest.deleteCustomersByAgeRange(10, 20, Integer.MIN_VALUE, 2);
+
+        assertArrayEquals(new int[]{3, 5}, actual);
+        verify(customerRepository).deleteByIdIn(List.of(3, 5));
+        assertNotNull(CustomerJPADataAccessService.class
+                .getMethod("deleteCustomersByAgeRange", int.class, int.class, int.class, int.class)
+                .getAnnotation(Transactional.class));
+    }
+
+    @Test
+    void updateCustomerAgeByAgeRangeLocksThenUpdatesInOneTransaction() throws Exception {
+        when(customerRepository.lockIdsByAgeRange(10, 20, 7, PageRequest.ofSize(2))).thenReturn(List.of(8));
+
+        int[] actual = underTest.updateCustomerAgeByAgeRange(10, 20, 15, 7, 2);
+
+        assertArrayEquals(new int[]{8}, actual);
+        verify(customerRepository).updateAgeByIdIn(List.of(8), 15);
+        assertNotNull(CustomerJPADataAccessService.class
+                .getMethod("updateCustomerAgeByAgeRange", int.class, int.class, int.class, int.class, int.class)
+                .getAnnotation(Transactional.class));
     }
-}
\ No newline at end of file
+}
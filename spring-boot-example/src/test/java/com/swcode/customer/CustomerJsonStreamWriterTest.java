@@ -0,0 +1,70 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerJsonStreamWriterTest {
+
+    @Mock
+    private CustomerJDBCDataAccessService customerJDBCDataAccessService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ResultSet resultSet;
+    private CustomerJsonStreamWriter underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerJsonStreamWriter(
+                new ObjectMapper(),
+                customerJDBCDataAccessService,
+                transactionManager,
+                100
+        );
+    }
+
+    @Test
+    void writesRowsAsJsonArray() throws SQLException {
+        when(resultSet.findColumn("id")).thenReturn(1);
+        when(resultSet.findColumn("name")).thenReturn(2);
+        when(resultSet.findColumn("email")).thenReturn(3);
+        when(resultSet.findColumn("age")).thenReturn(4);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(1, 2);
+        when(resultSet.getString(2)).thenReturn("al", "jamila");
+        when(resultSet.getString(3)).thenReturn("al@gmail.com", "jamila@gmail.com");
+        when(resultSet.getInt(4)).thenReturn(19, 23);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        underTest.write(resultSet, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "[{\"id\":1,\"name\":\"al\",\"email\":\"al@gmail.com\",\"age\":19}," +
+                "{\"id\":2,\"name\":\"jamila\",\"email\":\"jamila@gmail.com\",\"age\":23}]"
+        );
+    }
+
+    @Test
+    void writesEmptyArrayWhenNoRows() throws SQLException {
+        when(resultSet.next()).thenReturn(false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        underTest.write(resultSet, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+}
@@ -0,0 +1,87 @@
+package com.swcode.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.swcode.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerNdjsonReaderTest {
+
+    private final CustomerNdjsonReader underTest =
+            new CustomerNdjsonReader(new ObjectMapper().registerModule(new BlackbirdModule()), 2);
+
+    @Test
+    void readsOneRequestPerLine() {
+        List<CustomerRegistrationRequest> actual = readAll("""
+                {"name":"al","email":"al@gmail.com","age":20}
+                {"name":"bo","email":"bo@gmail.com","age":30}
+                """);
+
+        assertThat(actual).containsExactly(
+                new CustomerRegistrationRequest("al", "al@gmail.com", 20),
+                new CustomerRegistrationRequest("bo", "bo@gmail.com", 30));
+    }
+
+    @Test
+    void rejectsInvalidRecordWithItsPosition() {
+        List<CustomerRegistrationRequest> read = new ArrayList<>();
+
+        assertThatThrownBy(() -> underTest.read(body("""
+                {"name":"al","email":"al@gmail.com","age":20}
+                {"name":"bo","email":"bo-at-gmail.com","age":30}
+                {"name":"cy","email":"cy@gmail.com","age":40}
+                """)).forEach(read::add))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("record 2: email is not a valid address");
+        assertThat(read).hasSize(1);
+    }
+
+    @Test
+    void readAllRejectsBodyOverRecordLimit() {
+        assertThatThrownBy(() -> underTest.readAll(body("""
+                {"name":"al","email":"al@gmail.com","age":20}
+                {"name":"bo","email":"bo@gmail.com","age":30}
+                {"name":"cy","email":"cy@gmail.com","age":40}
+                """)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("at most 2 records per request");
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThatThrownBy(() -> readAll("{\"name\":\"al\",\n"))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessageStartingWith("record 1: ");
+    }
+
+    @Test
+    void validatesFieldsWhileBinding() {
+        assertThatThrownBy(() -> new CustomerRegistrationRequest("al", "al@gmail.com", 151))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("age must be between 0 and 150");
+        assertThatThrownBy(() -> new CustomerRegistrationRequest("al", null, 20))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("email is required");
+        assertThatThrownBy(() -> new CustomerUpdateRequest(" ", null, null))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("name must not be blank");
+    }
+
+    private List<CustomerRegistrationRequest> readAll(String ndjson) {
+        List<CustomerRegistrationRequest> read = new ArrayList<>();
+        underTest.read(body(ndjson)).forEach(read::add);
+        return read;
+    }
+
+    private static ByteArrayInputStream body(String ndjson) {
+        return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,146 @@
+package com.swcode.customer;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerRoutingDataAccessServiceTest {
+
+    @Mock
+    private CustomerDao jdbc;
+    @Mock
+    private CustomerDao jpa;
+    @Mock
+    private CustomerDao cached;
+    @Mock
+    private CustomerDao offheap;
+    @Mock
+    private CustomerDao list;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final ExecutorService shadowExecutor = Executors.newSingleThreadExecutor();
+    private CustomerRoutingDataAccessService underTest;
+
+    @BeforeEach
+    void setUp() {
+        observationRegistry.observationConfig()
+                .observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        underTest = new CustomerRoutingDataAccessService(
+                Map.of("jdbc", jdbc, "jpa", jpa, "cached", cached, "offheap", offheap, "list", list),
+                shadowExecutor,
+                meterRegistry,
+                observationRegistry,
+                "jdbc", "jdbc", "jdbc", "", 0.0, false
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        shadowExecutor.shutdownNow();
+    }
+
+    @Test
+    void rejectsWritesToReadOnlyBackend() {
+        assertThatThrownBy(() -> underTest.setRoutes(underTest.getRoutes().with(CustomerDaoRoutes.Operation.BULK, "offheap")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("read-only");
+    }
+
+    @Test
+    void rejectsReadsThatWouldNotSeeWrites() {
+        CustomerDaoRoutes routes = underTest.getRoutes();
+
+        assertThatThrownBy(() -> underTest.setRoutes(routes.with(CustomerDaoRoutes.Operation.READ, "cached")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[cached] would not see writes through [jdbc]");
+        assertThatThrownBy(() -> underTest.setRoutes(routes.with(CustomerDaoRoutes.Operation.READ, "offheap")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(underTest.getRoutes()).isEqualTo(routes);
+    }
+
+    @Test
+    void cachedReadsAreAllowedOnceWritesGoThroughTheCache() {
+        underTest.setRoutes(new CustomerDaoRoutes("cached", "cached", "cached", "", 0.0));
+        underTest.setRoutes(underTest.getRoutes().with(CustomerDaoRoutes.Operation.READ, "jdbc"));
+
+        assertThat(underTest.getRoutes().read()).isEqualTo("jdbc");
+    }
+
+    @Test
+    void rejectsShadowingAgainstDetachedList() {
+        assertThatThrownBy(() -> underTest.setRoutes(underTest.getRoutes().withShadow("list", 1.0)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("own data");
+    }
+
+    @Test
+    void routesEachOperationToItsBackend() {
+        underTest.setRoutes(underTest.getRoutes().with(CustomerDaoRoutes.Operation.READ, "jpa"));
+        Customer customer = new Customer("al", "al@gmail.com", 20);
+
+        underTest.selectAllCustomerViews();
+        underTest.insertCustomer(customer);
+        underTest.deleteCustomersByIds(new int[]{1});
+
+        verify(jpa).selectAllCustomerViews();
+        verify(jdbc).insertCustomer(customer);
+        verify(jdbc).deleteCustomersByIds(new int[]{1});
+        verifyNoMoreInteractions(jpa, jdbc);
+        assertThat(meterRegistry.get("customer.dao.calls").tag("backend", "jpa").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownBackend() {
+        CustomerDaoRoutes routes = underTest.getRoutes().with(CustomerDaoRoutes.Operation.WRITE, "mongo");
+
+        assertThatThrownBy(() -> underTest.setRoutes(routes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("mongo");
+        assertThat(underTest.getRoutes().write()).isEqualTo("jdbc");
+    }
+
+    @Test
+    void mirrorsReadsToShadowAndCountsMismatches() throws Exception {
+        underTest.setRoutes(underTest.getRoutes().withShadow("jpa", 1.0));
+        CustomerView view = new CustomerView(1, "al", "al@gmail.com", 20);
+        when(jdbc.selectCustomerViewById(1)).thenReturn(Optional.of(view));
+        when(jpa.selectCustomerViewById(1)).thenReturn(Optional.empty());
+
+        assertThat(underTest.selectCustomerViewById(1)).contains(view);
+        underTest.deleteCustomerById(1);
+
+        shadowExecutor.shutdown();
+        assertThat(shadowExecutor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("customer.dao.shadow.results").tag("result", "mismatch").counter().count())
+                .isEqualTo(1);
+        verify(jpa, never()).deleteCustomerById(1);
+    }
+
+    @Test
+    void comparesListsRegardlessOfOrder() {
+        CustomerView a = new CustomerView(1, "a", "a@gmail.com", 20);
+        CustomerView b = new CustomerView(2, "b", "b@gmail.com", 30);
+
+        assertThat(CustomerRoutingDataAccessService.sameResult(List.of(a, b), List.of(b, a))).isTrue();
+        assertThat(CustomerRoutingDataAccessService.sameResult(List.of(a, a), List.of(a, b))).isFalse();
+        assertThat(CustomerRoutingDataAccessService.sameResult(new int[]{3, 1}, new int[]{1, 3})).isTrue();
+    }
+}
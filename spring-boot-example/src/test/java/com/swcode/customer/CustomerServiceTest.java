@@ -12,7 +12,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,11 +32,15 @@ class CustomerServiceTest {
 
     @Mock
     private CustomerDao customerDao;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     private CustomerService underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new CustomerService(customerDao);
+        underTest = new CustomerService(customerDao, new EmailReservations(), eventPublisher, transactionManager, 2);
     }
 
     @Test
@@ -68,6 +78,40 @@ class CustomerServiceTest {
                 .hasMessageContaining("customer with id [%s] not found".formatted(id));
     }
 
+    @Test
+    void getAllCustomerViews() {
+        underTest.getAllCustomerViews();
+
+        verify(customerDao).selectAllCustomerViews();
+    }
+
+    @Test
+    void willThrowWhenGetCustomerViewReturnsEmptyOptional() {
+        int id = 1;
+        when(customerDao.selectCustomerViewById(id))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> underTest.getCustomerView(id))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("customer with id [%s] not found".formatted(id));
+    }
+
+    @Test
+    void getCustomerViewsByIds() {
+        int[] ids = {1, 2};
+
+        underTest.getCustomerViews(ids);
+
+        verify(customerDao).selectCustomerViewsByIds(ids);
+    }
+
+    @Test
+    void getCustomerViewsByNoIdsSkipsDao() {
+        assertThat(underTest.getCustomerViews(new int[0])).isEmpty();
+
+        verifyNoInteractions(customerDao);
+    }
+
     @Test
     void addCustomer() {
         String email = "al@gmail.com";
@@ -92,6 +136,51 @@ class CustomerServiceTest {
         assertThat(capturedCustomer.getAge()).isEqualTo(request.age());
     }
 
+    @Test
+    void addCustomerStoresNormalizedEmail() {
+        when(customerDao.existsPersonWithEmail("al@gmail.com")).thenReturn(false);
+
+        underTest.addCustomer(new CustomerRegistrationRequest("al", "  Al@GMail.com ", 39));
+
+        ArgumentCaptor<Customer> customerArgumentCaptor = ArgumentCaptor.forClass(Customer.class);
+        verify(customerDao).insertCustomer(customerArgumentCaptor.capture());
+        assertThat(customerArgumentCaptor.getValue().getEmail()).isEqualTo("al@gmail.com");
+    }
+
+    @Test
+    void willThrowWhenInsertHitsUniqueEmailIndex() {
+        when(customerDao.existsPersonWithEmail("al@gmail.com")).thenReturn(false);
+        doThrow(new DuplicateKeyException("customer_email_normalized_unique"))
+                .when(customerDao).insertCustomer(any());
+
+        assertThatThrownBy(() -> underTest.addCustomer(new CustomerRegistrationRequest("al", "al@gmail.com", 39)))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("email already taken");
+    }
+
+    @Test
+    void willThrowWhenJpaInsertHitsUniqueEmailIndex() {
+        when(customerDao.existsPersonWithEmail("al@gmail.com")).thenReturn(false);
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(customerDao).insertCustomer(any());
+
+        assertThatThrownBy(() -> underTest.addCustomer(new CustomerRegistrationRequest("al", "al@gmail.com", 39)))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("email already taken");
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotReportedAsDuplicates() {
+        when(customerDao.existsPersonWithEmail("al@gmail.com")).thenReturn(false);
+        DataIntegrityViolationException notNull = new DataIntegrityViolationException("could not execute statement",
+                new SQLException("null value in column violates not-null constraint", "23502"));
+        doThrow(notNull).when(customerDao).insertCustomer(any());
+
+        assertThatThrownBy(() -> underTest.addCustomer(new CustomerRegistrationRequest("al", "al@gmail.com", 39)))
+                .isSameAs(notNull);
+    }
+
     @Test
     void willThrowWhenEmailExistsWhileAddingACustomer() {
         String email = "al@gmail.com";
@@ -109,6 +198,34 @@ class CustomerServiceTest {
         verify(customerDao, never()).insertCustomer(any());
     }
 
+    @Test
+    void addCustomersRegistersEachRequest() {
+        CustomerBulkResult actual = underTest.addCustomers(List.of(
+                new CustomerRegistrationRequest("al", "al@gmail.com", 39),
+                new CustomerRegistrationRequest("bo", "bo@gmail.com", 40)));
+
+        assertThat(actual.affected()).isEqualTo(2);
+        verify(customerDao, times(2)).insertCustomer(any());
+        verify(transactionManager).commit(any());
+        verify(eventPublisher, times(2)).publishEvent(any(CustomerEvent.class));
+    }
+
+    @Test
+    void addCustomersRollsBackWholeBatchOnFailingRecord() {
+        when(customerDao.existsPersonWithEmail(anyString()))
+                .thenAnswer(invocation -> "bo@gmail.com".equals(invocation.getArgument(0)));
+
+        assertThatThrownBy(() -> underTest.addCustomers(List.of(
+                new CustomerRegistrationRequest("al", "al@gmail.com", 39),
+                new CustomerRegistrationRequest("bo", "bo@gmail.com", 40))))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessage("record 2: email already taken");
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     void deleteCustomerById() {
         int id = 10;
@@ -118,6 +235,7 @@ class CustomerServiceTest {
         underTest.deleteCustomerById(id);
 
         verify(customerDao).deleteCustomerById(id);
+        verify(eventPublisher).publishEvent(CustomerEvent.deleted(id));
     }
 
     @Test
@@ -131,6 +249,7 @@ class CustomerServiceTest {
                 .hasMessage("customer with id [%s] not found".formatted(id));
 
         verify(customerDao, never()).deleteCustomerById(id);
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -309,4 +428,55 @@ class CustomerServiceTest {
 
         verify(customerDao, never()).updateCustomer(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteCustomersByIdsInChunks() {
+        when(customerDao.deleteCustomersByIds(any())).thenReturn(2, 1);
+
+        CustomerBulkResult actual = underTest.deleteCustomers(
+                new CustomerBulkDeleteRequest(new int[]{1, 2, 3}, null, null));
+
+        assertThat(actual.affected()).isEqualTo(3);
+        verify(customerDao).deleteCustomersByIds(new int[]{1, 2});
+        verify(customerDao).deleteCustomersByIds(new int[]{3});
+        verify(eventPublisher).publishEvent(CustomerEvent.resync());
+    }
+
+    @Test
+    void deleteCustomersByAgeRangeContinuesPastShortChunkUntilEmpty() {
+        // a row changed concurrently leaves the second chunk short
+        when(customerDao.deleteCustomersByAgeRange(10, 20, Integer.MIN_VALUE, 2)).thenReturn(new int[]{1, 2});
+        when(customerDao.deleteCustomersByAgeRange(10, 20, 2, 2)).thenReturn(new int[]{4});
+        when(customerDao.deleteCustomersByAgeRange(10, 20, 4, 2)).thenReturn(new int[]{5, 6});
+        when(customerDao.deleteCustomersByAgeRange(10, 20, 6, 2)).thenReturn(new int[0]);
+
+        CustomerBulkResult actual = underTest.deleteCustomers(
+                new CustomerBulkDeleteRequest(null, 10, 20));
+
+        assertThat(actual.affected()).isEqualTo(5);
+        verify(customerDao, times(4)).deleteCustomersByAgeRange(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void updateCustomersByAgeRangeAdvancesKeysetCursor() {
+        when(customerDao.updateCustomerAgeByAgeRange(10, 20, 15, Integer.MIN_VALUE, 2))
+                .thenReturn(new int[]{4, 7});
+        when(customerDao.updateCustomerAgeByAgeRange(10, 20, 15, 7, 2))
+                .thenReturn(new int[0]);
+
+        CustomerBulkResult actual = underTest.updateCustomers(
+                new CustomerBulkUpdateRequest(null, 10, 20, 15));
+
+        assertThat(actual.affected()).isEqualTo(2);
+    }
+
+    @Test
+    void willThrowWhenBulkRequestHasBothIdsAndAgeRange() {
+        assertThatThrownBy(() -> underTest.deleteCustomers(
+                new CustomerBulkDeleteRequest(new int[]{1}, 10, 20)))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessage("specify either ids or an age range");
+
+        verifyNoInteractions(customerDao);
+    }
+}
@@ -0,0 +1,69 @@
+package com.swcode.customer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip() throws IOException {
+        Path file = dir.resolve("hot-set.bin");
+        List<CustomerView> customers = List.of(
+                new CustomerView(1, "al", "al@gmail.com", 19),
+                new CustomerView(2, "jämila", "jamila@gmail.com", 23)
+        );
+
+        CustomerSnapshot.write(file, customers);
+        CustomerSnapshot.Contents actual = CustomerSnapshot.read(file);
+
+        assertThat(actual.customers()).isEqualTo(customers);
+        assertThat(actual.createdAt()).isNotNull();
+    }
+
+    @Test
+    void willThrowWhenFileIsNotASnapshot() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[32]);
+
+        assertThatThrownBy(() -> CustomerSnapshot.read(file))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void willThrowWhenSnapshotIsTruncated() throws IOException {
+        Path file = dir.resolve("hot-set.bin");
+        CustomerSnapshot.write(file, List.of(new CustomerView(1, "al", "al@gmail.com", 19)));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+        assertThatThrownBy(() -> CustomerSnapshot.read(file))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void willThrowWhenCountExceedsFile() throws IOException {
+        Path file = dir.resolve("hot-set.bin");
+        CustomerSnapshot.write(file, List.of(new CustomerView(1, "al", "al@gmail.com", 19)));
+        byte[] bytes = Files.readAllBytes(file);
+        // the count follows magic, version and creation time
+        ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE);
+        Files.write(file, bytes);
+
+        assertThatThrownBy(() -> CustomerSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("count");
+    }
+}
@@ -0,0 +1,92 @@
+package com.swcode.customer;
+
+import com.swcode.AbstractTestcontainers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerStatsServiceTest extends AbstractTestcontainers {
+
+    private final JdbcTemplate jdbcTemplate = getJdbcTemplate();
+    private CustomerStatsService underTest;
+    private String domain;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new CustomerStatsService(
+                jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                new SimpleMeterRegistry(),
+                1000
+        );
+        domain = UUID.randomUUID() + ".test";
+    }
+
+    @Test
+    void triggersKeepStatsInStepWithWrites() {
+        CustomerStats before = underTest.getStats();
+
+        jdbcTemplate.update("INSERT INTO customer(name, email, age) VALUES ('a', ?, 140), ('b', ?, 140)",
+                "a@" + domain, "b@" + domain.toUpperCase());
+        CustomerStats afterInsert = underTest.getStats();
+
+        assertThat(afterInsert.total()).isEqualTo(before.total() + 2);
+        assertThat(afterInsert.ageHistogram()).containsEntry(140, before.ageHistogram().getOrDefault(140, 0L) + 2);
+        assertThat(afterInsert.emailDomains()).containsEntry(domain, 2L);
+
+        jdbcTemplate.update("UPDATE customer SET age = 141 WHERE email = ?", "a@" + domain);
+        jdbcTemplate.update("UPDATE customer SET name = 'renamed' WHERE email LIKE ?", "%@" + domain);
+        CustomerStats afterUpdate = underTest.getStats();
+
+        assertThat(afterUpdate.total()).isEqualTo(afterInsert.total());
+        assertThat(afterUpdate.ageHistogram().get(141)).isEqualTo(before.ageHistogram().getOrDefault(141, 0L) + 1);
+        assertThat(afterUpdate.emailDomains()).containsEntry(domain, 2L);
+
+        jdbcTemplate.update("DELETE FROM customer WHERE lower(email) LIKE ?", "%@" + domain);
+        CustomerStats afterDelete = underTest.getStats();
+
+        assertThat(afterDelete.total()).isEqualTo(before.total());
+        assertThat(afterDelete.emailDomains()).doesNotContainKey(domain);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        jdbcTemplate.update("INSERT INTO customer(name, email, age) VALUES ('a', ?, 30)", "a@" + domain);
+        jdbcTemplate.update("UPDATE customer_email_domain_stats SET customers = 99 WHERE domain = ?", domain);
+        jdbcTemplate.update("INSERT INTO customer_age_stats(age, customers) VALUES (150, 5)");
+
+        underTest.reconcile();
+
+        CustomerStats stats = underTest.getStats();
+        assertThat(stats.emailDomains()).containsEntry(domain, 1L);
+        assertThat(stats.ageHistogram()).doesNotContainKey(150);
+        assertThat(stats.total()).isEqualTo(
+                jdbcTemplate.queryForObject("SELECT count(*) FROM customer", Long.class));
+    }
+
+    @Test
+    void sumsStripesAndReconcileFoldsThem() {
+        jdbcTemplate.update("INSERT INTO customer(name, email, age) VALUES ('a', ?, 151)", "a@" + domain);
+        // as if other connections had counted in other stripes, one of them wrongly
+        jdbcTemplate.update("INSERT INTO customer_email_domain_stats(domain, stripe, customers) VALUES (?, 100, 2)", domain);
+        jdbcTemplate.update("INSERT INTO customer_email_domain_stats(domain, stripe, customers) VALUES (?, 101, -2)", domain);
+        jdbcTemplate.update("INSERT INTO customer_age_stats(age, stripe, customers) VALUES (151, 100, 3)");
+
+        CustomerStats beforeReconcile = underTest.getStats();
+        assertThat(beforeReconcile.emailDomains()).containsEntry(domain, 1L);
+        assertThat(beforeReconcile.ageHistogram()).containsEntry(151, 4L);
+
+        underTest.reconcile();
+
+        CustomerStats stats = underTest.getStats();
+        assertThat(stats.ageHistogram()).containsEntry(151, 1L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM customer_age_stats WHERE age = 151", Integer.class)).isEqualTo(1);
+    }
+}
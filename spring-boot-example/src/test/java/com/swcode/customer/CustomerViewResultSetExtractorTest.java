@@ -0,0 +1,39 @@
+package com.swcode.customer;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CustomerViewResultSetExtractorTest {
+
+    @Test
+    void extractData() throws SQLException {
+        CustomerViewResultSetExtractor underTest = new CustomerViewResultSetExtractor();
+
+        ResultSet resultSet = mock(ResultSet.class);
+
+        when(resultSet.findColumn("id")).thenReturn(1);
+        when(resultSet.findColumn("name")).thenReturn(2);
+        when(resultSet.findColumn("email")).thenReturn(3);
+        when(resultSet.findColumn("age")).thenReturn(4);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getInt(1)).thenReturn(1, 2);
+        when(resultSet.getString(2)).thenReturn("al", "jamila");
+        when(resultSet.getString(3)).thenReturn("al@gmail.com", "jamila@gmail.com");
+        when(resultSet.getInt(4)).thenReturn(19, 23);
+
+        List<CustomerView> actual = underTest.extractData(resultSet);
+
+        assertThat(actual).containsExactly(
+                new CustomerView(1, "al", "al@gmail.com", 19),
+                new CustomerView(2, "jamila", "jamila@gmail.com", 23)
+        );
+        verify(resultSet, times(1)).findColumn("id");
+        verify(resultSet, never()).getInt("id");
+    }
+}
@@ -0,0 +1,105 @@
+package com.swcode.customer;
+
+import com.swcode.exception.DuplicateResourceException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class EmailReservationsTest {
+
+    private final EmailReservations underTest = new EmailReservations();
+
+    @Test
+    void normalizesCaseAndWhitespace() {
+        assertThat(EmailReservations.normalize("  Alex@Example.COM\t")).isEqualTo("alex@example.com");
+        assertThat(EmailReservations.normalize(null)).isNull();
+    }
+
+    @Test
+    void rejectsEmailThatIsAlreadyInFlightUntilReleased() {
+        EmailReservations.Reservation reservation = underTest.reserve("alex@example.com");
+
+        assertThatThrownBy(() -> underTest.reserve("alex@example.com"))
+                .isInstanceOf(DuplicateResourceException.class);
+
+        reservation.close();
+        underTest.reserve("alex@example.com").close();
+        assertThat(underTest.size()).isZero();
+    }
+
+    @Test
+    void overlappingRegistrationsReachTheDatabaseOncePerEmail() throws Exception {
+        int threads = 32;
+        int attemptsPerThread = 200;
+        List<String> emails = List.of("a@x.com", "b@x.com", "c@x.com", "d@x.com", "e@x.com");
+
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+        AtomicInteger inserts = new AtomicInteger();
+        CustomerDao customerDao = mock(CustomerDao.class);
+        when(customerDao.existsPersonWithEmail(anyString()))
+                .thenAnswer(invocation -> stored.contains(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> {
+            inserts.incrementAndGet();
+            if (!stored.add(invocation.<Customer>getArgument(0).getEmail())) {
+                throw new DuplicateKeyException("customer_email_normalized_unique");
+            }
+            return null;
+        }).when(customerDao).insertCustomer(any());
+        CustomerService customerService = new CustomerService(
+                customerDao, underTest, event -> { }, mock(PlatformTransactionManager.class), 1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger registered = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        String email = emails.get((offset + i) % emails.size());
+                        try {
+                            customerService.addCustomer(
+                                    new CustomerRegistrationRequest("name", email.toUpperCase(), 30));
+                            registered.incrementAndGet();
+                        } catch (DuplicateResourceException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(registered.get()).isEqualTo(emails.size());
+        assertThat(rejected.get()).isEqualTo(threads * attemptsPerThread - emails.size());
+        assertThat(inserts.get()).isEqualTo(emails.size());
+        assertThat(stored).containsExactlyInAnyOrderElementsOf(emails);
+        assertThat(underTest.size()).isZero();
+    }
+}
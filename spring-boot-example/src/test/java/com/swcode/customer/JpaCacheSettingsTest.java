@@ -0,0 +1,54 @@
+package com.swcode.customer;
+
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JpaCacheSettingsTest {
+
+    private static final String PREFIX = "spring.jpa.properties.";
+
+    @Test
+    void secondLevelCacheIsOffByDefault() {
+        assertThat(regionFactory(new ClassPathResource("application.yml")))
+                .isInstanceOf(NoCachingRegionFactory.class);
+    }
+
+    @Test
+    void secondLevelCacheIsOnInJpaPerformanceProfile() {
+        assertThat(regionFactory(new ClassPathResource("application.yml"),
+                new ClassPathResource("application-jpa-performance.yml")))
+                .isInstanceOf(JCacheRegionFactory.class);
+    }
+
+    private static RegionFactory regionFactory(Resource... resources) {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(resources);
+        Properties properties = yaml.getObject();
+        Map<String, Object> settings = new HashMap<>();
+        // YAML booleans are kept as Boolean values, so stringPropertyNames() would skip them
+        properties.forEach((name, value) -> {
+            if (name.toString().startsWith(PREFIX)) {
+                settings.put(name.toString().substring(PREFIX.length()), value);
+            }
+        });
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder().applySettings(settings).build();
+        try {
+            return registry.getService(RegionFactory.class);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.swcode.customer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapCustomerTableTest {
+
+    @Test
+    void findsRowsByIdAndEmailAcrossBufferGrowth() {
+        OffHeapCustomerTable.Builder builder = new OffHeapCustomerTable.Builder();
+        for (int id = 1; id <= 10_000; id++) {
+            builder.add(id * 7, "name-" + id, "user" + id + "@gmail.com", id % 100);
+        }
+
+        OffHeapCustomerTable underTest = builder.build();
+
+        assertThat(underTest.rows()).isEqualTo(10_000);
+        int row = underTest.findById(7 * 4_321);
+        assertThat(underTest.view(row))
+                .isEqualTo(new CustomerView(7 * 4_321, "name-4321", "user4321@gmail.com", 21));
+        assertThat(underTest.findByEmail("user9999@gmail.com")).isEqualTo(underTest.findById(7 * 9_999));
+    }
+
+    @Test
+    void returnsMinusOneForMissingKeys() {
+        OffHeapCustomerTable underTest = new OffHeapCustomerTable.Builder()
+                .add(1, "al", "al@gmail.com", 20)
+                .build();
+
+        assertThat(underTest.findById(2)).isEqualTo(-1);
+        assertThat(underTest.findByEmail("jamila@gmail.com")).isEqualTo(-1);
+    }
+
+    @Test
+    void storesMultiByteStrings() {
+        OffHeapCustomerTable underTest = new OffHeapCustomerTable.Builder()
+                .add(1, "jämila", "jämila@gmail.com", 20)
+                .build();
+
+        assertThat(underTest.name(0)).isEqualTo("jämila");
+        assertThat(underTest.findByEmail("jämila@gmail.com")).isZero();
+    }
+
+    @Test
+    void emptyTable() {
+        OffHeapCustomerTable underTest = new OffHeapCustomerTable.Builder().build();
+
+        assertThat(underTest.rows()).isZero();
+        assertThat(underTest.findById(1)).isEqualTo(-1);
+    }
+}
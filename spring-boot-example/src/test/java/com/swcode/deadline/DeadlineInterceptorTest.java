@@ -0,0 +1,73 @@
+package com.swcode.deadline;
+
+import com.swcode.exception.RequestValidationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineInterceptorTest {
+
+    private final DeadlineInterceptor underTest = new DeadlineInterceptor(
+            new MockEnvironment().withProperty("deadline.stream-timeout", "10m"),
+            Duration.ofSeconds(5),
+            Duration.ofSeconds(30)
+    );
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    @Test
+    void usesClientTimeoutCappedAtMaximum() throws Exception {
+        request.addHeader(DeadlineInterceptor.REQUEST_TIMEOUT_HEADER, "250");
+        assertThat(underTest.timeout(request, handler("annotated"))).isEqualTo(Duration.ofMillis(250));
+
+        MockHttpServletRequest greedy = new MockHttpServletRequest();
+        greedy.addHeader(DeadlineInterceptor.REQUEST_TIMEOUT_HEADER, "5m");
+        assertThat(underTest.timeout(greedy, handler("plain"))).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void fallsBackToEndpointThenGlobalDefault() throws Exception {
+        assertThat(underTest.timeout(request, handler("annotated"))).isEqualTo(Duration.ofMinutes(10));
+        assertThat(underTest.timeout(request, handler("plain"))).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void rejectsMalformedHeader() {
+        request.addHeader(DeadlineInterceptor.REQUEST_TIMEOUT_HEADER, "soon");
+
+        assertThatThrownBy(() -> underTest.timeout(request, handler("plain")))
+                .isInstanceOf(RequestValidationException.class);
+    }
+
+    @Test
+    void bindsDeadlineForTheRequestAndReleasesIt() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handler = handler("plain");
+
+        underTest.preHandle(request, response, handler);
+        assertThat(Deadline.current()).isPresent();
+
+        underTest.afterCompletion(request, response, handler, null);
+        assertThat(Deadline.current()).isEmpty();
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(name));
+    }
+
+    static class Handlers {
+
+        @RequestDeadline("${deadline.stream-timeout}")
+        public void annotated() {
+        }
+
+        public void plain() {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.swcode.deadline;
+
+import com.swcode.exception.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+import org.postgresql.jdbc.PgStatement;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.*;
+
+class DeadlineJdbcTemplateTest {
+
+    private final DeadlineJdbcTemplate underTest = new DeadlineJdbcTemplate(mock(DataSource.class));
+
+    @Test
+    void appliesRemainingTimeAsQueryTimeout() throws Exception {
+        PgStatement statement = mock(PgStatement.class);
+        when(statement.isWrapperFor(PgStatement.class)).thenReturn(true);
+        when(statement.unwrap(PgStatement.class)).thenReturn(statement);
+
+        try (Deadline.Scope ignored = Deadline.after(Duration.ofSeconds(2)).attach()) {
+            underTest.applyStatementSettings(statement);
+        }
+
+        verify(statement).setQueryTimeoutMs(longThat(millis -> millis > 0 && millis <= 2000));
+    }
+
+    @Test
+    void leavesStatementAloneOutsideARequest() throws Exception {
+        Statement statement = mock(Statement.class);
+
+        underTest.applyStatementSettings(statement);
+
+        verify(statement, never()).setQueryTimeout(anyInt());
+        verify(statement, never()).cancel();
+    }
+
+    @Test
+    void cancellingDeadlineCancelsRunningStatement() throws Exception {
+        Statement statement = mock(Statement.class);
+        Deadline deadline = Deadline.after(Duration.ofSeconds(30));
+
+        try (Deadline.Scope ignored = deadline.attach()) {
+            underTest.applyStatementSettings(statement);
+            deadline.cancel();
+
+            verify(statement).setQueryTimeout(30);
+            verify(statement).cancel();
+            assertThatThrownBy(() -> underTest.applyStatementSettings(statement))
+                    .isInstanceOf(DeadlineExceededException.class);
+        }
+    }
+}
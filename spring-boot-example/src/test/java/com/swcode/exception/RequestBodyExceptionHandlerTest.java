@@ -0,0 +1,45 @@
+package com.swcode.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.swcode.customer.CustomerRegistrationRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RequestBodyExceptionHandlerTest {
+
+    private final RequestBodyExceptionHandler underTest = new RequestBodyExceptionHandler();
+
+    @Test
+    void answersWithValidationMessageFromRecordConstructor() throws Exception {
+        Throwable binding = catchThrowable(() -> new ObjectMapper()
+                .registerModule(new BlackbirdModule())
+                .readValue("{\"name\":\"al\",\"email\":\"al-at-gmail.com\",\"age\":20}",
+                        CustomerRegistrationRequest.class));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        underTest.handleUnreadableBody(unreadable(binding), response);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getErrorMessage()).isEqualTo("email is not a valid address");
+    }
+
+    @Test
+    void leavesOtherParseErrorsToDefaultMessage() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        underTest.handleUnreadableBody(unreadable(new IllegalStateException("unexpected end of input")), response);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getErrorMessage()).isNull();
+    }
+
+    private static HttpMessageNotReadableException unreadable(Throwable cause) {
+        return new HttpMessageNotReadableException("JSON parse error", cause, new MockHttpInputMessage(new byte[0]));
+    }
+}
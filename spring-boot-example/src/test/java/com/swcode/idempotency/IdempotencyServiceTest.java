@@ -0,0 +1,120 @@
+package com.swcode.idempotency;
+
+import com.swcode.exception.DuplicateResourceException;
+import com.swcode.exception.RequestValidationException;
+import com.swcode.customer.CustomerRegistrationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyService underTest;
+    private final CustomerRegistrationRequest request =
+            new CustomerRegistrationRequest("al", "al@gmail.com", 20);
+
+    @BeforeEach
+    void setUp() {
+        underTest = new IdempotencyService(jdbcTemplate, Duration.ofHours(1), Duration.ofMinutes(5), 10);
+    }
+
+    @Test
+    void runsActionWithoutKey() {
+        AtomicInteger calls = new AtomicInteger();
+
+        underTest.execute("client-a", null, "registerCustomer", request, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(1);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void retryIsServedFromMemoryWithoutRunningActionAgain() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT"), eq("client-a"), eq("key-1"), anyString(), anyString(), anyDouble())).thenReturn(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        underTest.execute("client-a", "key-1", "registerCustomer", request, calls::incrementAndGet);
+        clearInvocations(jdbcTemplate);
+        underTest.execute("client-a", "key-1", "registerCustomer", request, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(1);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void willThrowWhenKeyIsReusedForDifferentRequest() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT"), eq("client-a"), eq("key-1"), anyString(), anyString(), anyDouble())).thenReturn(1);
+        underTest.execute("client-a", "key-1", "registerCustomer", request, () -> {});
+
+        CustomerRegistrationRequest other = new CustomerRegistrationRequest("al", "other@gmail.com", 20);
+
+        assertThatThrownBy(() -> underTest.execute("client-a", "key-1", "registerCustomer", other, () -> {}))
+                .isInstanceOf(RequestValidationException.class)
+                .hasMessageContaining("key-1");
+    }
+
+    @Test
+    void releasesClaimWhenActionFails() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT"), eq("client-a"), eq("key-1"), anyString(), anyString(), anyDouble())).thenReturn(1);
+
+        assertThatThrownBy(() -> underTest.execute("client-a", "key-1", "registerCustomer", request, () -> {
+            throw new DuplicateResourceException("email already taken");
+        })).isInstanceOf(DuplicateResourceException.class);
+
+        verify(jdbcTemplate).update(startsWith("DELETE"), eq("client-a"), eq("key-1"), anyString());
+    }
+
+    @Test
+    void sameKeyFromAnotherClientIsIndependent() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT"), anyString(), eq("key-1"), anyString(), anyString(), anyDouble()))
+                .thenReturn(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        underTest.execute("client-a", "key-1", "registerCustomer", request, calls::incrementAndGet);
+        underTest.execute("client-b", "key-1", "registerCustomer", request, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void claimTakesOverOnlyExpiredLeases() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT"), eq("client-a"), eq("key-1"), anyString(), anyString(), anyDouble()))
+                .thenReturn(1);
+
+        underTest.execute("client-a", "key-1", "registerCustomer", request, () -> {});
+
+        verify(jdbcTemplate).update(
+                contains("claimed_at < now() - make_interval(secs => ?)"),
+                eq("client-a"), eq("key-1"), anyString(), anyString(), eq(300.0));
+    }
+
+    @Test
+    void inProgressClaimIsRejected() {
+        lenient().when(jdbcTemplate.update(startsWith("INSERT"), eq("client-a"), eq("key-1"), anyString(), anyString(), anyDouble()))
+                .thenReturn(0);
+        AtomicInteger calls = new AtomicInteger();
+        when(jdbcTemplate.query(startsWith("SELECT"), any(RowMapper.class), eq("client-a"), eq("key-1")))
+                .thenAnswer(invocation -> List.of(new IdempotentResponse(IdempotencyService.hash("registerCustomer", request), 0)));
+
+        assertThatThrownBy(() -> underTest.execute("client-a", "key-1", "registerCustomer", request, calls::incrementAndGet))
+                .isInstanceOf(DuplicateResourceException.class)
+                .hasMessageContaining("in progress");
+        assertThat(calls).hasValue(0);
+    }
+}
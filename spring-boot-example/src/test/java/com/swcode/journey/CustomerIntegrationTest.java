@@ -9,11 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Random;
 import java.util.UUID;
 
@@ -38,6 +40,8 @@ public class CustomerIntegrationTest {
 
         String name = fakerName.fullName();
         String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@gmail.com";
+        // emails are stored normalised
+        String storedEmail = email.toLowerCase(Locale.ROOT);
         int age = RANDOM.nextInt(1, 100);
 
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
@@ -67,7 +71,7 @@ public class CustomerIntegrationTest {
 
         //make sure that customer is present
         Customer expectedCustomer = new Customer(
-                name, email, age
+                name, storedEmail, age
         );
 
         assertThat(allCustomers)
@@ -75,7 +79,7 @@ public class CustomerIntegrationTest {
                 .contains(expectedCustomer);
 
         var id = allCustomers.stream()
-                .filter(customer -> customer.getEmail().equals(email))
+                .filter(customer -> customer.getEmail().equals(storedEmail))
                 .map(Customer::getId)
                 .findFirst()
                 .orElseThrow();
@@ -102,6 +106,8 @@ public class CustomerIntegrationTest {
 
         String name = fakerName.fullName();
         String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@gmail.com";
+        // emails are stored normalised
+        String storedEmail = email.toLowerCase(Locale.ROOT);
         int age = RANDOM.nextInt(1, 100);
 
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
@@ -131,7 +137,7 @@ public class CustomerIntegrationTest {
                 .getResponseBody();
 
         var id = allCustomers.stream()
-                .filter(customer -> customer.getEmail().equals(email))
+                .filter(customer -> customer.getEmail().equals(storedEmail))
                 .map(Customer::getId)
                 .findFirst()
                 .orElseThrow();
@@ -162,6 +168,8 @@ public class CustomerIntegrationTest {
 
         String name = fakerName.fullName();
         String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@gmail.com";
+        // emails are stored normalised
+        String storedEmail = email.toLowerCase(Locale.ROOT);
         int age = RANDOM.nextInt(1, 100);
 
         CustomerRegistrationRequest request = new CustomerRegistrationRequest(
@@ -191,7 +199,7 @@ public class CustomerIntegrationTest {
                 .getResponseBody();
 
         var id = allCustomers.stream()
-                .filter(customer -> customer.getEmail().equals(email))
+                .filter(customer -> customer.getEmail().equals(storedEmail))
                 .map(Customer::getId)
                 .findFirst()
                 .orElseThrow();
@@ -224,11 +232,41 @@ public class CustomerIntegrationTest {
                 .getResponseBody();
 
         Customer expected = new Customer(
-                id, newName, email, age
+                id, newName, storedEmail, age
         );
 
         assertThat(updatedCustomer).isEqualTo(expected);
     }
-}
 
+    @Test
+    void cannotRegisterSameEmailWithDifferentCase() {
+        Faker faker = new Faker();
+        Name fakerName = faker.name();
+
+        String name = fakerName.fullName();
+        String email = fakerName.lastName() + "-" + UUID.randomUUID() + "@gmail.com";
+        int age = RANDOM.nextInt(1, 100);
 
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(new CustomerRegistrationRequest(name, email, age)), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+        CustomerRegistrationRequest duplicate = new CustomerRegistrationRequest(
+                name, " " + email.toUpperCase(Locale.ROOT) + " ", age
+        );
+
+        webTestClient.post()
+                .uri(CUSTOMER_URI)
+                .accept(MediaType.APPLICATION_JSON)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Mono.just(duplicate), CustomerRegistrationRequest.class)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,116 @@
+package com.swcode.loadtest;
+
+import com.swcode.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Blocking and async customer endpoints side by side behind a slow database,
+ * run with {@code mvn -P loadtest verify}. Every connection checkout waits
+ * {@code loadtest.db-latency} in {@code pg_sleep} (see {@link DatabaseLatency}),
+ * and the server gets fewer request threads than the pool has connections, so
+ * the blocking endpoints run out of threads before the async ones run out of
+ * connections. Each pair is offered the same rate; results go to
+ * {@code async-results.properties} next to {@code loadtest.report} and are
+ * compared with {@code loadtest/async-baseline.properties}.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = {
+        "admission.enabled=false",
+        "customer.routing.read=jdbc",
+        "customer.routing.write=jdbc",
+        "customer.routing.bulk=jdbc",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "server.tomcat.threads.max=8",
+        "server.undertow.threads.worker=8"
+})
+class CustomerAsyncLoadTest extends AbstractTestcontainers {
+
+    private static final int SEEDED_CUSTOMERS = 50;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @LocalServerPort
+    private int port;
+
+    @TestConfiguration
+    static class SlowDatabase {
+        @Bean
+        static DatabaseLatency databaseLatency() {
+            return new DatabaseLatency(Duration.parse(System.getProperty("loadtest.db-latency", "PT0.05S")));
+        }
+    }
+
+    @BeforeAll
+    static void seed() {
+        List<Object[]> rows = IntStream.range(0, SEEDED_CUSTOMERS)
+                .mapToObj(i -> new Object[]{FAKER.name().fullName(), "async-" + i + "@example.com", 30})
+                .toList();
+        getJdbcTemplate().batchUpdate("INSERT INTO customer(name, email, age) VALUES (?, ?, ?)", rows);
+    }
+
+    @Test
+    void asyncEndpointsMeetBaselineBehindSlowDatabase() throws Exception {
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.20"));
+        Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest/results.properties"))
+                .resolveSibling("async-results.properties");
+
+        int[] ids = getJdbcTemplate().queryForList("SELECT id FROM customer ORDER BY id", Integer.class)
+                .stream().mapToInt(Integer::intValue).toArray();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadRunner runner = new LoadRunner(Transport.pooled(client), concurrency, duration.dividedBy(5), duration);
+
+        List<LoadResult> results = new ArrayList<>();
+        for (String mode : List.of("blocking", "async")) {
+            String base = mode.equals("async") ? "/api/v1/async/customers" : "/api/v1/customers";
+            results.add(runner.run(LoadScenario.expectingOk("slow-db-list-" + mode, 120, () ->
+                    get(base))));
+            results.add(runner.run(LoadScenario.expectingOk("slow-db-update-" + mode, 40, () ->
+                    send("PUT", base + "/" + ids[ThreadLocalRandom.current().nextInt(ids.length)], """
+                            {"name":"Slow %d"}
+                            """.formatted(SEQUENCE.incrementAndGet())))));
+        }
+        PerformanceBaseline.write(results, report);
+
+        PerformanceBaseline baseline = PerformanceBaseline.load("loadtest/async-baseline.properties", tolerance);
+        assertThat(results.stream().flatMap(result -> baseline.regressions(result).stream()))
+                .as("regressions against loadtest/async-baseline.properties, results in " + report)
+                .isEmpty();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,155 @@
+package com.swcode.loadtest;
+
+import com.swcode.AbstractTestcontainers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Load and regression suite for the customer API, run with
+ * {@code mvn -P loadtest verify}. Each scenario is offered at a fixed request
+ * rate for {@code loadtest.duration}, with at most {@code loadtest.concurrency}
+ * requests in flight, and is compared with {@code loadtest/baseline.properties}.
+ * <p>
+ * The rates are about three quarters of what the reference machine sustains,
+ * so a throughput regression leaves a backlog that shows up as lower
+ * throughput and a longer tail. {@code -Dloadtest.rate-scale} multiplies every
+ * rate; such calibration runs, e.g. to find where a new machine saturates,
+ * only write the report.
+ * <p>
+ * The {@code small-reads-*} scenarios send the same small by-id reads over
+ * pooled HTTP/1.1 keep-alive connections, over HTTP/2 and over a new connection
+ * per request. HTTP/2 is only negotiated with the server's
+ * {@code connection-efficiency} profile
+ * ({@code -Dspring.profiles.active=connection-efficiency}); otherwise that
+ * scenario falls back to HTTP/1.1. Add {@code -Dcontainer=undertow} to run
+ * against Undertow instead of Tomcat.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "admission.enabled=false")
+class CustomerLoadTest extends AbstractTestcontainers {
+
+    private static final int SEEDED_CUSTOMERS = 5_000;
+    private static final int HOT_ROWS = 4;
+    private static final int OVERLAPPING_EMAILS = 16;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void seed() {
+        List<Object[]> rows = IntStream.range(0, SEEDED_CUSTOMERS)
+                .mapToObj(i -> new Object[]{
+                        FAKER.name().fullName(),
+                        "load-" + i + "@example.com",
+                        ThreadLocalRandom.current().nextInt(18, 90)
+                })
+                .toList();
+        getJdbcTemplate().batchUpdate("INSERT INTO customer(name, email, age) VALUES (?, ?, ?)", rows);
+    }
+
+    @Test
+    void customerApiMeetsBaseline() throws Exception {
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.20"));
+        Path report = Path.of(System.getProperty("loadtest.report", "target/loadtest/results.properties"));
+        double rateScale = Double.parseDouble(System.getProperty("loadtest.rate-scale", "1"));
+
+        int[] ids = getJdbcTemplate().queryForList("SELECT id FROM customer ORDER BY id", Integer.class)
+                .stream().mapToInt(Integer::intValue).toArray();
+        LoadRunner runner = runner(Transport.pooled(client(HttpClient.Version.HTTP_2)), concurrency, duration);
+        // a cold JVM falls behind on whichever scenario comes first and carries
+        // that backlog into its recorded window, so warm every path up first
+        LoadRunner warmUp = runner(Transport.pooled(client(HttpClient.Version.HTTP_2)), concurrency,
+                duration.dividedBy(5));
+        for (LoadScenario scenario : scenarios(ids)) {
+            warmUp.run(scenario.scaled(rateScale));
+        }
+
+        List<LoadResult> results = new ArrayList<>();
+        for (LoadScenario scenario : scenarios(ids)) {
+            results.add(runner.run(scenario.scaled(rateScale)));
+        }
+        LoadScenario smallReads = LoadScenario.expectingOk("small-reads", 800, () ->
+                get("/api/v1/customers/" + ids[ThreadLocalRandom.current().nextInt(ids.length)]));
+        results.add(runner(Transport.pooled(client(HttpClient.Version.HTTP_1_1)), concurrency, duration)
+                .run(smallReads.named("small-reads-keep-alive", 1000).scaled(rateScale)));
+        results.add(runner(Transport.pooled(client(HttpClient.Version.HTTP_2)), concurrency, duration)
+                .run(smallReads.named("small-reads-h2", 800).scaled(rateScale)));
+        results.add(runner(Transport.churning(), concurrency, duration)
+                .run(smallReads.named("small-reads-churn", 400).scaled(rateScale)));
+        PerformanceBaseline.write(results, report);
+        if (rateScale != 1) {
+            return;
+        }
+
+        PerformanceBaseline baseline = PerformanceBaseline.load("loadtest/baseline.properties", tolerance);
+        assertThat(results.stream().flatMap(result -> baseline.regressions(result).stream()))
+                .as("regressions against loadtest/baseline.properties, results in " + report)
+                .isEmpty();
+    }
+
+    private static LoadRunner runner(Transport transport, int concurrency, Duration duration) {
+        return new LoadRunner(transport, concurrency, duration.dividedBy(5), duration);
+    }
+
+    private static HttpClient client(HttpClient.Version version) {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    private List<LoadScenario> scenarios(int[] ids) {
+        return List.of(
+                LoadScenario.expectingOk("read-by-id", 800, () ->
+                        get("/api/v1/customers/" + ids[ThreadLocalRandom.current().nextInt(ids.length)])),
+                LoadScenario.expectingOk("full-list", 25, () ->
+                        get("/api/v1/customers")),
+                LoadScenario.expectingOk("registration-burst", 250, () ->
+                        send("POST", "/api/v1/customers", """
+                                {"name":"Load Test","email":"burst-%d@example.com","age":30}
+                                """.formatted(SEQUENCE.incrementAndGet()))),
+                new LoadScenario("registration-overlap", 350, () ->
+                        send("POST", "/api/v1/customers", """
+                                {"name":"Load Test","email":" Overlap-%d@Example.com ","age":30}
+                                """.formatted(ThreadLocalRandom.current().nextInt(OVERLAPPING_EMAILS))),
+                        status -> status == 200 || status == 409),
+                LoadScenario.expectingOk("update-contention", 150, () ->
+                        send("PUT", "/api/v1/customers/" + ids[ThreadLocalRandom.current().nextInt(HOT_ROWS)], """
+                                {"name":"Contended %d"}
+                                """.formatted(SEQUENCE.incrementAndGet())))
+        );
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
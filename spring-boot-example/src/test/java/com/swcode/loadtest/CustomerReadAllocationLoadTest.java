@@ -0,0 +1,69 @@
+package com.swcode.loadtest;
+
+import com.swcode.AbstractTestcontainers;
+import com.swcode.customer.Customer;
+import com.swcode.customer.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares what the JPA full-table reads allocate, run with
+ * {@code mvn -P loadtest verify}. Allocation is measured per thread, so the
+ * numbers hold only while the read runs on the test thread.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CustomerReadAllocationLoadTest extends AbstractTestcontainers {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void projectionsAndReadOnlyEntitiesAllocateLessThanFindAll() {
+        customerRepository.saveAll(IntStream.range(0, ROWS)
+                .mapToObj(i -> new Customer(FAKER.name().fullName(), "reads-" + i + "@example.com", 30))
+                .toList());
+        entityManager.flush();
+
+        Measurement findAll = measure(() -> customerRepository.findAll().size());
+        Measurement views = measure(() -> customerRepository.findAllViews().size());
+        Measurement readOnly = measure(() -> customerRepository.findAllReadOnly().size());
+
+        assertThat(List.of(findAll.rows(), views.rows(), readOnly.rows())).containsOnly(ROWS);
+        assertThat(views.allocatedBytes())
+                .as("findAllViews vs findAll allocated bytes")
+                .isLessThan(findAll.allocatedBytes());
+        assertThat(readOnly.allocatedBytes())
+                .as("findAllReadOnly vs findAll allocated bytes")
+                .isLessThan(findAll.allocatedBytes());
+    }
+
+    private Measurement measure(Supplier<Integer> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        read.get();
+        entityManager.clear();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        int rows = read.get();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        entityManager.clear();
+        return new Measurement(rows, allocated);
+    }
+
+    private record Measurement(int rows, long allocatedBytes) {
+    }
+}
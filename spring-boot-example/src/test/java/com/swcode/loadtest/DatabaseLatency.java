@@ -0,0 +1,54 @@
+package com.swcode.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Wraps the application's {@link DataSource} so every connection checkout
+ * first runs {@code SELECT pg_sleep(latency)} on it. The connection is held
+ * for the whole delay, as it would be behind a slow network or a busy
+ * database, so pool and thread usage behave as they would in production.
+ */
+class DatabaseLatency implements BeanPostProcessor {
+
+    private final Duration latency;
+
+    DatabaseLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || latency.isZero()) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return delayed(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return delayed(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private Connection delayed(Connection connection) throws SQLException {
+        try (PreparedStatement sleep = connection.prepareStatement("SELECT pg_sleep(?)")) {
+            sleep.setDouble(1, latency.toNanos() / 1e9);
+            sleep.execute();
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+}
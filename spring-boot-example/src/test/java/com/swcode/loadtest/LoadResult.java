@@ -0,0 +1,45 @@
+package com.swcode.loadtest;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Outcome of a scenario run. Latencies are in milliseconds, CPU per request in
+ * microseconds.
+ */
+record LoadResult(String scenario, long requests, long errors, double throughput,
+                  double p50, double p99, double p999, double cpuPerRequest) {
+
+    static LoadResult of(String scenario, long[] latenciesNanos, long errors, Duration elapsed, long cpuNanos) {
+        long[] sorted = latenciesNanos.clone();
+        Arrays.sort(sorted);
+        return new LoadResult(
+                scenario,
+                sorted.length,
+                errors,
+                sorted.length / (elapsed.toNanos() / 1e9),
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                percentile(sorted, 0.999),
+                sorted.length == 0 ? Double.NaN : cpuNanos / 1e3 / sorted.length
+        );
+    }
+
+    double errorRate() {
+        return requests == 0 ? 1.0 : (double) errors / requests;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, rank)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "%s: %d requests, %d errors, %.1f req/s, p50 %.2f ms, p99 %.2f ms, p999 %.2f ms, cpu %.1f us/req"
+                .formatted(scenario, requests, errors, throughput, p50, p99, p999, cpuPerRequest);
+    }
+}
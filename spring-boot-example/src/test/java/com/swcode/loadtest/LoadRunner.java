@@ -0,0 +1,115 @@
+package com.swcode.loadtest;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are scheduled at the scenario's fixed
+ * arrival rate, whatever the server's response times, and up to
+ * {@code concurrency} workers send them. Latency is measured from a request's
+ * scheduled start, so time spent waiting behind a slow response counts against
+ * it instead of silently lowering the request rate (coordinated omission).
+ * Once the server falls behind, the backlog is still sent after the window
+ * ends and throughput is taken over the longer time. Requests scheduled during
+ * the warm-up are not recorded.
+ * <p>
+ * CPU per request is the process CPU time over the recorded window divided by
+ * the requests. The server runs in the same JVM as the workers, so it includes
+ * the load generator's own share; compare it between scenarios, not in absolute
+ * terms.
+ */
+class LoadRunner {
+
+    private static final OperatingSystemMXBean OS =
+            (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private final Transport transport;
+    private final int concurrency;
+    private final Duration warmUp;
+    private final Duration duration;
+
+    LoadRunner(Transport transport, int concurrency, Duration warmUp, Duration duration) {
+        this.transport = transport;
+        this.concurrency = concurrency;
+        this.warmUp = warmUp;
+        this.duration = duration;
+    }
+
+    LoadResult run(LoadScenario scenario) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        AtomicLong errors = new AtomicLong();
+        AtomicLong scheduled = new AtomicLong();
+        long intervalNanos = (long) (1e9 / scenario.ratePerSecond());
+        long start = System.nanoTime();
+        long recordFrom = start + warmUp.toNanos();
+        long stopAt = recordFrom + duration.toNanos();
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(workers.submit(() ->
+                        work(scenario, start, intervalNanos, scheduled, recordFrom, stopAt, errors)));
+            }
+            Thread.sleep(Math.max(0, (recordFrom - System.nanoTime()) / 1_000_000));
+            long cpuFrom = OS.getProcessCpuTime();
+            List<long[]> latencies = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                latencies.add(future.get());
+            }
+            long cpuNanos = OS.getProcessCpuTime() - cpuFrom;
+            Duration elapsed = Duration.ofNanos(Math.max(stopAt, System.nanoTime()) - recordFrom);
+            long[] all = latencies.stream().flatMapToLong(Arrays::stream).toArray();
+            return LoadResult.of(scenario.name(), all, errors.get(), elapsed, cpuNanos);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Claims the next scheduled start, waits for it unless it is already
+     * overdue, and records the latency from that start.
+     */
+    private long[] work(LoadScenario scenario, long start, long intervalNanos, AtomicLong scheduled,
+                        long recordFrom, long stopAt, AtomicLong errors) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long intended;
+        while ((intended = start + scheduled.getAndIncrement() * intervalNanos) < stopAt) {
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean ok;
+            try {
+                ok = scenario.accepted().test(transport.send(scenario.nextRequest().get()));
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long end = System.nanoTime();
+            if (intended < recordFrom) {
+                continue;
+            }
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = end - intended;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+}
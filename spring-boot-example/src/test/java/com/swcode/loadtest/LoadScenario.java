@@ -0,0 +1,25 @@
+package com.swcode.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * One request mix offered at {@code ratePerSecond}: {@code nextRequest} is
+ * called by every worker before each request and {@code accepted} decides which
+ * status codes count as success.
+ */
+record LoadScenario(String name, double ratePerSecond, Supplier<HttpRequest> nextRequest, IntPredicate accepted) {
+
+    static LoadScenario expectingOk(String name, double ratePerSecond, Supplier<HttpRequest> nextRequest) {
+        return new LoadScenario(name, ratePerSecond, nextRequest, status -> status == 200);
+    }
+
+    LoadScenario named(String name, double ratePerSecond) {
+        return new LoadScenario(name, ratePerSecond, nextRequest, accepted);
+    }
+
+    LoadScenario scaled(double factor) {
+        return named(name, ratePerSecond * factor);
+    }
+}
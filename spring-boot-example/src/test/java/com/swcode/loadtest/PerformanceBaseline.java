@@ -0,0 +1,87 @@
+package com.swcode.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Stored reference numbers per scenario ({@code <scenario>.throughput},
+ * {@code <scenario>.p99}, {@code <scenario>.p999}, {@code <scenario>.error-rate})
+ * and the comparison that fails a run. A run regresses when throughput drops,
+ * or a tail latency grows, by more than the tolerance.
+ */
+class PerformanceBaseline {
+
+    private final Properties baseline;
+    private final double tolerance;
+
+    private PerformanceBaseline(Properties baseline, double tolerance) {
+        this.baseline = baseline;
+        this.tolerance = tolerance;
+    }
+
+    static PerformanceBaseline load(String resource, double tolerance) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = PerformanceBaseline.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("missing load test baseline " + resource);
+            }
+            properties.load(in);
+        }
+        return new PerformanceBaseline(properties, tolerance);
+    }
+
+    List<String> regressions(LoadResult result) {
+        List<String> regressions = new ArrayList<>();
+        String scenario = result.scenario();
+        Double throughput = value(scenario, "throughput");
+        if (throughput != null && result.throughput() < throughput * (1 - tolerance)) {
+            regressions.add("%s throughput %.1f req/s is below baseline %.1f"
+                    .formatted(scenario, result.throughput(), throughput));
+        }
+        Double p99 = value(scenario, "p99");
+        if (p99 != null && result.p99() > p99 * (1 + tolerance)) {
+            regressions.add("%s p99 %.2f ms is above baseline %.2f".formatted(scenario, result.p99(), p99));
+        }
+        Double p999 = value(scenario, "p999");
+        if (p999 != null && result.p999() > p999 * (1 + tolerance)) {
+            regressions.add("%s p999 %.2f ms is above baseline %.2f".formatted(scenario, result.p999(), p999));
+        }
+        Double errorRate = value(scenario, "error-rate");
+        if (errorRate != null && result.errorRate() > errorRate) {
+            regressions.add("%s error rate %.4f is above %.4f".formatted(scenario, result.errorRate(), errorRate));
+        }
+        return regressions;
+    }
+
+    /**
+     * Writes results in baseline format, so a run on the reference machine can
+     * be copied over {@code loadtest/baseline.properties}.
+     */
+    static void write(Collection<LoadResult> results, Path report) throws IOException {
+        Properties properties = new Properties();
+        for (LoadResult result : results) {
+            properties.setProperty(result.scenario() + ".throughput", "%.1f".formatted(result.throughput()));
+            properties.setProperty(result.scenario() + ".p50", "%.2f".formatted(result.p50()));
+            properties.setProperty(result.scenario() + ".p99", "%.2f".formatted(result.p99()));
+            properties.setProperty(result.scenario() + ".p999", "%.2f".formatted(result.p999()));
+            properties.setProperty(result.scenario() + ".cpu-per-request", "%.1f".formatted(result.cpuPerRequest()));
+            properties.setProperty(result.scenario() + ".error-rate", "%.4f".formatted(result.errorRate()));
+        }
+        Files.createDirectories(report.getParent());
+        try (OutputStream out = Files.newOutputStream(report)) {
+            properties.store(out, "customer API load test results");
+        }
+    }
+
+    private Double value(String scenario, String metric) {
+        String value = baseline.getProperty(scenario + "." + metric);
+        return value == null ? null : Double.valueOf(value);
+    }
+}
@@ -0,0 +1,57 @@
+package com.swcode.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * How a worker gets a request to the server; returns the response status.
+ */
+interface Transport {
+
+    int send(HttpRequest request) throws IOException, InterruptedException;
+
+    /**
+     * Reuses {@code httpClient}'s connection pool; with {@code HTTP_2} the
+     * client upgrades to h2c when the server offers it.
+     */
+    static Transport pooled(HttpClient httpClient) {
+        return request -> httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Opens a new TCP connection for every request and closes it afterwards,
+     * like callers that do not pool connections. GET only.
+     */
+    static Transport churning() {
+        return request -> {
+            if (!request.method().equals("GET")) {
+                throw new IllegalArgumentException("churning transport only sends GET requests");
+            }
+            URI uri = request.uri();
+            try (Socket socket = new Socket(uri.getHost(), uri.getPort())) {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                out.write(("GET " + uri.getRawPath() + " HTTP/1.1\r\n"
+                        + "Host: " + uri.getHost() + ":" + uri.getPort() + "\r\n"
+                        + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                InputStream in = socket.getInputStream();
+                String statusLine = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))
+                        .readLine();
+                if (statusLine == null) {
+                    throw new IOException("connection closed without a response");
+                }
+                return Integer.parseInt(statusLine.split(" ", 3)[1]);
+            }
+        };
+    }
+}
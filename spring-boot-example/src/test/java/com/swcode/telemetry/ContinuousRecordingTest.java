@@ -0,0 +1,78 @@
+package com.swcode.telemetry;
+
+import com.swcode.customer.CustomerDaoEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ContinuousRecordingTest {
+
+    private ContinuousRecording underTest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        underTest = new ContinuousRecording(true, "default", Duration.ofMinutes(5), 50, Duration.ZERO);
+        underTest.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.destroy();
+    }
+
+    @Test
+    void summarizesCustomerDaoCallsByBackendAndOperation() throws Exception {
+        Instant since = Instant.now().minusSeconds(1);
+        daoCall("jdbc", "selectAllCustomers", 10);
+        daoCall("jdbc", "selectAllCustomers", 5);
+        daoCall("jpa", "selectCustomerById", 1);
+
+        Path file = underTest.dump(since).orElseThrow();
+        try {
+            RecordingSummary summary = RecordingSummary.of(file, since, 10);
+
+            assertThat(summary.daoCalls())
+                    .extracting(RecordingSummary.DaoCalls::backend, RecordingSummary.DaoCalls::operation,
+                            RecordingSummary.DaoCalls::count, RecordingSummary.DaoCalls::rows)
+                    .containsExactlyInAnyOrder(
+                            tuple("jdbc", "selectAllCustomers", 2L, 15L),
+                            tuple("jpa", "selectCustomerById", 1L, 1L));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void doesNotRecordEnvironmentOrSystemProperties() {
+        assertThat(underTest.recording().orElseThrow().getSettings())
+                .containsEntry("jdk.InitialEnvironmentVariable#enabled", "false")
+                .containsEntry("jdk.InitialSystemProperty#enabled", "false")
+                .containsEntry("jdk.JVMInformation#enabled", "false");
+    }
+
+    @Test
+    void dumpIsEmptyWhenDisabled() {
+        ContinuousRecording disabled = new ContinuousRecording(false, "default", Duration.ofMinutes(5), 50, Duration.ZERO);
+
+        assertThat(disabled.recording()).isEmpty();
+        assertThat(disabled.dump(Instant.now())).isEmpty();
+    }
+
+    private static void daoCall(String backend, String operation, long rows) {
+        CustomerDaoEvent event = new CustomerDaoEvent();
+        event.begin();
+        event.backend = backend;
+        event.operation = operation;
+        event.mode = "primary";
+        event.rows = rows;
+        event.commit();
+    }
+}
@@ -0,0 +1,50 @@
+package com.swcode.telemetry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingEndpointTest {
+
+    private ContinuousRecording continuousRecording;
+    private FlightRecordingEndpoint underTest;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        continuousRecording = new ContinuousRecording(true, "default", Duration.ofMinutes(5), 50, Duration.ZERO);
+        continuousRecording.afterPropertiesSet();
+        underTest = new FlightRecordingEndpoint(continuousRecording, Duration.ofMinutes(1), 10, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        continuousRecording.destroy();
+    }
+
+    @Test
+    void rejectsDumpsWhileOneIsBeingDownloaded() throws Exception {
+        WebEndpointResponse<Resource> download = underTest.recording("recording", 1);
+        assertThat(download.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+
+        try (InputStream stream = download.getBody().getInputStream()) {
+            assertThat(stream.read()).isNotNegative();
+            assertThat(underTest.summary(1).getStatus()).isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+            assertThat(underTest.recording("recording", 1).getStatus())
+                    .isEqualTo(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+
+        assertThat(underTest.summary(1).getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+    }
+
+    @Test
+    void unknownSelectorIsNotFound() {
+        assertThat(underTest.recording("heap", 1).getStatus()).isEqualTo(WebEndpointResponse.STATUS_NOT_FOUND);
+    }
+}
@@ -0,0 +1,31 @@
+package com.swcode.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlExplainerTest {
+
+    @Test
+    void masksLiteralsAndParametersButKeepsPlanStatistics() {
+        String plan = """
+                Index Scan using customer_pkey on customer c1_0  (cost=0.29..8.30 rows=1 width=40) (actual time=0.010..0.011 rows=1 loops=1)
+                  Index Cond: (id = 42)
+                  Filter: ((age > '-5'::integer) AND (email = 'al@gmail.com'::text) AND (score < 1.5e3) AND (age <> $1))
+                  Rows Removed by Filter: 12
+                  Buffers: shared hit=3
+                Planning Time: 0.081 ms
+                """;
+
+        String masked = SqlExplainer.mask(plan);
+
+        assertThat(masked).isEqualTo("""
+                Index Scan using customer_pkey on customer c1_0  (cost=0.29..8.30 rows=1 width=40) (actual time=0.010..0.011 rows=1 loops=1)
+                  Index Cond: (id = ?)
+                  Filter: ((age > '?'::integer) AND (email = '?'::text) AND (score < ?) AND (age <> ?))
+                  Rows Removed by Filter: 12
+                  Buffers: shared hit=3
+                Planning Time: 0.081 ms
+                """);
+    }
+}
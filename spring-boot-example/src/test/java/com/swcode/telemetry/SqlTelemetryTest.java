@@ -0,0 +1,172 @@
+package com.swcode.telemetry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SqlTelemetryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlTelemetry underTest;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        underTest = new SqlTelemetry(Duration.ZERO, 1.0, 2, 100, true);
+        underTest.bindTo(meterRegistry);
+    }
+
+    @Test
+    void fingerprintDropsLiteralsAndInLists() {
+        SqlFingerprint fingerprint = SqlFingerprint.of("""
+                SELECT id, name
+                FROM customer
+                WHERE email = 'al@gmail.com' AND age > 30 AND id IN (?, ?, ?) AND v2 = 1
+                """);
+
+        assertThat(fingerprint.sql())
+                .isEqualTo("SELECT id, name FROM customer WHERE email = ? AND age > ? AND id IN (?) AND v2 = ?");
+        assertThat(fingerprint.operation()).isEqualTo("select");
+        assertThat(SqlFingerprint.of("select 1").id()).isEqualTo(SqlFingerprint.of("select   2").id());
+    }
+
+    @Test
+    void recordsExecutionRowsAndAcquireThroughProxies() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        String sql = "SELECT id FROM customer WHERE email = ?";
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        DataSource dataSource = JdbcProxies.dataSource(target, () -> underTest);
+        try (Connection proxied = dataSource.getConnection();
+             PreparedStatement ps = proxied.prepareStatement(sql)) {
+            ps.setString(1, "secret@gmail.com");
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rs.getInt(1);
+                }
+            }
+            assertThat(ps.getConnection()).isSameAs(proxied);
+        }
+
+        SqlTelemetry.StatementSummary summary = underTest.statements().get(0);
+        assertThat(summary.sql()).isEqualTo(sql);
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.rows()).isEqualTo(2);
+        assertThat(underTest.connectionAcquire().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("db.statement").tag("operation", "select").timer().count()).isEqualTo(1);
+        verify(statement).setString(1, "secret@gmail.com");
+        verify(connection).close();
+    }
+
+    @Test
+    void slowLogKeepsFingerprintOnlyAndIsBounded() {
+        for (int age = 1; age <= 3; age++) {
+            underTest.recordExecution(SqlFingerprint.of("UPDATE customer SET age = " + age),
+                    "UPDATE customer SET age = " + age, 1_000_000, null, 0);
+        }
+
+        assertThat(underTest.slowStatements())
+                .hasSize(2)
+                .allSatisfy(slow -> assertThat(slow.sql()).isEqualTo("UPDATE customer SET age = ?"));
+    }
+
+    @Test
+    void statementsBeyondLimitShareTheOtherSeries() {
+        underTest = new SqlTelemetry(Duration.ofHours(1), 1.0, 2, 2, true);
+        meterRegistry = new SimpleMeterRegistry();
+        underTest.bindTo(meterRegistry);
+
+        for (int table = 1; table <= 5; table++) {
+            underTest.recordExecution(SqlFingerprint.of("SELECT * FROM t" + table),
+                    "SELECT * FROM t" + table, 1_000, null, 0);
+        }
+
+        assertThat(meterRegistry.find("db.statement").timers()).hasSize(3);
+        assertThat(meterRegistry.get("db.statement").tag("statement", SqlTelemetry.OTHER).timer().count())
+                .isEqualTo(3);
+        assertThat(underTest.statements())
+                .extracting(SqlTelemetry.StatementSummary::id)
+                .hasSize(3)
+                .contains(SqlTelemetry.OTHER);
+    }
+
+    @Test
+    void passesBindParametersToSlowListeners() throws Exception {
+        SqlTelemetry.SlowExecution[] seen = new SqlTelemetry.SlowExecution[1];
+        underTest.onSlowExecution(execution -> seen[0] = execution);
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        PreparedStatement replay = mock(PreparedStatement.class);
+        String sql = "DELETE FROM customer WHERE id = ?";
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+        when(statement.executeUpdate()).thenReturn(1);
+
+        try (Connection proxied = JdbcProxies.dataSource(target, () -> underTest).getConnection();
+             PreparedStatement ps = proxied.prepareStatement(sql)) {
+            ps.setInt(1, 42);
+            ps.executeUpdate();
+        }
+        seen[0].parameters().applyTo(replay);
+
+        assertThat(seen[0].fingerprint().operation()).isEqualTo("delete");
+        assertThat(underTest.statements().get(0).rows()).isEqualTo(1);
+        verify(replay).setInt(1, 42);
+    }
+
+    @Test
+    void observesEachExecutionAsJdbcStatement() throws Exception {
+        List<Observation.Context> observed = new ArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                observed.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        underTest.useObservationRegistry(observationRegistry);
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        String sql = "UPDATE customer SET age = ? WHERE id = ?";
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(sql)).thenReturn(statement);
+
+        try (Connection proxied = JdbcProxies.dataSource(target, () -> underTest).getConnection();
+             PreparedStatement ps = proxied.prepareStatement(sql)) {
+            ps.executeUpdate();
+        }
+
+        assertThat(observed).singleElement().satisfies(context -> {
+            assertThat(context.getName()).isEqualTo("jdbc.statement");
+            assertThat(context.getLowCardinalityKeyValue("operation").getValue()).isEqualTo("update");
+            assertThat(context.getHighCardinalityKeyValue("db.statement").getValue()).isEqualTo(sql);
+        });
+    }
+}
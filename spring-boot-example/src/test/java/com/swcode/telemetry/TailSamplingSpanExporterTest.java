@@ -0,0 +1,113 @@
+package com.swcode.telemetry;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanExporterTest {
+
+    private InMemorySpanExporter collector;
+    private TailSamplingSpanExporter underTest;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        collector = InMemorySpanExporter.create();
+        underTest = new TailSamplingSpanExporter(collector, Duration.ofMillis(500), 0.0, 2, 3);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(underTest))
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.close();
+    }
+
+    @Test
+    void exportsWholeTraceWhenRootIsSlow() {
+        trace(Duration.ofSeconds(1), false);
+
+        assertThat(collector.getFinishedSpanItems())
+                .extracting(SpanData::getName)
+                .containsExactly("jdbc", "request");
+    }
+
+    @Test
+    void dropsFastSuccessfulTrace() {
+        trace(Duration.ofMillis(10), false);
+
+        assertThat(collector.getFinishedSpanItems()).isEmpty();
+        assertThat(underTest.pendingTraces()).isZero();
+    }
+
+    @Test
+    void exportsFastTraceWithFailedSpan() {
+        trace(Duration.ofMillis(10), true);
+
+        assertThat(collector.getFinishedSpanItems()).hasSize(2);
+    }
+
+    @Test
+    void boundsTracesWaitingForTheirRoot() {
+        for (int i = 0; i < 5; i++) {
+            Span root = tracer.spanBuilder("stream").startSpan();
+            try (Scope ignored = root.makeCurrent()) {
+                tracer.spanBuilder("jdbc").startSpan().end();
+            }
+        }
+
+        assertThat(underTest.pendingTraces()).isEqualTo(2);
+    }
+
+    @Test
+    void capsSpansHeldPerTraceAndCountsTheRest() {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("bulk").setStartTimestamp(start).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            for (int i = 0; i < 5; i++) {
+                tracer.spanBuilder("jdbc").startSpan().end();
+            }
+            Span failing = tracer.spanBuilder("jdbc").startSpan();
+            failing.setStatus(StatusCode.ERROR);
+            failing.end();
+        }
+        root.end(start.plus(Duration.ofMillis(10)));
+
+        // kept although the failed span itself was dropped
+        assertThat(collector.getFinishedSpanItems())
+                .extracting(SpanData::getName)
+                .containsExactly("jdbc", "jdbc", "jdbc", "bulk");
+        assertThat(collector.getFinishedSpanItems().get(3).getAttributes().get(TailSamplingSpanExporter.DROPPED_SPANS))
+                .isEqualTo(3L);
+        assertThat(underTest.droppedSpans()).isEqualTo(3);
+    }
+
+    private void trace(Duration rootDuration, boolean childFails) {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("request").setStartTimestamp(start).startSpan();
+        try (Scope ignored = root.makeCurrent()) {
+            Span child = tracer.spanBuilder("jdbc").startSpan();
+            if (childFails) {
+                child.setStatus(StatusCode.ERROR);
+            }
+            child.end();
+        }
+        root.end(start.plus(rootDuration));
+    }
+}